@@ -0,0 +1,11 @@
+package net.serenitybdd.plugins.jira.workflow
+
+/**
+ * Sends every call made by a workflow script to the transition builder.
+ */
+class BuilderBinding extends Binding {
+    def builder
+    Object getVariable(String name) {
+        return { Object... args ->  builder.invokeMethod(name,args) }
+    }
+}
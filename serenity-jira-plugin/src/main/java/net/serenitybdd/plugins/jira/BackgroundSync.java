@@ -0,0 +1,85 @@
+package net.serenitybdd.plugins.jira;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs JIRA and Zephyr updates on dedicated sync threads, so that the test threads only have to queue them.
+ * The queue is bounded: when it is full, the test thread waits for a free slot rather than piling up updates.
+ */
+public class BackgroundSync {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundSync.class);
+
+    private final int threads;
+    private final int queueSize;
+    private ThreadPoolExecutor executor;
+
+    public BackgroundSync(int threads, int queueSize) {
+        this.threads = Math.max(1, threads);
+        this.queueSize = Math.max(1, queueSize);
+    }
+
+    /**
+     * Queue an update, waiting for room in the queue if need be.
+     */
+    public void submit(String description, Runnable update) {
+        executor().execute(() -> {
+            try {
+                update.run();
+            } catch (RuntimeException failure) {
+                LOGGER.error("Failed to " + description, failure);
+            }
+        });
+    }
+
+    private synchronized ThreadPoolExecutor executor() {
+        if (executor == null || executor.isShutdown()) {
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueSize),
+                    new ThreadFactoryBuilder().setNameFormat("jira-sync-%d").setDaemon(true).build(),
+                    BackgroundSync::waitForRoomInQueue);
+        }
+        return executor;
+    }
+
+    private static void waitForRoomInQueue(Runnable update, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("JIRA sync has been shut down");
+        }
+        try {
+            executor.getQueue().put(update);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to queue a JIRA update", e);
+        }
+    }
+
+    /**
+     * Wait for every queued update to finish, up to the given deadline, then release the sync threads.
+     *
+     * @return true if every update finished in time
+     */
+    public synchronized boolean drain(long timeoutInSeconds) {
+        if (executor == null) {
+            return true;
+        }
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeoutInSeconds, TimeUnit.SECONDS)) {
+                return true;
+            }
+            LOGGER.error("{} JIRA updates were still queued after {} seconds", executor.getQueue().size(), timeoutInSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        return false;
+    }
+}
@@ -0,0 +1,84 @@
+package net.serenitybdd.plugins.jira;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Buffers the issues touched by each test suite, so that an issue is written at most once per debounce window
+ * rather than once per suite or scenario. An issue is only written if its state (for example its aggregated test result)
+ * has changed since it was last written. Issues still waiting when the test run finishes are written by {@link #flush()}.
+ */
+public class IssueUpdateCoalescer {
+
+    private final long windowInMillis;
+    private final Function<String, Object> issueState;
+    private final Consumer<Set<String>> update;
+    private final LongSupplier clock;
+
+    private final Set<String> pendingIssues = new LinkedHashSet<>();
+    private final Map<String, Long> lastUpdateTimes = new HashMap<>();
+    private final Map<String, Object> lastUpdatedStates = new HashMap<>();
+
+    public IssueUpdateCoalescer(long windowInMillis, Function<String, Object> issueState, Consumer<Set<String>> update) {
+        this(windowInMillis, issueState, update, System::currentTimeMillis);
+    }
+
+    IssueUpdateCoalescer(long windowInMillis, Function<String, Object> issueState, Consumer<Set<String>> update,
+                         LongSupplier clock) {
+        this.windowInMillis = windowInMillis;
+        this.issueState = issueState;
+        this.update = update;
+        this.clock = clock;
+    }
+
+    /**
+     * Record that the results of some issues have changed, and write the ones that have not been written
+     * within the debounce window.
+     */
+    public synchronized void issuesUpdated(Collection<String> issues) {
+        pendingIssues.addAll(issues);
+        long now = clock.getAsLong();
+        Set<String> dueIssues = new LinkedHashSet<>();
+        for (String issue : pendingIssues) {
+            Long lastUpdateTime = lastUpdateTimes.get(issue);
+            if (lastUpdateTime == null || now - lastUpdateTime >= windowInMillis) {
+                dueIssues.add(issue);
+            }
+        }
+        write(dueIssues, now);
+    }
+
+    /**
+     * Write every issue still waiting, whatever the debounce window.
+     */
+    public synchronized void flush() {
+        write(new LinkedHashSet<>(pendingIssues), clock.getAsLong());
+    }
+
+    public synchronized Set<String> getPendingIssues() {
+        return ImmutableSet.copyOf(pendingIssues);
+    }
+
+    private void write(Set<String> dueIssues, long now) {
+        Map<String, Object> changedIssues = new LinkedHashMap<>();
+        for (String issue : dueIssues) {
+            pendingIssues.remove(issue);
+            Object state = issueState.apply(issue);
+            if (!Objects.equals(state, lastUpdatedStates.get(issue))) {
+                changedIssues.put(issue, state);
+            }
+        }
+        if (changedIssues.isEmpty()) {
+            return;
+        }
+        update.accept(ImmutableSet.copyOf(changedIssues.keySet()));
+        changedIssues.forEach((issue, state) -> {
+            lastUpdatedStates.put(issue, state);
+            lastUpdateTimes.put(issue, now);
+        });
+    }
+}
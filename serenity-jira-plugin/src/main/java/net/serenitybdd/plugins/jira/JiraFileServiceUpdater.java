@@ -5,6 +5,8 @@ import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import net.serenitybdd.plugins.jira.guice.Injectors;
 import net.serenitybdd.plugins.jira.model.IssueTracker;
+import net.serenitybdd.plugins.jira.service.CommentFingerprints;
+import net.serenitybdd.plugins.jira.service.TransitionGraph;
 import net.serenitybdd.plugins.jira.workflow.WorkflowLoader;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestOutcomeSummary;
@@ -27,7 +29,7 @@ import java.util.Set;
 public class JiraFileServiceUpdater implements JiraUpdaterService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JiraFileServiceUpdater.class);
-    private final TestResultTally<TestOutcomeSummary> resultTally;
+    private final TestResultTally<OutcomeRecord> resultTally;
     private Set<String> allIssues;
     private JiraUpdater jiraUpdater;
 
@@ -35,7 +37,7 @@ public class JiraFileServiceUpdater implements JiraUpdaterService {
     public JiraFileServiceUpdater(IssueTracker issueTracker,
                                   EnvironmentVariables environmentVariables,
                                   WorkflowLoader loader) {
-        this.resultTally = new TestResultTally<TestOutcomeSummary>();
+        this.resultTally = new TestResultTally<>(OutcomeRecord::getTestResult);
         this.allIssues = new HashSet<>();
         jiraUpdater = new JiraUpdater(issueTracker,environmentVariables,loader);
     }
@@ -107,11 +109,14 @@ public class JiraFileServiceUpdater implements JiraUpdaterService {
     private void updateAllIssuesStatus() {
         if (jiraUpdater.shouldUpdateIssues()) {
             jiraUpdater.updateIssueStatus(allIssues,resultTally);
+            CommentFingerprints.saveAll();
+            TransitionGraph.saveAll();
         }
     }
     private void tallyResults(TestOutcomeSummary result, List<String> issues) {
+        OutcomeRecord outcomeRecord = OutcomeRecord.from(result);
         for(String issue : issues) {
-            resultTally.recordResult(issue, result);
+            resultTally.recordResult(issue, outcomeRecord);
         }
     }
 
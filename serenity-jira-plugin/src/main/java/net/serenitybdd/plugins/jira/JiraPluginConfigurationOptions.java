@@ -4,4 +4,20 @@ public class JiraPluginConfigurationOptions {
     public static final String SKIP_JIRA_UPDATES = "serenity.skip.jira.updates";
     public static final String ALWAYS_CREATE_NEW_COMMENT = "serenity.jira.always.create.new.comment";
     public static final String BUILD_ID_PROPERTY = "build.id";
+    public static final String JIRA_MAX_THREADS = "jira.max.threads";
+    public static final String BATCH_JIRA_UPDATES = "serenity.jira.batch.updates";
+    public static final String BULK_JIRA_TRANSITIONS = "serenity.jira.bulk.transitions";
+    public static final String BULK_TRANSITION_TIMEOUT = "jira.bulk.transition.timeout";
+    public static final String COALESCE_JIRA_UPDATES = "serenity.jira.coalesce.updates";
+    public static final String COALESCE_WINDOW = "serenity.jira.coalesce.window";
+    public static final String BACKGROUND_SYNC = "serenity.jira.background.sync";
+    public static final String SYNC_THREADS = "serenity.jira.sync.threads";
+    public static final String SYNC_QUEUE_SIZE = "serenity.jira.sync.queue.size";
+    public static final String SYNC_TIMEOUT = "serenity.jira.sync.timeout";
+    public static final String TALLY_MEMORY_THRESHOLD = "serenity.jira.tally.memory.threshold";
+    public static final String IDEMPOTENT_COMMENTS = "serenity.jira.idempotent.comments";
+    public static final String COMMENT_FINGERPRINT_MAX_AGE_DAYS = "serenity.jira.comment.fingerprint.max.age.days";
+    public static final String JIRA_PERSISTENT_CACHE = "jira.persistent.cache";
+    public static final String JIRA_CACHE_DIRECTORY = "jira.cache.dir";
+    public static final String JIRA_CACHE_FULL_REFRESH_HOURS = "jira.cache.full.refresh.hours";
 }
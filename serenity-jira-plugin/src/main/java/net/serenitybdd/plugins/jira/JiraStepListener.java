@@ -1,8 +1,12 @@
 package net.serenitybdd.plugins.jira;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
+import net.serenitybdd.plugins.jira.client.RestClientPool;
 import net.serenitybdd.plugins.jira.guice.Injectors;
 import net.serenitybdd.plugins.jira.model.IssueTracker;
+import net.serenitybdd.plugins.jira.service.CommentFingerprints;
+import net.serenitybdd.plugins.jira.service.TransitionGraph;
 import net.serenitybdd.plugins.jira.workflow.WorkflowLoader;
 import net.serenitybdd.plugins.jira.zephyr.ZephyrUpdater;
 import net.serenitybdd.plugins.jira.zephyr.client.ZephyrClient;
@@ -17,10 +21,20 @@ import net.thucydides.core.util.EnvironmentVariables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.COALESCE_JIRA_UPDATES;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.COALESCE_WINDOW;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.BACKGROUND_SYNC;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.SYNC_QUEUE_SIZE;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.SYNC_THREADS;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.SYNC_TIMEOUT;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.TALLY_MEMORY_THRESHOLD;
 
 /**
  * Updates JIRA issues referenced in a story with a link to the corresponding story report.
@@ -29,19 +43,80 @@ public class JiraStepListener implements StepListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JiraStepListener.class);
 
-    private static TestResultTally<TestOutcomeSummary> resultTally = new TestResultTally<>();
-    private static Set<String> testSuiteIssues = new CopyOnWriteArraySet();
+    private static TestResultTally<OutcomeRecord> resultTally = new TestResultTally<>(OutcomeRecord::getTestResult, OutcomeRecord.CODEC);
+    private static Set<String> testSuiteIssues = ConcurrentHashMap.newKeySet();
+    private static IssueUpdateCoalescer jiraUpdates;
+    private static IssueUpdateCoalescer zephyrUpdates;
+    private static BackgroundSync backgroundSync;
+    private static final int DEFAULT_COALESCE_WINDOW_IN_SECONDS = 30;
+    private static final int DEFAULT_SYNC_THREADS = 1;
+    private static final int DEFAULT_SYNC_QUEUE_SIZE = 50;
+    private static final int DEFAULT_SYNC_TIMEOUT_IN_SECONDS = 600;
+    private static final int DEFAULT_TALLY_MEMORY_THRESHOLD_IN_MB = 256;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
     private JiraUpdater jiraUpdater;
     private ZephyrUpdater zypherUpdater;
+    private final EnvironmentVariables environmentVariables;
 
     @Inject
     public JiraStepListener(IssueTracker issueTracker,
                             EnvironmentVariables environmentVariables,
                             WorkflowLoader loader, ZephyrClient zephyrClient) {
+        this.environmentVariables = environmentVariables;
+        resultTally.setMemoryThreshold(BYTES_PER_MB
+                * environmentVariables.getPropertyAsInteger(TALLY_MEMORY_THRESHOLD, DEFAULT_TALLY_MEMORY_THRESHOLD_IN_MB));
         jiraUpdater = new JiraUpdater(issueTracker,environmentVariables,loader);
         
         // For Zephyr
         zypherUpdater = new ZephyrUpdater(issueTracker, environmentVariables, zephyrClient);
+        if (coalesceUpdates()) {
+            createCoalescersFor(jiraUpdater, zypherUpdater, coalesceWindowInMillis());
+        }
+        if (syncInBackground()) {
+            createBackgroundSync(environmentVariables.getPropertyAsInteger(SYNC_THREADS, DEFAULT_SYNC_THREADS),
+                                 environmentVariables.getPropertyAsInteger(SYNC_QUEUE_SIZE, DEFAULT_SYNC_QUEUE_SIZE));
+        }
+    }
+
+    private static synchronized void createBackgroundSync(int threads, int queueSize) {
+        if (backgroundSync == null) {
+            backgroundSync = new BackgroundSync(threads, queueSize);
+        }
+    }
+
+    private boolean syncInBackground() {
+        return environmentVariables.getPropertyAsBoolean(BACKGROUND_SYNC, false);
+    }
+
+    /**
+     * Like the result tally, the buffered issues are shared by every listener in the JVM.
+     */
+    private static synchronized void createCoalescersFor(JiraUpdater jiraUpdater, ZephyrUpdater zephyrUpdater, long windowInMillis) {
+        if (jiraUpdates == null) {
+            jiraUpdates = new IssueUpdateCoalescer(windowInMillis,
+                    issue -> Arrays.asList(resultTally.getResultForIssue(issue), resultTally.getOutcomeCountForIssue(issue)),
+                    issues -> jiraUpdater.updateIssueStatus(issues, resultTally));
+            zephyrUpdates = new IssueUpdateCoalescer(windowInMillis,
+                    issue -> resultTally.getResultForIssue(issue),
+                    issues -> zephyrUpdater.updateZephyrExecutionStatus(issues, resultTally));
+        }
+    }
+
+    /**
+     * Forget the buffered issues, so that the next listener created in coalesced mode starts afresh.
+     */
+    static synchronized void resetCoalescedUpdates() {
+        jiraUpdates = null;
+        zephyrUpdates = null;
+    }
+
+    private boolean coalesceUpdates() {
+        return environmentVariables.getPropertyAsBoolean(COALESCE_JIRA_UPDATES, false);
+    }
+
+    private long coalesceWindowInMillis() {
+        return TimeUnit.SECONDS.toMillis(
+                environmentVariables.getPropertyAsInteger(COALESCE_WINDOW, DEFAULT_COALESCE_WINDOW_IN_SECONDS));
     }
 
     public JiraStepListener() {
@@ -69,26 +144,48 @@ public class JiraStepListener implements StepListener {
 
     public void testFinished(TestOutcome result) {
         if (jiraUpdater.shouldUpdateIssues() || zypherUpdater.shouldUpdateZephyrExecution()) {
-            List<String> issues = jiraUpdater.getPrefixedIssuesWithoutHashes(new TestOutcomeSummary(result));
-            tallyResults(new TestOutcomeSummary(result), issues);
+            TestOutcomeSummary outcomeSummary = new TestOutcomeSummary(result);
+            List<String> issues = jiraUpdater.getPrefixedIssuesWithoutHashes(outcomeSummary);
+            tallyResults(OutcomeRecord.from(outcomeSummary), issues);
             testSuiteIssues.addAll(issues);
         }
     }
 
-    private void tallyResults(TestOutcomeSummary result, List<String> issues) {
+    private void tallyResults(OutcomeRecord outcomeRecord, List<String> issues) {
         for(String issue : issues) {
-            resultTally.recordResult(issue, result);
+            resultTally.recordResult(issue, outcomeRecord);
         }
     }
 
     public void testSuiteFinished() {
+        Set<String> issues = ImmutableSet.copyOf(testSuiteIssues);
+        if (syncInBackground()) {
+            if (issues.isEmpty()) {
+                return;
+            }
+            backgroundSync.submit("update JIRA issues " + issues, () -> updateIssues(issues));
+        } else {
+            updateIssues(issues);
+        }
+    }
+
+    private void updateIssues(Set<String> issues) {
+        if (coalesceUpdates()) {
+            if (jiraUpdater.shouldUpdateIssues()) {
+                jiraUpdates.issuesUpdated(issues);
+            }
+            if (zypherUpdater.shouldUpdateZephyrExecution()) {
+                zephyrUpdates.issuesUpdated(issues);
+            }
+            return;
+        }
         if (jiraUpdater.shouldUpdateIssues()) {
-            jiraUpdater.updateIssueStatus(testSuiteIssues, resultTally);
+            jiraUpdater.updateIssueStatus(issues, resultTally);
         }
         // It seems for cucumber if there are multiple scenarios associated with same story/Test
         // then serenity invokes this function as many times as we have scenarios.
         if (zypherUpdater.shouldUpdateZephyrExecution()) {
-        	zypherUpdater.updateZephyrExecutionStatus(testSuiteIssues, resultTally);
+        	zypherUpdater.updateZephyrExecutionStatus(issues, resultTally);
         }
     }
 
@@ -113,6 +210,27 @@ public class JiraStepListener implements StepListener {
     public void assumptionViolated(String s) {}
 
     public void testRunFinished() {
+        boolean syncFinished = !syncInBackground()
+                || backgroundSync.drain(environmentVariables.getPropertyAsInteger(SYNC_TIMEOUT, DEFAULT_SYNC_TIMEOUT_IN_SECONDS));
+        if (coalesceUpdates()) {
+            flushCoalescedUpdates();
+        }
+        TransitionGraph.saveAll();
+        CommentFingerprints.saveAll();
+        zypherUpdater.shutdown();
+        if (syncFinished) {
+            resultTally.close();
+            RestClientPool.shutdown();
+        } else {
+            LOGGER.warn("Some JIRA updates are still running: the JIRA clients and the spill file will be released when the JVM exits");
+        }
+    }
+
+    private static synchronized void flushCoalescedUpdates() {
+        if (jiraUpdates != null) {
+            jiraUpdates.flush();
+            zephyrUpdates.flush();
+        }
     }
 
     public void stepFinished() {}
@@ -1,12 +1,12 @@
 package net.serenitybdd.plugins.jira;
 
 
-import ch.lambdaj.function.convert.Converter;
 import net.serenitybdd.plugins.jira.domain.IssueComment;
 import net.serenitybdd.plugins.jira.guice.Injectors;
 import net.serenitybdd.plugins.jira.model.IssueTracker;
 import net.serenitybdd.plugins.jira.model.NamedTestResult;
 import net.serenitybdd.plugins.jira.model.TestResultComment;
+import net.serenitybdd.plugins.jira.service.CommentFingerprints;
 import net.serenitybdd.plugins.jira.service.JIRAConfiguration;
 import net.serenitybdd.plugins.jira.service.NoSuchIssueException;
 import net.serenitybdd.plugins.jira.workflow.ClasspathWorkflowLoader;
@@ -21,11 +21,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
-import static ch.lambdaj.Lambda.convert;
 import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.*;
 import static net.serenitybdd.plugins.jira.model.JIRACommentBuilder.SERENITY_COMMENT_HEADING;
 
@@ -65,8 +69,12 @@ public class JiraUpdater {
         LOGGER.debug("WORKFLOW ACTIVE: {} ", workflow.isActive());
     }
 
-    public void updateIssueStatus(Set<String> issues, final TestResultTally<TestOutcomeSummary> resultTally) {
+    public void updateIssueStatus(Set<String> issues, final TestResultTally<OutcomeRecord> resultTally) {
 
+        if (batchUpdates()) {
+            updateIssuesInBatches(issues, resultTally);
+            return;
+        }
         issues.parallelStream().forEach(
                 issue -> updateIssue(issue, resultTally.getTestOutcomesForIssue(issue))
         );
@@ -84,18 +92,85 @@ public class JiraUpdater {
         return !(StringUtils.isEmpty(jiraUrl) || StringUtils.isEmpty(reportUrl));
     }
 
-    private void updateIssue(String issueId, List<TestOutcomeSummary> testOutcomes) {
+    private void updateIssue(String issueId, List<OutcomeRecord> testOutcomes) {
 
         try {
-            TestResultComment testResultComment = newOrUpdatedCommentFor(issueId, testOutcomes);
+            TestResult overallResult = newOrUpdatedCommentFor(issueId, testOutcomes);
             if (getWorkflow().isActive() && shouldUpdateWorkflow()) {
-                updateIssueStatusFor(issueId, testResultComment.getOverallResult());
+                updateIssueStatusFor(issueId, overallResult);
             }
         } catch (NoSuchIssueException e) {
             LOGGER.error("No JIRA issue found with ID {}", issueId);
         }
     }
 
+    /**
+     * Read the comments and statuses of all the issues in a few paged requests, then write the comments
+     * and the workflow transitions of all the issues together, rather than going through the issues one by one.
+     */
+    private void updateIssuesInBatches(Set<String> issues, final TestResultTally<OutcomeRecord> resultTally) {
+        Map<String, TestResult> overallResults = new HashMap<>();
+        Map<String, String> fingerprints = new HashMap<>();
+        Set<String> changedIssues = new HashSet<>();
+        for (String issueId : issues) {
+            if (idempotentComments()) {
+                String fingerprint = CommentFingerprints.fingerprintOf(
+                        namedTestResultsFrom(resultTally.getTestOutcomesForIssue(issueId)));
+                Optional<TestResult> writtenResult = commentFingerprints().resultWrittenFor(issueId, fingerprint);
+                if (writtenResult.isPresent()) {
+                    overallResults.put(issueId, writtenResult.get());
+                    continue;
+                }
+                fingerprints.put(issueId, fingerprint);
+            }
+            changedIssues.add(issueId);
+        }
+        LOGGER.info("Updating comments for {} issues ({} unchanged)", changedIssues.size(), issues.size() - changedIssues.size());
+        Map<String, List<IssueComment>> existingComments = issueTracker.getCommentsFor(changedIssues);
+
+        Map<String, IssueComment> comments = new HashMap<>();
+        for (String issueId : changedIssues) {
+            if (!existingComments.containsKey(issueId)) {
+                LOGGER.error("No JIRA issue found with ID {}", issueId);
+                continue;
+            }
+            Optional<IssueComment> existingComment = findExistingSerenityCommentIn(existingComments.get(issueId));
+            TestResultComment testResultComment
+                    = testResultCommentFor(existingComment, resultTally.getTestOutcomesForIssue(issueId));
+            if (!hasSameTestResults(existingComment, testResultComment)) {
+                comments.put(issueId, issueCommentFor(existingComment, testResultComment));
+            }
+            overallResults.put(issueId, testResultComment.getOverallResult());
+        }
+        if (!dryRun()) {
+            Set<String> failedIssues = issueTracker.applyComments(comments);
+            fingerprints.forEach((issueId, fingerprint) -> {
+                if (overallResults.containsKey(issueId) && !failedIssues.contains(issueId)) {
+                    commentFingerprints().record(issueId, fingerprint, overallResults.get(issueId));
+                }
+            });
+        }
+
+        if (getWorkflow().isActive() && shouldUpdateWorkflow()) {
+            Map<String, String> currentStatuses = issueTracker.getStatuses(overallResults.keySet());
+            Map<String, List<String>> transitions = new HashMap<>();
+            for (Map.Entry<String, TestResult> overallResult : overallResults.entrySet()) {
+                String currentStatus = currentStatuses.get(overallResult.getKey());
+                if (currentStatus != null) {
+                    transitions.put(overallResult.getKey(),
+                            getWorkflow().getTransitions().forTestResult(overallResult.getValue()).whenIssueIs(currentStatus));
+                }
+            }
+            LOGGER.info("Found transitions {}", transitions);
+            issueTracker.doTransitions(transitions);
+        }
+    }
+
+    private boolean batchUpdates() {
+        return environmentVariables.getPropertyAsBoolean(BATCH_JIRA_UPDATES, false)
+                || environmentVariables.getPropertyAsBoolean(BULK_JIRA_TRANSITIONS, false);
+    }
+
     private void updateIssueStatusFor(final String issueId, final TestResult testResult) {
         LOGGER.info("Updating status for issue {} with test result {}", issueId, testResult);
         String currentStatus = issueTracker.getStatusFor(issueId);
@@ -110,47 +185,100 @@ public class JiraUpdater {
         }
     }
 
-    private List<NamedTestResult> namedTestResultsFrom(List<TestOutcomeSummary> testOutcomes) {
-        return convert(testOutcomes, toNamedTestResults());
-    }
-
-    private Converter<TestOutcomeSummary, NamedTestResult> toNamedTestResults() {
-        return from -> new NamedTestResult(from.getTitle(), from.getTestResult());
+    private List<NamedTestResult> namedTestResultsFrom(List<OutcomeRecord> testOutcomes) {
+        List<NamedTestResult> namedTestResults = new ArrayList<>(testOutcomes.size());
+        for (OutcomeRecord testOutcome : testOutcomes) {
+            namedTestResults.add(new NamedTestResult(testOutcome.getTitle(), testOutcome.getTestResult()));
+        }
+        return namedTestResults;
     }
 
-    private TestResultComment newOrUpdatedCommentFor(final String issueId, List<TestOutcomeSummary> testOutcomes) {
+    /**
+     * @return the overall result of the tests recorded against the issue
+     */
+    private TestResult newOrUpdatedCommentFor(final String issueId, List<OutcomeRecord> testOutcomes) {
+        String fingerprint = null;
+        if (idempotentComments()) {
+            fingerprint = CommentFingerprints.fingerprintOf(namedTestResultsFrom(testOutcomes));
+            Optional<TestResult> writtenResult = commentFingerprints().resultWrittenFor(issueId, fingerprint);
+            if (writtenResult.isPresent()) {
+                LOGGER.info("Test results for issue {} have not changed since the last update", issueId);
+                return writtenResult.get();
+            }
+        }
         LOGGER.info("Updating comments for issue {}", issueId);
         LOGGER.info("WIKI Rendering activated: {}", isWikiRenderedActive());
 
         List<IssueComment> comments = issueTracker.getCommentsFor(issueId);
         Optional<IssueComment> existingComment = findExistingSerenityCommentIn(comments);
+        TestResultComment testResultComment = testResultCommentFor(existingComment, testOutcomes);
+        if (!dryRun()) {
+            if (hasSameTestResults(existingComment, testResultComment)) {
+                LOGGER.info("Comment on issue {} already has these test results", issueId);
+            } else if (updatesExistingComment(existingComment)) {
+                issueTracker.updateComment(issueId, issueCommentFor(existingComment, testResultComment));
+            } else {
+                issueTracker.addComment(issueId, testResultComment.asText());
+            }
+            if (fingerprint != null) {
+                commentFingerprints().record(issueId, fingerprint, testResultComment.getOverallResult());
+            }
+        }
+        return testResultComment.getOverallResult();
+    }
+
+    /**
+     * In idempotent mode, an existing comment is left alone when only its timestamp, build number
+     * or report link would change.
+     */
+    private boolean hasSameTestResults(Optional<IssueComment> existingComment, TestResultComment testResultComment) {
+        if (!idempotentComments() || !updatesExistingComment(existingComment)) {
+            return false;
+        }
+        List<NamedTestResult> existingTestResults
+                = TestResultComment.fromText(existingComment.get().getBody()).getNamedTestResults();
+        return CommentFingerprints.fingerprintOf(existingTestResults)
+                .equals(CommentFingerprints.fingerprintOf(testResultComment.getNamedTestResults()));
+    }
+
+    private boolean idempotentComments() {
+        return environmentVariables.getPropertyAsBoolean(IDEMPOTENT_COMMENTS, false) && !createNewCommentForEachUpdate();
+    }
+
+    private CommentFingerprints commentFingerprints() {
+        return CommentFingerprints.forInstance(configuration.getJiraUrl(), environmentVariables);
+    }
+
+    private TestResultComment testResultCommentFor(Optional<IssueComment> existingComment,
+                                                   List<OutcomeRecord> testOutcomes) {
         String testRunNumber = environmentVariables.getProperty(BUILD_ID_PROPERTY);
-        TestResultComment testResultComment;
         List<NamedTestResult> newTestResults = namedTestResultsFrom(testOutcomes);
-        if (!existingComment.isPresent() || createNewCommentForEachUpdate()) {
-            testResultComment = TestResultComment.comment(isWikiRenderedActive())
-                    .withResults(namedTestResultsFrom(testOutcomes))
+        if (!updatesExistingComment(existingComment)) {
+            return TestResultComment.comment(isWikiRenderedActive())
+                    .withResults(newTestResults)
                     .withReportUrl(linkToReport(testOutcomes))
                     .forTestsExecutedAt(LocalDateTime.now())
                     .withTestRun(testRunNumber).asComment();
-
-            if (!dryRun()) {
-                issueTracker.addComment(issueId, testResultComment.asText());
-            }
         } else {
-            testResultComment = TestResultComment.fromText(existingComment.get().getBody())
+            return TestResultComment.fromText(existingComment.get().getBody())
                     .withWikiRendering(isWikiRenderedActive())
                     .withUpdatedTestResults(newTestResults)
                     .withUpdatedReportUrl(linkToReport(testOutcomes))
                     .forTestsExecutedAt(LocalDateTime.now())
                     .withUpdatedTestRunNumber(testRunNumber);
+        }
+    }
 
-            IssueComment updatedComment = existingComment.get().withText(testResultComment.asText());
-            if (!dryRun()) {
-                issueTracker.updateComment(issueId, updatedComment);
-            }
+    private IssueComment issueCommentFor(Optional<IssueComment> existingComment, TestResultComment testResultComment) {
+        if (updatesExistingComment(existingComment)) {
+            return existingComment.get().withText(testResultComment.asText());
+        } else {
+            return new IssueComment(testResultComment.asText());
         }
-        return testResultComment;
+    }
+
+    private boolean updatesExistingComment(Optional<IssueComment> existingComment) {
+        return existingComment.isPresent() && !createNewCommentForEachUpdate();
     }
 
     private boolean createNewCommentForEachUpdate() {
@@ -175,8 +303,8 @@ public class JiraUpdater {
         return Boolean.parseBoolean(environmentVariables.getProperty(SKIP_JIRA_UPDATES));
     }
 
-    private String linkToReport(List<TestOutcomeSummary> testOutcomes) {
-        TestOutcomeSummary firstTestOutcome = testOutcomes.get(0);
+    private String linkToReport(List<OutcomeRecord> testOutcomes) {
+        OutcomeRecord firstTestOutcome = testOutcomes.get(0);
         String reportUrl = ThucydidesSystemProperty.SERENITY_PUBLIC_URL.from(environmentVariables, "");
         String reportName = firstTestOutcome.getReportName() + ".html";
         return formatTestResultsLink(reportUrl, reportName);
@@ -195,27 +323,25 @@ public class JiraUpdater {
     }
 
     private List<String> addPrefixesIfRequired(final List<String> issueNumbers) {
-        return convert(issueNumbers, toIssueNumbersWithPrefixes());
+        return issueNumbers.stream().map(this::withPrefixIfRequired).collect(Collectors.toList());
     }
 
     private List<String> issueReferencesIn(TestOutcomeSummary result) {
         return result.getIssues();
     }
 
-    private Converter<String, String> toIssueNumbersWithPrefixes() {
-        return issueNumber -> {
-            if (StringUtils.isEmpty(projectPrefix)) {
-                return issueNumber;
-            }
-            if (issueNumber.startsWith(projectPrefix)) {
-                return issueNumber;
-            }
-            return projectPrefix + "-" + issueNumber;
-        };
+    private String withPrefixIfRequired(String issueNumber) {
+        if (StringUtils.isEmpty(projectPrefix)) {
+            return issueNumber;
+        }
+        if (issueNumber.startsWith(projectPrefix)) {
+            return issueNumber;
+        }
+        return projectPrefix + "-" + issueNumber;
     }
 
     private List<String> stripInitialHashesFrom(final List<String> issueNumbers) {
-        return convert(issueNumbers, toIssueNumbersWithoutHashes());
+        return issueNumbers.stream().map(this::withoutInitialHash).collect(Collectors.toList());
     }
 
     @Override
@@ -223,20 +349,16 @@ public class JiraUpdater {
         return super.hashCode();
     }
 
-    private Converter<String, String> toIssueNumbersWithoutHashes() {
-        return issueNumber -> {
-
-            if (issueNumber.startsWith("#")) {
-                return issueNumber.substring(1);
-            } else {
-                return issueNumber;
-            }
-
-        };
+    private String withoutInitialHash(String issueNumber) {
+        if (issueNumber.startsWith("#")) {
+            return issueNumber.substring(1);
+        } else {
+            return issueNumber;
+        }
     }
 
     private int getMaxJobs() {
-        return environmentVariables.getPropertyAsInteger("jira.max.threads", DEFAULT_MAX_THREADS);
+        return environmentVariables.getPropertyAsInteger(JIRA_MAX_THREADS, DEFAULT_MAX_THREADS);
     }
 
     protected Workflow getWorkflow() {
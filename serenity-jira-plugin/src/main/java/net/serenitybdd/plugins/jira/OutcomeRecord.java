@@ -0,0 +1,100 @@
+package net.serenitybdd.plugins.jira;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import net.thucydides.core.model.TestOutcomeSummary;
+import net.thucydides.core.model.TestResult;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * What the JIRA and Zephyr updates need to remember about a test outcome: its title, its result and the report
+ * it belongs to. Report names are shared by many outcomes, so they are interned.
+ */
+public class OutcomeRecord {
+
+    private static final TestResult[] TEST_RESULTS = TestResult.values();
+    private static final Interner<String> REPORT_NAMES = Interners.newWeakInterner();
+
+    /**
+     * Writes records to, and reads them back from, the tally's spill file.
+     */
+    public static final TestResultTally.Codec<OutcomeRecord> CODEC = new TestResultTally.Codec<OutcomeRecord>() {
+        @Override
+        public void write(OutcomeRecord record, DataOutput output) throws IOException {
+            writeNullable(record.title, output);
+            output.writeByte(record.result);
+            writeNullable(record.reportName, output);
+        }
+
+        @Override
+        public OutcomeRecord read(DataInput input) throws IOException {
+            String title = readNullable(input);
+            byte result = input.readByte();
+            return new OutcomeRecord(title, result, readNullable(input));
+        }
+
+        @Override
+        public long estimatedSize(OutcomeRecord record) {
+            return 64 + ((record.title == null) ? 0 : 2L * record.title.length());
+        }
+    };
+
+    private final String title;
+    private final byte result;
+    private final String reportName;
+
+    private OutcomeRecord(String title, byte result, String reportName) {
+        this.title = title;
+        this.result = result;
+        this.reportName = (reportName == null) ? null : REPORT_NAMES.intern(reportName);
+    }
+
+    public OutcomeRecord(String title, TestResult result, String reportName) {
+        this(title, (byte) ((result == null) ? TestResult.UNDEFINED : result).ordinal(), reportName);
+    }
+
+    public static OutcomeRecord from(TestOutcomeSummary summary) {
+        return new OutcomeRecord(summary.getTitle(), summary.getTestResult(), summary.getReportName());
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public TestResult getTestResult() {
+        return TEST_RESULTS[result];
+    }
+
+    public String getReportName() {
+        return reportName;
+    }
+
+    private static void writeNullable(String value, DataOutput output) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static String readNullable(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return title + ": " + getTestResult();
+    }
+}
@@ -0,0 +1,101 @@
+package net.serenitybdd.plugins.jira;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only temporary file, mapped into memory one region at a time.
+ * Blocks are never split across regions, so each block can be read back as a single slice of a region.
+ */
+class SpillFile implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillFile.class);
+
+    static final int REGION_SIZE = 16 * 1024 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private long mappedSize;
+
+    private SpillFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    static SpillFile createTemporary(String prefix) {
+        try {
+            Path path = Files.createTempFile(prefix, ".bin");
+            path.toFile().deleteOnExit();
+            return new SpillFile(path, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a spill file", e);
+        }
+    }
+
+    /**
+     * Append a block to the file.
+     *
+     * @return where the block starts, to be passed to {@link #read(long, int)}
+     */
+    synchronized long append(byte[] block) {
+        MappedByteBuffer region = regionWithRoomFor(block.length);
+        long position = ((long) (regions.size() - 1) << 32) | region.position();
+        region.put(block);
+        return position;
+    }
+
+    synchronized ByteBuffer read(long position, int length) {
+        ByteBuffer block = regions.get((int) (position >>> 32)).duplicate();
+        int offset = (int) position;
+        block.position(offset);
+        block.limit(offset + length);
+        return block.slice().asReadOnlyBuffer();
+    }
+
+    private MappedByteBuffer regionWithRoomFor(int length) {
+        MappedByteBuffer region = regions.isEmpty() ? null : regions.get(regions.size() - 1);
+        if (region == null || region.remaining() < length) {
+            int regionSize = Math.max(REGION_SIZE, length);
+            try {
+                region = channel.map(FileChannel.MapMode.READ_WRITE, mappedSize, regionSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not extend spill file " + path, e);
+            }
+            mappedSize += regionSize;
+            regions.add(region);
+        }
+        return region;
+    }
+
+    /**
+     * Close the file and delete it. The mapped regions are released once they are garbage collected;
+     * if the file cannot be deleted while they are still mapped, it is deleted when the JVM exits.
+     */
+    @Override
+    public synchronized void close() {
+        regions.clear();
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.debug("Could not delete spill file {} yet", path, e);
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+}
@@ -1,53 +1,282 @@
 package net.serenitybdd.plugins.jira;
 
-import ch.lambdaj.function.convert.Converter;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Maps;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.model.TestResultList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
-import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
-import static ch.lambdaj.Lambda.convert;
-
+/**
+ * The test outcomes recorded against each issue. Outcomes can be recorded from many test threads at once without
+ * locking, and the number of outcomes with each result is kept as they are recorded, so the overall result of an issue
+ * does not depend on how many tests it has.
+ * <p>
+ * A tally created with a {@link Codec} can also be given a memory threshold: once the outcomes held in memory are
+ * estimated to go past it, they are written to a memory-mapped spill file, and read back from it, one issue at a time,
+ * when the outcomes of an issue are needed.
+ */
 public class TestResultTally<T> {
-    
-    private final ConcurrentMap<String, List<T>> testOutcomesTally;
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestResultTally.class);
+
+    private static final TestResult[] TEST_RESULTS = TestResult.values();
+
+    private final ConcurrentMap<String, IssueTally<T>> testOutcomesTally;
+    private final Function<T, TestResult> resultOf;
+    private final Codec<T> codec;
+    private final AtomicLong bytesInMemory = new AtomicLong();
+    private final ReentrantLock spillLock = new ReentrantLock();
+    private volatile long memoryThresholdInBytes = Long.MAX_VALUE;
+    private SpillFile spillFile;
+
+    /**
+     * Writes outcomes to the spill file and reads them back.
+     */
+    public interface Codec<T> {
+        void write(T outcome, DataOutput output) throws IOException;
+
+        T read(DataInput input) throws IOException;
+
+        /**
+         * Roughly how many bytes of heap the outcome takes up.
+         */
+        long estimatedSize(T outcome);
+    }
+
+    /**
+     * A tally of {@link TestOutcome}s.
+     */
     public TestResultTally() {
-        this.testOutcomesTally = Maps.newConcurrentMap();
+        this(outcome -> ((TestOutcome) outcome).getResult());
     }
 
-    public synchronized void recordResult(String issueNumber, T outcome) {
-        getTestOutcomeListForIssue(issueNumber).add(outcome);
+    public TestResultTally(Function<T, TestResult> resultOf) {
+        this(resultOf, null);
     }
 
-    public List<T> getTestOutcomesForIssue(String issueNumber) {
-       return ImmutableList.copyOf(getTestOutcomeListForIssue(issueNumber));
+    public TestResultTally(Function<T, TestResult> resultOf, Codec<T> codec) {
+        this.testOutcomesTally = new ConcurrentHashMap<>();
+        this.resultOf = resultOf;
+        this.codec = codec;
     }
 
-    protected List<T> getTestOutcomeListForIssue(final String issueNumber) {
-        List<T> resultTallyForIssue = testOutcomesTally.get(issueNumber);
-        if (resultTallyForIssue == null) {
-            testOutcomesTally.putIfAbsent(issueNumber, new Vector<T>());
+    /**
+     * Spill the outcomes to disk once they take up more than this many bytes of heap.
+     * Only tallies created with a {@link Codec} can spill.
+     */
+    public void setMemoryThreshold(long memoryThresholdInBytes) {
+        if (codec == null) {
+            throw new IllegalStateException("This tally has no codec to spill outcomes to disk");
         }
-        return testOutcomesTally.get(issueNumber);
+        this.memoryThresholdInBytes = memoryThresholdInBytes;
     }
-    
-    public TestResult getResultForIssue(final String issueNumber) {
-        List<T> testOutcomesForThisIssue = testOutcomesTally.get(issueNumber);
-        return TestResultList.overallResultFrom(convert(testOutcomesForThisIssue, toTestResults()));
+
+    public void recordResult(String issueNumber, T outcome) {
+        testOutcomesTally.computeIfAbsent(issueNumber, issue -> new IssueTally<>()).record(outcome, resultOf.apply(outcome));
+        if (codec != null && bytesInMemory.addAndGet(codec.estimatedSize(outcome)) > memoryThresholdInBytes) {
+            spillToDisk();
+        }
+    }
+
+    public List<T> getTestOutcomesForIssue(String issueNumber) {
+        IssueTally<T> tally = testOutcomesTally.get(issueNumber);
+        return (tally == null) ? ImmutableList.of() : tally.outcomes(this);
+    }
+
+    public int getOutcomeCountForIssue(String issueNumber) {
+        IssueTally<T> tally = testOutcomesTally.get(issueNumber);
+        return (tally == null) ? 0 : tally.outcomeCount();
     }
 
-    private Converter<TestOutcome, TestResult> toTestResults() {
-        return from -> from.getResult();
+    public TestResult getResultForIssue(final String issueNumber) {
+        IssueTally<T> tally = testOutcomesTally.get(issueNumber);
+        return TestResultList.overallResultFrom((tally == null) ? ImmutableList.of() : tally.distinctResults());
     }
 
     public Set<String> getIssues() {
         return testOutcomesTally.keySet();
     }
+
+    /**
+     * Discard the recorded outcomes and delete the spill file, if there is one.
+     */
+    public void close() {
+        spillLock.lock();
+        try {
+            testOutcomesTally.clear();
+            bytesInMemory.set(0);
+            if (spillFile != null) {
+                spillFile.close();
+                spillFile = null;
+            }
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * Move the outcomes held in memory into the spill file. Only one thread spills at a time;
+     * the others carry on recording outcomes in memory.
+     */
+    private void spillToDisk() {
+        if (!spillLock.tryLock()) {
+            return;
+        }
+        try {
+            if (spillFile == null) {
+                spillFile = SpillFile.createTemporary("serenity-jira-tally");
+                LOGGER.info("Test outcomes use more than {} bytes; spilling them to {}", memoryThresholdInBytes, spillFile.getPath());
+            }
+            for (IssueTally<T> tally : testOutcomesTally.values()) {
+                bytesInMemory.addAndGet(-tally.spill(this));
+            }
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    private byte[] encoded(List<T> outcomes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            for (T outcome : outcomes) {
+                codec.write(outcome, output);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void decodeInto(List<T> outcomes, ByteBuffer block, int count) {
+        try (DataInputStream input = new DataInputStream(new ByteBufferInputStream(block))) {
+            for (int i = 0; i < count; i++) {
+                outcomes.add(codec.read(input));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class IssueTally<T> {
+        private final Queue<T> outcomes = new ConcurrentLinkedQueue<>();
+        private final AtomicIntegerArray resultCounts = new AtomicIntegerArray(TEST_RESULTS.length);
+        private final List<SpilledBlock> spilledBlocks = new ArrayList<>();
+
+        void record(T outcome, TestResult result) {
+            outcomes.add(outcome);
+            resultCounts.incrementAndGet((result == null) ? TestResult.UNDEFINED.ordinal() : result.ordinal());
+        }
+
+        /**
+         * Append the outcomes held in memory to the spill file, after any block already spilled.
+         *
+         * @return the estimated number of bytes freed
+         */
+        synchronized long spill(TestResultTally<T> tally) {
+            List<T> spilledOutcomes = new ArrayList<>();
+            long freedBytes = 0;
+            for (T outcome = outcomes.poll(); outcome != null; outcome = outcomes.poll()) {
+                spilledOutcomes.add(outcome);
+                freedBytes += tally.codec.estimatedSize(outcome);
+            }
+            if (!spilledOutcomes.isEmpty()) {
+                byte[] block = tally.encoded(spilledOutcomes);
+                spilledBlocks.add(new SpilledBlock(tally.spillFile.append(block), block.length, spilledOutcomes.size()));
+            }
+            return freedBytes;
+        }
+
+        /**
+         * The spilled outcomes, streamed back from the spill file, followed by those still in memory.
+         */
+        synchronized List<T> outcomes(TestResultTally<T> tally) {
+            if (spilledBlocks.isEmpty()) {
+                return ImmutableList.copyOf(outcomes);
+            }
+            List<T> allOutcomes = new ArrayList<>();
+            for (SpilledBlock spilledBlock : spilledBlocks) {
+                tally.decodeInto(allOutcomes, tally.spillFile.read(spilledBlock.position, spilledBlock.length), spilledBlock.count);
+            }
+            allOutcomes.addAll(outcomes);
+            return ImmutableList.copyOf(allOutcomes);
+        }
+
+        int outcomeCount() {
+            int count = 0;
+            for (int i = 0; i < resultCounts.length(); i++) {
+                count += resultCounts.get(i);
+            }
+            return count;
+        }
+
+        /**
+         * The overall result only depends on which results are present, not on how many of each there are.
+         */
+        List<TestResult> distinctResults() {
+            List<TestResult> results = new ArrayList<>();
+            for (int i = 0; i < resultCounts.length(); i++) {
+                if (resultCounts.get(i) > 0) {
+                    results.add(TEST_RESULTS[i]);
+                }
+            }
+            return results;
+        }
+    }
+
+    private static class SpilledBlock {
+        private final long position;
+        private final int length;
+        private final int count;
+
+        SpilledBlock(long position, int length, int count) {
+            this.position = position;
+            this.length = length;
+            this.count = count;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
 }
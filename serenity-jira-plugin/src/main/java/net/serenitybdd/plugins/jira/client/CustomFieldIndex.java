@@ -0,0 +1,37 @@
+package net.serenitybdd.plugins.jira.client;
+
+import com.google.common.collect.ImmutableMap;
+import net.serenitybdd.plugins.jira.model.CustomField;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields defined on a JIRA instance, indexed both by name and by id.
+ * Both indexes are built from the same <code>/field</code> response.
+ */
+class CustomFieldIndex {
+
+    private final Map<String, CustomField> fieldsByName;
+    private final Map<String, String> fieldNamesById;
+
+    CustomFieldIndex(List<CustomField> fields) {
+        Map<String, CustomField> fieldsByName = new HashMap<>();
+        Map<String, String> fieldNamesById = new HashMap<>();
+        for (CustomField field : fields) {
+            fieldsByName.put(field.getName(), field);
+            fieldNamesById.put(field.getId(), field.getName());
+        }
+        this.fieldsByName = ImmutableMap.copyOf(fieldsByName);
+        this.fieldNamesById = ImmutableMap.copyOf(fieldNamesById);
+    }
+
+    Map<String, CustomField> getFieldsByName() {
+        return fieldsByName;
+    }
+
+    Map<String, String> getFieldNamesById() {
+        return fieldNamesById;
+    }
+}
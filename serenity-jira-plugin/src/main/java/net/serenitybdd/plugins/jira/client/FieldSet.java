@@ -0,0 +1,105 @@
+package net.serenitybdd.plugins.jira.client;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The issue fields to be requested from JIRA.
+ * Asking only for the fields a caller actually needs keeps JIRA responses (and the issue caches) small.
+ */
+public class FieldSet {
+
+    /**
+     * Everything the plugin knows how to read: comments, rendered fields and configured custom fields included.
+     */
+    public static final FieldSet FULL
+            = new FieldSet(ImmutableList.of("key", "status", "summary", "description", "comment", "issuetype", "labels", "fixVersions"),
+                           true, true);
+
+    /**
+     * The fields needed to build requirements: the same as FULL, without the comments.
+     */
+    public static final FieldSet REQUIREMENTS
+            = new FieldSet(ImmutableList.of("key", "status", "summary", "description", "issuetype", "labels", "fixVersions"),
+                           true, true);
+
+    /**
+     * The requirement fields, plus the issue links and parent needed to build the requirements hierarchy
+     * from a single scan of the project.
+     */
+    public static final FieldSet REQUIREMENTS_GRAPH
+            = new FieldSet(ImmutableList.of("key", "status", "summary", "description", "issuetype", "labels", "fixVersions",
+                                            "issuelinks", "parent"),
+                           true, true);
+
+    /**
+     * Just enough to know the current status of an issue.
+     */
+    public static final FieldSet STATUS = new FieldSet(ImmutableList.of("key", "status", "issuetype"), false, false);
+
+    /**
+     * Just enough to know what type of issue this is.
+     */
+    public static final FieldSet KEY_AND_TYPE = new FieldSet(ImmutableList.of("key", "issuetype"), false, false);
+
+    private final List<String> fields;
+    private final boolean renderedFields;
+    private final boolean customFields;
+
+    private FieldSet(List<String> fields, boolean renderedFields, boolean customFields) {
+        this.fields = ImmutableList.copyOf(fields);
+        this.renderedFields = renderedFields;
+        this.customFields = customFields;
+    }
+
+    public static FieldSet of(String... fields) {
+        return new FieldSet(ImmutableList.copyOf(fields), false, false);
+    }
+
+    public FieldSet withRenderedFields() {
+        return new FieldSet(fields, true, customFields);
+    }
+
+    public FieldSet withCustomFields() {
+        return new FieldSet(fields, renderedFields, true);
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public boolean includesRenderedFields() {
+        return renderedFields;
+    }
+
+    public boolean includesCustomFields() {
+        return customFields;
+    }
+
+    public String asQueryParameter() {
+        return Joiner.on(",").join(fields);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FieldSet fieldSet = (FieldSet) o;
+        return renderedFields == fieldSet.renderedFields
+                && customFields == fieldSet.customFields
+                && fields.equals(fieldSet.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fields, renderedFields, customFields);
+    }
+
+    @Override
+    public String toString() {
+        return asQueryParameter() + (renderedFields ? " (rendered)" : "");
+    }
+}
@@ -7,13 +7,19 @@ import java.util.List;
 
 public class FindByJQLLoader extends CacheLoader<String, List<IssueSummary>> {
     private final JerseyJiraClient jiraClient;
+    private final FieldSet fieldSet;
 
     public FindByJQLLoader(JerseyJiraClient jiraClient) {
+        this(jiraClient, FieldSet.FULL);
+    }
+
+    public FindByJQLLoader(JerseyJiraClient jiraClient, FieldSet fieldSet) {
         this.jiraClient = jiraClient;
+        this.fieldSet = fieldSet;
     }
 
     @Override
     public List<IssueSummary> load(String query) throws Exception {
-        return jiraClient.loadByJQL(query);
+        return jiraClient.loadByJQL(query, fieldSet);
     }
 }
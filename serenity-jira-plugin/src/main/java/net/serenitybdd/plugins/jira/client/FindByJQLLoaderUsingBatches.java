@@ -7,13 +7,19 @@ import java.util.List;
 
 public class FindByJQLLoaderUsingBatches extends CacheLoader<String, List<IssueSummary>> {
     private final JerseyJiraClient jiraClient;
+    private final FieldSet fieldSet;
 
     public FindByJQLLoaderUsingBatches(JerseyJiraClient jiraClient) {
+        this(jiraClient, FieldSet.FULL);
+    }
+
+    public FindByJQLLoaderUsingBatches(JerseyJiraClient jiraClient, FieldSet fieldSet) {
         this.jiraClient = jiraClient;
+        this.fieldSet = fieldSet;
     }
 
     @Override
     public List<IssueSummary> load(String query) throws Exception {
-        return jiraClient.loadByJQLBatches(query);
+        return jiraClient.loadByJQLBatches(query, fieldSet);
     }
 }
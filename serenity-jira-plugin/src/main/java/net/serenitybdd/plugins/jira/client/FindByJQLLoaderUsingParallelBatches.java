@@ -0,0 +1,25 @@
+package net.serenitybdd.plugins.jira.client;
+
+import com.google.common.cache.CacheLoader;
+import net.serenitybdd.plugins.jira.domain.IssueSummary;
+
+import java.util.List;
+
+public class FindByJQLLoaderUsingParallelBatches extends CacheLoader<String, List<IssueSummary>> {
+    private final JerseyJiraClient jiraClient;
+    private final FieldSet fieldSet;
+
+    public FindByJQLLoaderUsingParallelBatches(JerseyJiraClient jiraClient) {
+        this(jiraClient, FieldSet.FULL);
+    }
+
+    public FindByJQLLoaderUsingParallelBatches(JerseyJiraClient jiraClient, FieldSet fieldSet) {
+        this.jiraClient = jiraClient;
+        this.fieldSet = fieldSet;
+    }
+
+    @Override
+    public List<IssueSummary> load(String query) throws Exception {
+        return jiraClient.loadByJQLInParallelBatches(query, fieldSet);
+    }
+}
@@ -7,13 +7,19 @@ import java.util.Optional;
 
 public class FindByKeyLoader extends CacheLoader<String, Optional<IssueSummary>> {
     private final JerseyJiraClient jiraClient;
+    private final FieldSet fieldSet;
 
     public FindByKeyLoader(JerseyJiraClient jiraClient) {
+        this(jiraClient, FieldSet.FULL);
+    }
+
+    public FindByKeyLoader(JerseyJiraClient jiraClient, FieldSet fieldSet) {
         this.jiraClient = jiraClient;
+        this.fieldSet = fieldSet;
     }
 
     @Override
     public Optional<IssueSummary> load(String key) throws Exception {
-        return jiraClient.loadByKey(key);
+        return jiraClient.loadByKey(key, fieldSet);
     }
 }
@@ -1,6 +1,7 @@
 package net.serenitybdd.plugins.jira.client;
 
 import com.beust.jcommander.internal.Maps;
+import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.LoadingCache;
@@ -12,22 +13,30 @@ import net.serenitybdd.plugins.jira.domain.*;
 import net.serenitybdd.plugins.jira.model.CascadingSelectOption;
 import net.serenitybdd.plugins.jira.model.CustomField;
 import net.serenitybdd.plugins.jira.model.JQLException;
-import org.glassfish.jersey.client.ClientProperties;
-import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.util.EnvironmentVariables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static java.util.Collections.EMPTY_LIST;
 
@@ -44,29 +53,47 @@ public class JerseyJiraClient {
     private static final String ISSUE = "rest/api/latest/issue/";
     private static final String PROJECT = "rest/api/latest/project";
     private static final String GET_TRANSITIONS = "rest/api/latest/issue/%s/transitions";
+    private static final String BULK_TRANSITION = "rest/api/3/bulk/issues/transition";
+    private static final String BULK_TASK = "rest/api/3/bulk/queue/%s";
 
     private static final int REDIRECT_REQUEST = 302;
     private static final String DEFAULT_ISSUE_TYPE = "Bug";
     private static final int WITH_NO_BATCHES = 0;
+    private static final String ISSUES_KEY = "issues";
     private final String url;
     private final String username;
     private final String password;
     private final int batchSize;
     private final String project;
     private final List<String> customFields;
-    private Map<String, CustomField> customFieldsIndex;
-    private Map<String, String> customFieldNameIndex;
     private String metadataIssueType;
-    private LoadingCache<String, Optional<IssueSummary>> issueSummaryCache;
+    private final Map<FieldSet, LoadingCache<String, Optional<IssueSummary>>> issueSummaryCachePerFieldSet
+            = new ConcurrentHashMap<>();
+    private LoadingCache<String, Integer> issueCountCache;
 
-    private Map<LoadingStrategy, LoadingCache<String, List<IssueSummary>>> issueQueryCachePerStrategy;
+    private final Map<FieldSet, Map<LoadingStrategy, LoadingCache<String, List<IssueSummary>>>> issueQueryCachePerFieldSet
+            = new ConcurrentHashMap<>();
+    private final int parallelPageRequests;
+    private volatile boolean bulkTransitionsUnavailable;
 
     private final Logger logger = LoggerFactory.getLogger(JerseyJiraClient.class);
 
+    public static final String JIRA_PARALLEL_PAGE_REQUESTS = "jira.parallel.page.requests";
+
     private final static int DEFAULT_BATCH_SIZE = 100;
+    private final static int DEFAULT_PARALLEL_PAGE_REQUESTS = 4;
+    private final static int COUNT_CACHE_EXPIRY_IN_SECONDS = 60;
+    private final static int ISSUE_CACHE_SIZE = 10000;
+    private final static int MAX_KEYS_PER_QUERY = 100;
+    private final static int MAX_KEY_QUERY_LENGTH = 2000;
+    private final static int MAX_ISSUES_PER_BULK_TRANSITION = 1000;
+    private final static long BULK_TASK_POLL_INTERVAL_IN_MILLIS = 1000;
+    private final static List<String> PENDING_BULK_TASK_STATUSES = ImmutableList.of("ENQUEUED", "RUNNING", "CANCEL_REQUESTED");
+    private final static List<JsonArray> NO_ALLOWED_VALUES = ImmutableList.of();
     private final static int OK = 200;
     private final static int CREATE_ISSUE_OK = 201;
     private final static int DELETE_ISSUE_OK = 204;
+    private final static int METHOD_NOT_ALLOWED = 405;
 
 
     public JerseyJiraClient(String url, String username, String password, String project) {
@@ -89,21 +116,13 @@ public class JerseyJiraClient {
         this.project = project;
         this.metadataIssueType = metadataIssueType;
         this.customFields = ImmutableList.copyOf(customFields);
-        this.issueSummaryCache = CacheBuilder.newBuilder()
-                .maximumSize(1000)
-                .build(new FindByKeyLoader(this));
-
-        LoadingCache<String, List<IssueSummary>> issueQueryCache = CacheBuilder.newBuilder()
-                .maximumSize(1000)
-                .build(new FindByJQLLoader(this));
-
-        LoadingCache<String, List<IssueSummary>> batchedIssueQueryCache = CacheBuilder.newBuilder()
+        this.issueCountCache = CacheBuilder.newBuilder()
                 .maximumSize(1000)
-                .build(new FindByJQLLoaderUsingBatches(this));
+                .expireAfterWrite(COUNT_CACHE_EXPIRY_IN_SECONDS, TimeUnit.SECONDS)
+                .build(new CountByKeyLoader(this));
 
-        this.issueQueryCachePerStrategy = ImmutableMap.of(
-                LoadingStrategy.LOAD_IN_SINGLE_QUERY, issueQueryCache,
-                LoadingStrategy.LOAD_IN_BATCHES, batchedIssueQueryCache);
+        this.parallelPageRequests = environmentVariables().getPropertyAsInteger(JIRA_PARALLEL_PAGE_REQUESTS,
+                                                                                DEFAULT_PARALLEL_PAGE_REQUESTS);
 
     }
 
@@ -119,10 +138,53 @@ public class JerseyJiraClient {
         return new JerseyJiraClient(url, username, password, batchSize, project, metadataIssueType, customFields);
     }
 
+    private LoadingCache<String, Optional<IssueSummary>> issueSummaryCacheFor(FieldSet fieldSet) {
+        return issueSummaryCachePerFieldSet.computeIfAbsent(fieldSet,
+                projection -> CacheBuilder.newBuilder()
+                        .maximumSize(ISSUE_CACHE_SIZE)
+                        .build(new FindByKeyLoader(this, projection)));
+    }
+
+    private LoadingCache<String, List<IssueSummary>> issueQueryCacheFor(LoadingStrategy loadingStrategy, FieldSet fieldSet) {
+        return issueQueryCachePerFieldSet.computeIfAbsent(fieldSet, this::issueQueryCachesFor).get(loadingStrategy);
+    }
+
+    private Map<LoadingStrategy, LoadingCache<String, List<IssueSummary>>> issueQueryCachesFor(FieldSet fieldSet) {
+        LoadingCache<String, List<IssueSummary>> issueQueryCache = CacheBuilder.newBuilder()
+                .maximumSize(1000)
+                .build(new FindByJQLLoader(this, fieldSet));
+
+        LoadingCache<String, List<IssueSummary>> batchedIssueQueryCache = CacheBuilder.newBuilder()
+                .maximumSize(1000)
+                .build(new FindByJQLLoaderUsingBatches(this, fieldSet));
+
+        LoadingCache<String, List<IssueSummary>> parallelBatchedIssueQueryCache = CacheBuilder.newBuilder()
+                .maximumSize(1000)
+                .build(new FindByJQLLoaderUsingParallelBatches(this, fieldSet));
+
+        return ImmutableMap.of(
+                LoadingStrategy.LOAD_IN_SINGLE_QUERY, issueQueryCache,
+                LoadingStrategy.LOAD_IN_BATCHES, batchedIssueQueryCache,
+                LoadingStrategy.LOAD_IN_PARALLEL_BATCHES, parallelBatchedIssueQueryCache);
+    }
+
+    private void invalidateCachedIssue(String issueKey) {
+        for (LoadingCache<String, Optional<IssueSummary>> issueSummaryCache : issueSummaryCachePerFieldSet.values()) {
+            issueSummaryCache.invalidate(issueKey);
+        }
+    }
+
     public List<IssueSummary> findByJQL(String query, LoadingStrategy loadingStrategy) throws JQLException {
+        return findByJQL(query, loadingStrategy, FieldSet.FULL);
+    }
+
+    /**
+     * Load the issues matching a JQL query, requesting only the fields in the given field set.
+     */
+    public List<IssueSummary> findByJQL(String query, LoadingStrategy loadingStrategy, FieldSet fieldSet) throws JQLException {
         try {
             Preconditions.checkNotNull(query, "JIRA key cannot be null");
-            return issueQueryCachePerStrategy.get(loadingStrategy).get(query);
+            return issueQueryCacheFor(loadingStrategy, fieldSet).get(query);
         } catch (ExecutionException e) {
             throw new JQLException(e.getCause());
         } catch (RuntimeException runtimeException) {
@@ -142,33 +204,71 @@ public class JerseyJiraClient {
     }
 
     protected List<IssueSummary> loadByJQLBatches(String query) {
-        int total = countByJQL(query);
+        return loadByJQLBatches(query, FieldSet.FULL);
+    }
+
+    protected List<IssueSummary> loadByJQLBatches(String query, FieldSet fieldSet) {
         List<IssueSummary> issues = new ArrayList<>();
-        int startAt = 0;
-        while (issues.size() < total) {
-            String jsonResponse = getJSONResponse(query, startAt, batchSize);
-            JsonObject responseObject = new JsonParser().parse(jsonResponse).getAsJsonObject();
-            JsonArray issueEntries = (JsonArray) responseObject.get("issues");
-            for (int i = 0; i < issueEntries.size(); i++) {
-                JsonObject issueObject = issueEntries.get(i).getAsJsonObject();
-                issues.add(convertToIssueSummary(issueObject));
-            }
-            startAt = startAt + getBatchSize();
+        ResponsePage page = searchFor(query, 0, batchSize, fieldSet, issues::add);
+        int total = page.getTotal();
+        while ((issues.size() < total) && (page.getEntryCount() > 0)) {
+            page = searchFor(query, issues.size(), batchSize, fieldSet, issues::add);
         }
         return issues;
     }
 
+    /**
+     * Load the first page of results to find out how many issues match the query and how many the server
+     * returns per page, then fetch the remaining pages concurrently, with at most
+     * <b>jira.parallel.page.requests</b> requests in flight at any one time.
+     * The issues are returned in the same order as a sequential load.
+     */
+    protected List<IssueSummary> loadByJQLInParallelBatches(String query) {
+        return loadByJQLInParallelBatches(query, FieldSet.FULL);
+    }
+
+    protected List<IssueSummary> loadByJQLInParallelBatches(String query, FieldSet fieldSet) {
+        List<IssueSummary> firstPage = new ArrayList<>();
+        ResponsePage page = searchFor(query, 0, batchSize, fieldSet, firstPage::add);
+        int pageSize = (page.getMaxResults() > 0) ? page.getMaxResults() : page.getEntryCount();
+        if (firstPage.size() >= page.getTotal() || pageSize == 0) {
+            return firstPage;
+        }
+
+        Semaphore pagesInFlight = new Semaphore(Math.max(1, parallelPageRequests));
+        List<CompletableFuture<List<IssueSummary>>> remainingPages = new ArrayList<>();
+        for (int startAt = firstPage.size(); startAt < page.getTotal(); startAt += pageSize) {
+            pagesInFlight.acquireUninterruptibly();
+            remainingPages.add(searchForAsync(query, startAt, pageSize, fieldSet)
+                                       .whenComplete((issues, error) -> pagesInFlight.release()));
+        }
+
+        List<IssueSummary> issues = new ArrayList<>(page.getTotal());
+        issues.addAll(firstPage);
+        for (CompletableFuture<List<IssueSummary>> remainingPage : remainingPages) {
+            issues.addAll(remainingPage.join());
+        }
+        return issues;
+    }
+
+    private CompletableFuture<List<IssueSummary>> searchForAsync(String query, int startAt, int batchSize,
+                                                                 FieldSet fieldSet) {
+        WebTarget target = searchTarget(query, startAt, batchSize, fieldSet);
+        return asyncResponseFrom(callback -> asynchronously(target.request()).get(callback))
+                .thenApply(response -> {
+                    List<IssueSummary> issues = new ArrayList<>();
+                    issuesIn(response, cachedAs(fieldSet, issues::add));
+                    return issues;
+                });
+    }
+
     protected List<IssueSummary> loadByJQL(String query) {
+        return loadByJQL(query, FieldSet.FULL);
+    }
+
+    protected List<IssueSummary> loadByJQL(String query, FieldSet fieldSet) {
         List<IssueSummary> issues = new ArrayList<>();
-        String jsonResponse = getJSONResponse(query, 0, WITH_NO_BATCHES);
-        JsonObject responseObject = new JsonParser().parse(jsonResponse).getAsJsonObject();
-        JsonArray issueEntries = (JsonArray) responseObject.get("issues");
-        if (issueEntries != null) {
-            for (int i = 0; i < issueEntries.size(); i++) {
-                JsonObject issueObject = issueEntries.get(i).getAsJsonObject();
-                issues.add(convertToIssueSummary(issueObject));
-            }
-        }
+        searchFor(query, 0, WITH_NO_BATCHES, fieldSet, issues::add);
         return issues;
     }
 
@@ -192,23 +292,52 @@ public class JerseyJiraClient {
         return restClient().target(url).path(path);
     }
 
-    private String getJSONResponse(String query, int startAt, int batchSize) {
+    private ResponsePage searchFor(String query, int startAt, int batchSize, FieldSet fieldSet,
+                                   Consumer<IssueSummary> issueHandler) {
+        return issuesIn(searchTarget(query, startAt, batchSize, fieldSet).request().get(),
+                        cachedAs(fieldSet, issueHandler));
+    }
+
+    /**
+     * Issues loaded by a search are also added to the per-key cache, so later lookups by key don't go back to JIRA.
+     */
+    private Consumer<IssueSummary> cachedAs(FieldSet fieldSet, Consumer<IssueSummary> issueHandler) {
+        LoadingCache<String, Optional<IssueSummary>> issueSummaryCache = issueSummaryCacheFor(fieldSet);
+        return issue -> {
+            issueSummaryCache.put(issue.getKey(), Optional.of(issue));
+            issueHandler.accept(issue);
+        };
+    }
+
+    private ResponsePage issuesIn(Response response, Consumer<IssueSummary> issueHandler) {
+        checkValid(response);
+        return StreamingResponseReader.forEntriesIn(ISSUES_KEY)
+                .read(response.readEntity(InputStream.class),
+                      issueObject -> issueHandler.accept(convertToIssueSummary(issueObject)));
+    }
 
-        String fields = "key,status,summary,description,comment,issuetype,labels,fixVersions";
-        fields = addCustomFieldsTo(fields);
+    private WebTarget searchTarget(String query, int startAt, int batchSize, FieldSet fieldSet) {
 
-        WebTarget target = buildWebTargetFor(REST_SEARCH)
+        WebTarget target = withProjection(buildWebTargetFor(REST_SEARCH)
                 .queryParam("jql", query)
-                .queryParam("startAt", startAt)
-                .queryParam("expand", "renderedFields")
-                .queryParam("fields", fields);
+                .queryParam("startAt", startAt), fieldSet);
 
         if (batchSize > 0) {
             target = target.queryParam("maxResults", batchSize);
         }
-        Response response = target.request().get();
-        checkValid(response);
-        return response.readEntity(String.class);
+        return target;
+    }
+
+    private WebTarget withProjection(WebTarget target, FieldSet fieldSet) {
+        String fields = fieldSet.asQueryParameter();
+        if (fieldSet.includesCustomFields()) {
+            fields = addCustomFieldsTo(fields);
+        }
+        target = target.queryParam("fields", fields);
+        if (fieldSet.includesRenderedFields()) {
+            target = target.queryParam("expand", "renderedFields");
+        }
+        return target;
     }
 
     private String addCustomFieldsTo(String fields) {
@@ -230,9 +359,16 @@ public class JerseyJiraClient {
     }
 
     public java.util.Optional<IssueSummary> findByKey(String key) throws JQLException {
+        return findByKey(key, FieldSet.FULL);
+    }
+
+    /**
+     * Find an issue by key, requesting only the fields in the given field set.
+     */
+    public Optional<IssueSummary> findByKey(String key, FieldSet fieldSet) throws JQLException {
         try {
             Preconditions.checkNotNull(key, "JIRA key cannot be null");
-            return issueSummaryCache.get(key);
+            return issueSummaryCacheFor(fieldSet).get(key);
         } catch (ExecutionException e) {
             throw new JQLException(e.getCause());
         } catch (RuntimeException runtimeException) {
@@ -240,14 +376,97 @@ public class JerseyJiraClient {
         }
     }
 
-    public Optional<IssueSummary> loadByKey(String key) {
+    /**
+     * Seed the per-key cache with issues that were loaded elsewhere, for example from a local copy kept between builds.
+     */
+    public void addToCache(Collection<IssueSummary> issues, FieldSet fieldSet) {
+        LoadingCache<String, Optional<IssueSummary>> issueSummaryCache = issueSummaryCacheFor(fieldSet);
+        for (IssueSummary issue : issues) {
+            issueSummaryCache.put(issue.getKey(), Optional.of(issue));
+        }
+    }
 
-        Optional<String> jsonResponse = readFieldValues(url, ISSUE + key);
-        if (jsonResponse.isPresent()) {
-            JsonObject responseObject = new JsonParser().parse(jsonResponse.get()).getAsJsonObject();
-            return Optional.of(convertToIssueSummary(responseObject));
+    public Map<String, IssueSummary> findByKeys(Collection<String> keys) throws JQLException {
+        return findByKeys(keys, FieldSet.FULL);
+    }
+
+    /**
+     * Find several issues at once. Keys that are not already cached are looked up with as few
+     * <code>key in (...)</code> searches as the URL length allows, and the results are added to the per-key cache.
+     * Keys that JIRA does not know about are cached as missing and left out of the result.
+     *
+     * @return the issues found, indexed by the requested keys, in the order they were requested
+     */
+    public Map<String, IssueSummary> findByKeys(Collection<String> keys, FieldSet fieldSet) throws JQLException {
+        LoadingCache<String, Optional<IssueSummary>> issueSummaryCache = issueSummaryCacheFor(fieldSet);
+        Set<String> uncachedKeys = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (issueSummaryCache.getIfPresent(key) == null) {
+                uncachedKeys.add(key);
+            }
+        }
+
+        Map<String, IssueSummary> loadedIssues = new HashMap<>();
+        for (String keyQuery : keyQueriesFor(uncachedKeys)) {
+            loadByKeyQuery(keyQuery, fieldSet, issue -> loadedIssues.put(issue.getKey(), issue));
+        }
+
+        Map<String, IssueSummary> issues = new LinkedHashMap<>();
+        for (String key : keys) {
+            Optional<IssueSummary> issue = issueSummaryCache.getIfPresent(key);
+            if (issue == null) {
+                issue = Optional.ofNullable(loadedIssues.get(key));
+                issueSummaryCache.put(key, issue);
+            }
+            issue.ifPresent(issueSummary -> issues.put(key, issueSummary));
+        }
+        return issues;
+    }
+
+    private List<String> keyQueriesFor(Collection<String> keys) {
+        List<String> keyQueries = new ArrayList<>();
+        List<String> keysInQuery = new ArrayList<>();
+        int queryLength = 0;
+        for (String key : keys) {
+            if (keysInQuery.size() == MAX_KEYS_PER_QUERY || queryLength + key.length() + 1 > MAX_KEY_QUERY_LENGTH) {
+                keyQueries.add(keyQueryFor(keysInQuery));
+                keysInQuery.clear();
+                queryLength = 0;
+            }
+            keysInQuery.add(key);
+            queryLength = queryLength + key.length() + 1;
+        }
+        if (!keysInQuery.isEmpty()) {
+            keyQueries.add(keyQueryFor(keysInQuery));
         }
-        return Optional.empty();
+        return keyQueries;
+    }
+
+    private String keyQueryFor(List<String> keys) {
+        return "key in (" + Joiner.on(",").join(keys) + ")";
+    }
+
+    /**
+     * Key queries are only validated as warnings, so that an unknown key doesn't make the whole search fail.
+     */
+    private void loadByKeyQuery(String keyQuery, FieldSet fieldSet, Consumer<IssueSummary> issueHandler) {
+        int loaded = 0;
+        ResponsePage page;
+        do {
+            WebTarget target = searchTarget(keyQuery, loaded, batchSize, fieldSet).queryParam("validateQuery", "warn");
+            page = issuesIn(target.request().get(), cachedAs(fieldSet, issueHandler));
+            loaded = loaded + page.getEntryCount();
+        } while ((loaded < page.getTotal()) && (page.getEntryCount() > 0));
+    }
+
+    public Optional<IssueSummary> loadByKey(String key) {
+        return loadByKey(key, FieldSet.FULL);
+    }
+
+    public Optional<IssueSummary> loadByKey(String key, FieldSet fieldSet) {
+        String path = ISSUE + key;
+        Optional<JsonElement> jsonResponse = readJsonFrom(withProjection(restClient().target(url).path(path), fieldSet), path);
+        return jsonResponse.map(issueObject -> convertToIssueSummary(issueObject.getAsJsonObject()));
     }
 
     private Version convertToVersion(JsonObject issueObject) {
@@ -260,13 +479,13 @@ public class JerseyJiraClient {
 
     private IssueSummary convertToIssueSummary(JsonObject issueObject) {
 
-        JsonObject fields = (JsonObject) issueObject.get("fields");
-        JsonObject renderedFields = (JsonObject) issueObject.get("renderedFields");
-        JsonObject issueType = (JsonObject) fields.get("issuetype");
-        JsonObject issueStatus = (JsonObject) fields.get("status");
-        JsonObject comments = (JsonObject) fields.get("comment");
+        JsonObject fields = objectOrEmpty(issueObject.get("fields"));
+        JsonObject renderedFields = objectOrEmpty(issueObject.get("renderedFields"));
+        JsonObject issueType = objectOrEmpty(fields.get("issuetype"));
+        JsonObject issueStatus = objectOrEmpty(fields.get("status"));
+        JsonObject comments = objectOrEmpty(fields.get("comment"));
         Map<String, String> renderedFieldValues = renderedFieldValuesFrom(renderedFields);
-        return new IssueSummary(uriFrom(issueObject),
+        IssueSummary issueSummary = new IssueSummary(uriFrom(issueObject),
                 issueObject.getAsJsonPrimitive("id").getAsLong(),
                 stringValueOf(issueObject.get("key")),
                 stringValueOf(fields.get("summary")),
@@ -278,13 +497,45 @@ public class JerseyJiraClient {
                 toListOfVersions((JsonArray) fields.get("fixVersions")),
                 customFieldValuesIn(fields, renderedFields),
                 commentsIn(comments));
+        if (fields.has("issuelinks")) {
+            issueSummary.setLinks(linksIn(fields.getAsJsonArray("issuelinks")));
+        }
+        JsonObject parent = objectOrEmpty(fields.get("parent"));
+        if (parent.has("key")) {
+            issueSummary.setParentKey(stringValueOf(parent.get("key")));
+        }
+        return issueSummary;
+    }
+
+    private List<IssueLink> linksIn(JsonArray issueLinks) {
+        List<IssueLink> links = Lists.newArrayList();
+        for (JsonElement issueLink : issueLinks) {
+            JsonObject link = issueLink.getAsJsonObject();
+            JsonObject linkType = objectOrEmpty(link.get("type"));
+            if (link.has("outwardIssue")) {
+                links.add(new IssueLink(stringValueOf(linkType.get("name")),
+                                        stringValueOf(linkType.get("outward")),
+                                        stringValueOf(link.getAsJsonObject("outwardIssue").get("key"))));
+            } else if (link.has("inwardIssue")) {
+                links.add(new IssueLink(stringValueOf(linkType.get("name")),
+                                        stringValueOf(linkType.get("inward")),
+                                        stringValueOf(link.getAsJsonObject("inwardIssue").get("key"))));
+            }
+        }
+        return links;
+    }
 
+    private JsonObject objectOrEmpty(JsonElement element) {
+        return (element != null && element.isJsonObject()) ? element.getAsJsonObject() : new JsonObject();
     }
 
     private List<IssueComment> commentsIn(JsonObject comments) {
         List<IssueComment> issueComments = Lists.newArrayList();
 
         JsonArray commentList = comments.getAsJsonArray("comments");
+        if (commentList == null) {
+            return issueComments;
+        }
 
         for (int i = 0; i < commentList.size(); i++) {
             JsonObject fieldObject = commentList.get(i).getAsJsonObject();
@@ -350,25 +601,26 @@ public class JerseyJiraClient {
     private Object readFieldValue(JsonObject fields, CustomField customField) {
 
         String fieldId = customField.getId();
-        String fieldValue = "";
-        if (fieldIsDefined(fields, fieldId)) {
-            if (fields.get(fieldId).isJsonPrimitive()) {
-                fieldValue = fields.getAsJsonPrimitive(fieldId).getAsString();
-            } else if (fields.get(fieldId).isJsonObject()) {
-                fieldValue = fields.getAsJsonObject(fieldId).toString();
-            }
+        if (!fieldIsDefined(fields, fieldId)) {
+            return "";
         }
+        JsonElement fieldValue = fields.get(fieldId);
+        if (fieldValue.isJsonPrimitive()) {
+            String value = fieldValue.getAsString();
+            return isJSON(value) ? readJsonFieldValue(new JsonParser().parse(value).getAsJsonObject(), customField) : value;
+        } else if (fieldValue.isJsonObject()) {
+            return readJsonFieldValue(fieldValue.getAsJsonObject(), customField);
+        }
+        return "";
+    }
 
-        if (isJSON(fieldValue)) {
-            JsonObject field = new JsonParser().parse(fieldValue).getAsJsonObject();
-
-            if (customField.getType().equals("string") || customField.getType().equals("option")) {
-                return field.equals(JsonNull.INSTANCE) ? "" : field.getAsJsonPrimitive("value").getAsString();
-            } else if (customField.getType().equals("array") || customField.getType().equals("option-with-child")) {
-                return readListFrom(field);
-            }
+    private Object readJsonFieldValue(JsonObject field, CustomField customField) {
+        if (customField.getType().equals("string") || customField.getType().equals("option")) {
+            return field.getAsJsonPrimitive("value").getAsString();
+        } else if (customField.getType().equals("array") || customField.getType().equals("option-with-child")) {
+            return readListFrom(field);
         }
-        return fieldValue;
+        return field.toString();
     }
 
     private boolean fieldIsDefined(JsonObject fields, String fieldId) {
@@ -449,11 +701,26 @@ public class JerseyJiraClient {
         }
     }
 
+    /**
+     * Return the number of issues matching a JQL query, reusing recent counts for the same query.
+     */
+    public Integer findCountByJQL(String query) throws JQLException {
+        try {
+            Preconditions.checkNotNull(query, "JIRA query cannot be null");
+            return issueCountCache.get(query);
+        } catch (ExecutionException e) {
+            throw new JQLException(e.getCause());
+        } catch (RuntimeException runtimeException) {
+            throw new JQLException(runtimeException.getCause());
+        }
+    }
+
     public Integer countByJQL(String query) {
         WebTarget target = buildWebTargetFor(REST_SEARCH).queryParam("jql", query).queryParam("maxResults", 0);
         Response response = target.request().get();
 
         if (isEmpty(response)) {
+            response.close();
             return 0;
         } else {
             checkValid(response);
@@ -471,11 +738,15 @@ public class JerseyJiraClient {
         return total;
     }
 
-    private Optional<String> readFieldValues(String url, String path) {
+    private Optional<JsonElement> readFieldValues(String url, String path) {
         WebTarget target = restClient().target(url)
                 .path(path)
                 .queryParam("expand", "renderedFields");
 
+        return readJsonFrom(target, path);
+    }
+
+    private Optional<JsonElement> readJsonFrom(WebTarget target, String path) {
         Response response = target.request().get();
 
         if (response.getStatus() == REDIRECT_REQUEST) {
@@ -483,14 +754,14 @@ public class JerseyJiraClient {
         }
 
         if (resourceDoesNotExist(response)) {
+            response.close();
             return Optional.empty();
         } else {
-            checkValid(response);
-            return Optional.of(response.readEntity(String.class));
+            return Optional.of(jsonEntityIn(response));
         }
     }
 
-    private Optional<String> readFieldMetadata(String url, String path) {
+    private Optional<JsonElement> readFieldMetadata(String url, String path) {
         WebTarget target = restClient().target(url)
                 .path(path)
                 .queryParam("expand", "renderedFields")
@@ -498,25 +769,11 @@ public class JerseyJiraClient {
                 .queryParam("issuetypeName", metadataIssueType)
                 .queryParam("expand", "projects.issuetypes.fields");
 
-        Response response = target.request().get();
-
-        if (response.getStatus() == REDIRECT_REQUEST) {
-            response = Redirector.forPath(path).usingClient(restClient()).followRedirectsIn(response);
-        }
-
-        if (resourceDoesNotExist(response)) {
-            return Optional.empty();
-        } else {
-            checkValid(response);
-            return Optional.of(response.readEntity(String.class));
-        }
+        return readJsonFrom(target, path);
     }
 
     public Client restClient() {
-        return ClientBuilder.newBuilder()
-                .register(HttpAuthenticationFeature.basic(username, password))
-                .property(ClientProperties.FOLLOW_REDIRECTS, Boolean.TRUE)
-                .build();
+        return RestClientPool.clientFor(url, username, password);
     }
 
     private String stringValueOf(JsonElement field) {
@@ -550,10 +807,9 @@ public class JerseyJiraClient {
 
     public void checkValid(Response response) {
         int status = response.getStatus();
-        if (status != OK && (status != CREATE_ISSUE_OK) && (status != DELETE_ISSUE_OK)) {
+        if (status != OK && (status != CREATE_ISSUE_OK) && (status != DELETE_ISSUE_OK) && (status != 400)) {
+            response.close();
             switch (status) {
-                case 400:
-                    return;
                 case 401:
                     handleAuthenticationError("Authentication error (401) for user " + this.username);
                 case 403:
@@ -562,12 +818,19 @@ public class JerseyJiraClient {
                     handleConfigurationError("Service not found (404) - try checking the JIRA URL?");
                 case 407:
                     handleConfigurationError("Proxy authentication required (407)");
+                case 429:
+                case 503:
+                    throw new JQLException("JIRA query failed: still throttled (" + status + ") after retrying");
                 default:
                     throw new JQLException("JIRA query failed: error " + status);
             }
         }
     }
 
+    private static EnvironmentVariables environmentVariables() {
+        return Injectors.getInjector().getProvider(EnvironmentVariables.class).get();
+    }
+
     private void handleAuthenticationError(String message) {
         throw new JIRAAuthenticationError(message);
     }
@@ -582,43 +845,30 @@ public class JerseyJiraClient {
     }
 
     private Map<String, CustomField> getCustomFieldsIndex() {
-        if (customFieldsIndex == null) {
-            customFieldsIndex = indexCustomFields();
-        }
-        return customFieldsIndex;
+        return customFieldIndex().getFieldsByName();
     }
 
     private Map<String, String> getCustomFieldNameIndex() {
-        if (customFieldNameIndex == null) {
-            customFieldNameIndex = indexCustomFieldNames();
-        }
-        return customFieldNameIndex;
+        return customFieldIndex().getFieldNamesById();
     }
 
-
-    private Map<String, String> indexCustomFieldNames() {
-        Map<String, String> index = Maps.newHashMap();
-        for (CustomField field : getExistingCustomFields()) {
-            index.put(field.getId(), field.getName());
-        }
-        return index;
+    private CustomFieldIndex customFieldIndex() {
+        return JiraMetadataCache.fields(instanceKey(), () -> new CustomFieldIndex(getExistingCustomFields()));
     }
 
-
-    private Map<String, CustomField> indexCustomFields() {
-        Map<String, CustomField> index = Maps.newHashMap();
-        for (CustomField field : getExistingCustomFields()) {
-            index.put(field.getName(), field);
-        }
-        return index;
+    /**
+     * Metadata can differ from one user to another, so it is shared between clients for the same instance and user.
+     */
+    private String instanceKey() {
+        return url + "|" + username;
     }
 
     private List<CustomField> getExistingCustomFields() {
 
-        Optional<String> jsonResponse = readFieldValues(url, "rest/api/2/field");
+        Optional<JsonElement> jsonResponse = readFieldValues(url, "rest/api/2/field");
 
         if (jsonResponse.isPresent()) {
-            JsonArray responseObject = new JsonParser().parse(jsonResponse.get()).getAsJsonArray();
+            JsonArray responseObject = jsonResponse.get().getAsJsonArray();
             return convertToCustomFields(responseObject);
         }
         return EMPTY_LIST;
@@ -632,54 +882,67 @@ public class JerseyJiraClient {
         return registeredCustomFields;
     }
 
+    /**
+     * The create metadata is read once for the project and issue type, and the options of each field are
+     * worked out once, however many times (and from however many clients) they are asked for.
+     */
     public List<CascadingSelectOption> findOptionsForCascadingSelect(String fieldName) {
-        JsonObject responseObject;
-        final List<CascadingSelectOption> result = new ArrayList<>();
-        Optional<String> jsonResponse = readFieldMetadata(url, "rest/api/2/issue/createmeta");
+        String createMetadataKey = instanceKey() + "|" + project + "|" + metadataIssueType;
+        String normalizedFieldName = fieldName.toLowerCase();
+        return JiraMetadataCache.cascadingOptions(createMetadataKey + "|" + normalizedFieldName,
+                () -> cascadingSelectOptionsIn(
+                        JiraMetadataCache.allowedValues(createMetadataKey, this::readAllowedFieldValues)
+                                .getOrDefault(normalizedFieldName, NO_ALLOWED_VALUES)));
+    }
+
+    private Map<String, List<JsonArray>> readAllowedFieldValues() {
+        Map<String, List<JsonArray>> allowedValuesByFieldName = new HashMap<>();
+        Optional<JsonElement> jsonResponse = readFieldMetadata(url, "rest/api/2/issue/createmeta");
         if (jsonResponse.isPresent()) {
-            responseObject = new JsonParser().parse(jsonResponse.get()).getAsJsonObject();
-            JsonArray projects = responseObject.getAsJsonArray("projects");
+            JsonArray projects = jsonResponse.get().getAsJsonObject().getAsJsonArray("projects");
             for (final JsonElement pr : projects) {
-                final JsonObject project = pr.getAsJsonObject();
-                final JsonArray issueTypes = project.getAsJsonArray("issuetypes");
+                final JsonArray issueTypes = pr.getAsJsonObject().getAsJsonArray("issuetypes");
                 for (final JsonElement st : issueTypes) {
-                    final JsonObject issueType = st.getAsJsonObject();
-                    final JsonObject fields = issueType.getAsJsonObject("fields");
-                    Iterator<Map.Entry<String, JsonElement>> fieldKeys = fields.entrySet().iterator();
-                    while (fieldKeys.hasNext()) {
-                        String entryFieldName = fieldKeys.next().getKey();
-                        JsonObject entry = fields.getAsJsonObject(entryFieldName);
-                        if (entry.getAsJsonPrimitive("name").getAsString().equalsIgnoreCase(fieldName)
-                                && entry.getAsJsonArray("allowedValues") != null) {
-                            result.addAll(convertToCascadingSelectOptions(entry.getAsJsonArray("allowedValues")));
+                    final JsonObject fields = st.getAsJsonObject().getAsJsonObject("fields");
+                    for (Map.Entry<String, JsonElement> field : fields.entrySet()) {
+                        JsonObject entry = field.getValue().getAsJsonObject();
+                        if (entry.getAsJsonArray("allowedValues") != null) {
+                            String fieldName = entry.getAsJsonPrimitive("name").getAsString().toLowerCase();
+                            allowedValuesByFieldName.computeIfAbsent(fieldName, name -> new ArrayList<>())
+                                    .add(entry.getAsJsonArray("allowedValues"));
                         }
                     }
                 }
             }
         }
-        return removeDuplicated(result);
+        return allowedValuesByFieldName;
+    }
+
+    private List<CascadingSelectOption> cascadingSelectOptionsIn(List<JsonArray> allowedValues) {
+        List<CascadingSelectOption> options = new ArrayList<>();
+        for (JsonArray values : allowedValues) {
+            options.addAll(convertToCascadingSelectOptions(values));
+        }
+        return ImmutableList.copyOf(removeDuplicated(options));
     }
 
     private List<CascadingSelectOption> removeDuplicated(final List<CascadingSelectOption> options) {
-        List<CascadingSelectOption> filtered = new LinkedList<>();
-        Map<String, CascadingSelectOption> filter = new HashMap<>();
+        Map<String, CascadingSelectOption> filter = new LinkedHashMap<>();
         for (final CascadingSelectOption option : options) {
-            filter.put(identification(option).toString(), option);
+            filter.putIfAbsent(identification(option), option);
         }
-        filtered.addAll(filter.values());
-        return filtered;
+        return new ArrayList<>(filter.values());
     }
 
-    private StringBuilder identification(final CascadingSelectOption option) {
-        StringBuilder builder = new StringBuilder(option.getOption());
-        Map<String, CascadingSelectOption> filter = new HashMap<>();
-        for (final CascadingSelectOption children : option.getNestedOptions()) {
-            filter.put(identification(children).toString(), children);
-        }
-        for (final String key : filter.keySet()) {
-            builder.append(key);
+    /**
+     * Two options are the same if they have the same value and the same nested options, in any order.
+     */
+    private String identification(final CascadingSelectOption option) {
+        Set<String> nestedOptions = new TreeSet<>();
+        for (final CascadingSelectOption child : option.getNestedOptions()) {
+            nestedOptions.add(identification(child));
         }
-        return builder;
+        return option.getOption() + nestedOptions;
     }
 
     private List<CascadingSelectOption> convertToCascadingSelectOptions(JsonArray allowedValues) {
@@ -725,12 +988,16 @@ public class JerseyJiraClient {
 
         Response response = target.request().post(Entity.json(jsonIssue.toString()));
         checkValid(response);
+        issueCountCache.invalidateAll();
         return IssueSummary.fromJsonString(response.readEntity(String.class));
     }
 
     public void deleteIssue(IssueSummary issue) throws Exception {
         WebTarget target = restClient().target(issue.getSelf());
-        checkValid(target.request().delete());
+        Response response = target.request().delete();
+        checkValid(response);
+        response.close();
+        issueCountCache.invalidateAll();
     }
 
     public Project getProjectByKey(String projectKey) {
@@ -740,8 +1007,11 @@ public class JerseyJiraClient {
         return Project.fromJsonString(response.readEntity(String.class));
     }
 
+    /**
+     * Fetch the identity and type of an issue.
+     */
     public IssueSummary getIssue(String issueKey) {
-        WebTarget target = restClient().target(url).path(ISSUE + issueKey);
+        WebTarget target = withProjection(restClient().target(url).path(ISSUE + issueKey), FieldSet.KEY_AND_TYPE);
         Response response = target.request().get();
         checkValid(response);
         return IssueSummary.fromJsonString(response.readEntity(String.class));
@@ -751,11 +1021,16 @@ public class JerseyJiraClient {
     public void addComment(String issueKey, IssueComment newComment) {
         String url = String.format(ADD_COMMENT, issueKey);
         WebTarget target = buildWebTargetFor(url);
-        JsonObject jsonComment = new JsonObject();
-        jsonComment.add(IssueComment.BODY_KEY, new JsonPrimitive(newComment.getBody()));
-        Response response = target.request().post(Entity.json(jsonComment.toString()));
+        Response response = target.request().post(Entity.json(jsonBodyOf(newComment)));
         checkValid(response);
-        issueSummaryCache.invalidate(issueKey);
+        response.close();
+        invalidateCachedIssue(issueKey);
+    }
+
+    private String jsonBodyOf(IssueComment comment) {
+        JsonObject jsonComment = new JsonObject();
+        jsonComment.add(IssueComment.BODY_KEY, new JsonPrimitive(comment.getBody()));
+        return jsonComment.toString();
     }
 
     public void updateComment(String key, IssueComment updatedComment) {
@@ -763,50 +1038,498 @@ public class JerseyJiraClient {
 
         Response response = target.request(MediaType.APPLICATION_JSON_TYPE).get();
 
-        JsonObject jsonComment = new JsonParser().parse(response.readEntity(String.class)).getAsJsonObject();
+        String jsonComment = withUpdatedBody(response.readEntity(String.class), updatedComment);
+
+        target.request(MediaType.APPLICATION_JSON_TYPE)
+                .put(Entity.entity(jsonComment, MediaType.APPLICATION_JSON))
+                .close();
+        invalidateCachedIssue(key);
+    }
+
+    /**
+     * Update a comment that has already been read, without reading it again first.
+     *
+     * @return the comment as it was sent to JIRA
+     */
+    public JsonObject updateComment(String key, IssueComment updatedComment, JsonObject existingComment) {
+        WebTarget target = restClient().target(updatedComment.getSelf());
+
+        JsonObject jsonComment = withUpdatedBody(existingComment, updatedComment);
+
+        target.request(MediaType.APPLICATION_JSON_TYPE)
+                .put(Entity.entity(jsonComment.toString(), MediaType.APPLICATION_JSON))
+                .close();
+        invalidateCachedIssue(key);
+        return jsonComment;
+    }
+
+    private String withUpdatedBody(String existingComment, IssueComment updatedComment) {
+        return withUpdatedBody(new JsonParser().parse(existingComment).getAsJsonObject(), updatedComment).toString();
+    }
+
+    private JsonObject withUpdatedBody(JsonObject existingComment, IssueComment updatedComment) {
+        JsonObject jsonComment = existingComment.deepCopy();
         jsonComment.addProperty("body", updatedComment.getBody());
+        return jsonComment;
+    }
 
-        target.request(MediaType.APPLICATION_JSON_TYPE).put(Entity.entity(jsonComment.toString(), MediaType.APPLICATION_JSON));
-        issueSummaryCache.invalidate(key);
+    /**
+     * Read the type, status, comments and available transitions of an issue in a single request.
+     * If JIRA does not return all of the comments with the issue, they are read separately.
+     */
+    public Optional<IssueUpdateContext> loadUpdateContext(String issueKey) throws ParseException {
+        String path = ISSUE + issueKey;
+        WebTarget target = restClient().target(url).path(path)
+                .queryParam("fields", "status,comment,issuetype")
+                .queryParam("expand", "transitions");
+
+        Optional<JsonElement> jsonResponse = readJsonFrom(target, path);
+        if (!jsonResponse.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(updateContextFrom(issueKey, jsonResponse.get().getAsJsonObject()));
+    }
+
+    /**
+     * Read the update context of several issues at once, with paged <code>key in (...)</code> searches.
+     * Issues that JIRA does not know about are left out of the result.
+     */
+    public Map<String, IssueUpdateContext> loadUpdateContexts(Collection<String> issueKeys) throws ParseException {
+        Map<String, IssueUpdateContext> contexts = new HashMap<>();
+        for (String keyQuery : keyQueriesFor(new LinkedHashSet<>(issueKeys))) {
+            int loaded = 0;
+            ResponsePage page;
+            do {
+                WebTarget target = buildWebTargetFor(REST_SEARCH)
+                        .queryParam("jql", keyQuery)
+                        .queryParam("startAt", loaded)
+                        .queryParam("fields", "status,comment,issuetype")
+                        .queryParam("expand", "transitions")
+                        .queryParam("validateQuery", "warn");
+                if (batchSize > 0) {
+                    target = target.queryParam("maxResults", batchSize);
+                }
+                Response response = target.request().get();
+                checkValid(response);
+                List<JsonObject> issueEntries = new ArrayList<>();
+                page = StreamingResponseReader.forEntriesIn(ISSUES_KEY)
+                        .read(response.readEntity(InputStream.class), issueEntries::add);
+                for (JsonObject issueEntry : issueEntries) {
+                    String issueKey = stringValueOf(issueEntry.get("key"));
+                    contexts.put(issueKey, updateContextFrom(issueKey, issueEntry));
+                }
+                loaded = loaded + page.getEntryCount();
+            } while ((loaded < page.getTotal()) && (page.getEntryCount() > 0));
+        }
+        return contexts;
+    }
+
+    private IssueUpdateContext updateContextFrom(String issueKey, JsonObject issueObject) throws ParseException {
+        JsonObject fields = objectOrEmpty(issueObject.get("fields"));
+        JsonObject commentField = objectOrEmpty(fields.get("comment"));
+
+        List<IssueComment> comments = new ArrayList<>();
+        Map<String, JsonObject> commentJsonBySelf = new HashMap<>();
+        JsonArray commentEntries = commentField.has(IssueSummary.COMMENTS_KEY)
+                ? commentField.getAsJsonArray(IssueSummary.COMMENTS_KEY) : new JsonArray();
+        for (JsonElement commentEntry : commentEntries) {
+            IssueComment comment = IssueComment.fromJson(commentEntry.getAsJsonObject());
+            comments.add(comment);
+            commentJsonBySelf.put(comment.getSelf(), commentEntry.getAsJsonObject());
+        }
+        if (commentField.has("total") && commentField.get("total").getAsInt() > commentEntries.size()) {
+            comments = getComments(issueKey);
+        }
+
+        List<IssueTransition> transitions = new ArrayList<>();
+        if (issueObject.has(IssueSummary.TRANSITIONS_KEY)) {
+            for (JsonElement transition : issueObject.getAsJsonArray(IssueSummary.TRANSITIONS_KEY)) {
+                transitions.add(IssueTransition.fromJson(transition.getAsJsonObject()));
+            }
+        }
+
+        return new IssueUpdateContext(issueKey,
+                                      stringValueOf(objectOrEmpty(fields.get("issuetype")).get("name")),
+                                      stringValueOf(objectOrEmpty(fields.get("status")).get("name")),
+                                      comments,
+                                      commentJsonBySelf,
+                                      transitions);
     }
 
     public List<IssueComment> getComments(String issueKey) throws ParseException {
         WebTarget target = restClient().target(url).path(ISSUE + issueKey + "/comment");
-        Response response = target.request().get();
+        return commentsFrom(target.request().get());
+    }
+
+    private List<IssueComment> commentsFrom(Response response) throws ParseException {
         checkValid(response);
-        String jsonIssueRepresentation = response.readEntity(String.class);
-        JsonParser parser = new JsonParser();
-        JsonObject jsonObject = parser.parse(jsonIssueRepresentation).getAsJsonObject();
-        JsonArray commentsArray = jsonObject.getAsJsonArray(IssueSummary.COMMENTS_KEY);
         List<IssueComment> comments = new ArrayList<IssueComment>();
-        for (int i = 0; i < commentsArray.size(); i++) {
-            JsonObject currentCommentJson = commentsArray.get(i).getAsJsonObject();
-            comments.add(IssueComment.fromJsonString(currentCommentJson.toString()));
+        try {
+            StreamingResponseReader.forEntriesIn(IssueSummary.COMMENTS_KEY)
+                    .read(response.readEntity(InputStream.class), comment -> comments.add(commentFrom(comment)));
+        } catch (CommentParseException e) {
+            throw e.getCause();
         }
         return comments;
     }
 
+    private IssueComment commentFrom(JsonObject commentJson) {
+        try {
+            return IssueComment.fromJson(commentJson);
+        } catch (ParseException e) {
+            throw new CommentParseException(e);
+        }
+    }
+
+    /**
+     * Carries a comment that could not be parsed out of the streaming reader's entry handler.
+     */
+    private static class CommentParseException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CommentParseException(ParseException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ParseException getCause() {
+            return (ParseException) super.getCause();
+        }
+    }
+
     public List<IssueTransition> getAvailableTransitions(String issueKey) throws ParseException {
-        List<IssueTransition> availableActions = new ArrayList<IssueTransition>();
         WebTarget target = buildWebTargetFor(String.format(GET_TRANSITIONS, issueKey));
-        Response response = target.request().get();
+        return transitionsFrom(target.request().get());
+    }
+
+    private List<IssueTransition> transitionsFrom(Response response) {
         checkValid(response);
-        String jsonIssueRepresentation = response.readEntity(String.class);
-        JsonParser parser = new JsonParser();
-        JsonObject jsonObject = parser.parse(jsonIssueRepresentation).getAsJsonObject();
-        JsonArray transitionsArray = jsonObject.getAsJsonArray(IssueSummary.TRANSITIONS_KEY);
-        for (int i = 0; i < transitionsArray.size(); i++) {
-            JsonObject currentTransitionJson = transitionsArray.get(i).getAsJsonObject();
-            availableActions.add(IssueTransition.fromJsonString(currentTransitionJson.toString()));
-        }
+        List<IssueTransition> availableActions = new ArrayList<IssueTransition>();
+        StreamingResponseReader.forEntriesIn(IssueSummary.TRANSITIONS_KEY)
+                .read(response.readEntity(InputStream.class),
+                      transition -> availableActions.add(IssueTransition.fromJson(transition)));
         return availableActions;
     }
 
     public void progressWorkflowTransition(String issueKey, String transitionId) throws ParseException {
         WebTarget target = buildWebTargetFor(String.format(GET_TRANSITIONS, issueKey));
+        Response response = target.request().post(Entity.json(jsonTransitionTo(transitionId)));
+        checkValid(response);
+        response.close();
+    }
+
+    private String jsonTransitionTo(String transitionId) {
         JsonObject jsonTransition = new JsonObject();
         jsonTransition.add(IssueTransition.TRANSITION_KEY, new JsonPrimitive(transitionId));
-        Response response = target.request().post(Entity.json(jsonTransition.toString()));
+        return jsonTransition.toString();
+    }
+
+    /**
+     * Transition many issues at once with the bulk transition endpoint, and wait for JIRA to finish.
+     * Issues are grouped by transition id, as transition ids can differ from one workflow to another.
+     *
+     * @param issueKeysByTransitionId the issues to move with each transition
+     * @param timeoutInMillis         how long to wait for each bulk task to complete
+     * @return the issues that may not have been transitioned, because JIRA rejected them, because their bulk task
+     * failed or did not finish in time, or because this JIRA instance does not support bulk transitions
+     */
+    public Set<String> progressWorkflowTransitions(Map<String, List<String>> issueKeysByTransitionId, long timeoutInMillis) {
+        Set<String> untransitionedIssues = new HashSet<>();
+        if (bulkTransitionsUnavailable) {
+            issueKeysByTransitionId.values().forEach(untransitionedIssues::addAll);
+            return untransitionedIssues;
+        }
+        Iterator<List<Map.Entry<String, List<String>>>> bulkRequests
+                = bulkTransitionRequestsFor(issueKeysByTransitionId).iterator();
+        while (bulkRequests.hasNext()) {
+            List<Map.Entry<String, List<String>>> bulkRequest = bulkRequests.next();
+            List<String> requestedIssues = issueKeysIn(bulkRequest);
+            Response response = buildWebTargetFor(BULK_TRANSITION).request()
+                    .post(Entity.json(jsonBulkTransitionOf(bulkRequest)));
+            if (resourceDoesNotExist(response) || response.getStatus() == METHOD_NOT_ALLOWED) {
+                response.close();
+                logger.info("Bulk transitions are not available on {}", url);
+                bulkTransitionsUnavailable = true;
+                untransitionedIssues.addAll(requestedIssues);
+                bulkRequests.forEachRemaining(remainingRequest -> untransitionedIssues.addAll(issueKeysIn(remainingRequest)));
+                break;
+            }
+            if (response.getStatus() != OK && response.getStatus() != CREATE_ISSUE_OK) {
+                response.close();
+                logger.warn("Bulk transition request failed with error {}", response.getStatus());
+                untransitionedIssues.addAll(requestedIssues);
+                continue;
+            }
+            String taskId = stringValueOf(jsonEntityIn(response).getAsJsonObject().get("taskId"));
+            untransitionedIssues.addAll(issuesNotTransitionedBy(taskId, requestedIssues, timeoutInMillis));
+        }
+        for (List<String> issueKeys : issueKeysByTransitionId.values()) {
+            issueKeys.forEach(this::invalidateCachedIssue);
+        }
+        return untransitionedIssues;
+    }
+
+    private static List<String> issueKeysIn(List<Map.Entry<String, List<String>>> bulkRequest) {
+        List<String> issueKeys = new ArrayList<>();
+        bulkRequest.forEach(transition -> issueKeys.addAll(transition.getValue()));
+        return issueKeys;
+    }
+
+    /**
+     * Split the issues into requests of at most MAX_ISSUES_PER_BULK_TRANSITION issues each.
+     */
+    private List<List<Map.Entry<String, List<String>>>> bulkTransitionRequestsFor(Map<String, List<String>> issueKeysByTransitionId) {
+        List<List<Map.Entry<String, List<String>>>> bulkRequests = new ArrayList<>();
+        List<Map.Entry<String, List<String>>> currentRequest = new ArrayList<>();
+        int issuesInCurrentRequest = 0;
+        for (Map.Entry<String, List<String>> transition : issueKeysByTransitionId.entrySet()) {
+            for (List<String> issueKeys : Lists.partition(transition.getValue(), MAX_ISSUES_PER_BULK_TRANSITION)) {
+                if (issuesInCurrentRequest + issueKeys.size() > MAX_ISSUES_PER_BULK_TRANSITION) {
+                    bulkRequests.add(currentRequest);
+                    currentRequest = new ArrayList<>();
+                    issuesInCurrentRequest = 0;
+                }
+                currentRequest.add(new AbstractMap.SimpleImmutableEntry<>(transition.getKey(), issueKeys));
+                issuesInCurrentRequest = issuesInCurrentRequest + issueKeys.size();
+            }
+        }
+        if (!currentRequest.isEmpty()) {
+            bulkRequests.add(currentRequest);
+        }
+        return bulkRequests;
+    }
+
+    private String jsonBulkTransitionOf(List<Map.Entry<String, List<String>>> bulkRequest) {
+        JsonArray bulkTransitionInputs = new JsonArray();
+        for (Map.Entry<String, List<String>> transition : bulkRequest) {
+            JsonObject bulkTransitionInput = new JsonObject();
+            JsonArray issueKeys = new JsonArray();
+            transition.getValue().forEach(issueKeys::add);
+            bulkTransitionInput.add("selectedIssueIdsOrKeys", issueKeys);
+            bulkTransitionInput.addProperty("transitionId", transition.getKey());
+            bulkTransitionInputs.add(bulkTransitionInput);
+        }
+        JsonObject jsonBulkTransition = new JsonObject();
+        jsonBulkTransition.add("bulkTransitionInputs", bulkTransitionInputs);
+        return jsonBulkTransition.toString();
+    }
+
+    /**
+     * Wait for a bulk transition task to finish.
+     *
+     * @return the requested issues that JIRA did not transition, or all of them if the task did not complete
+     */
+    private Set<String> issuesNotTransitionedBy(String taskId, List<String> requestedIssues, long timeoutInMillis) {
+        long deadline = System.currentTimeMillis() + timeoutInMillis;
+        JsonObject task;
+        try {
+            do {
+                pauseFor(BULK_TASK_POLL_INTERVAL_IN_MILLIS);
+                Optional<JsonElement> taskResponse = readJsonFrom(buildWebTargetFor(String.format(BULK_TASK, taskId)),
+                                                                  String.format(BULK_TASK, taskId));
+                if (!taskResponse.isPresent()) {
+                    logger.warn("Bulk transition task {} not found", taskId);
+                    return new HashSet<>(requestedIssues);
+                }
+                task = taskResponse.get().getAsJsonObject();
+            } while (PENDING_BULK_TASK_STATUSES.contains(stringValueOf(task.get("status")))
+                     && System.currentTimeMillis() < deadline);
+        } catch (JQLException e) {
+            logger.warn("Could not read the status of bulk transition task " + taskId, e);
+            return new HashSet<>(requestedIssues);
+        }
+        return issuesNotTransitionedBy(task, requestedIssues);
+    }
+
+    /**
+     * Failed issues are reported by key or by id. An id cannot be matched to a requested key,
+     * so if one is reported every issue of the task is treated as failed.
+     */
+    Set<String> issuesNotTransitionedBy(JsonObject task, List<String> requestedIssues) {
+        String status = stringValueOf(task.get("status"));
+        if (!"COMPLETE".equals(status)) {
+            logger.warn("Bulk transition task did not complete: {}", status);
+            return new HashSet<>(requestedIssues);
+        }
+        JsonObject failedIssues = objectOrEmpty(task.get("failedAccessibleIssues"));
+        if (failedIssues.size() == 0) {
+            return new HashSet<>();
+        }
+        logger.warn("Some issues could not be transitioned: {}", failedIssues);
+        Map<String, String> requestedKeys = new HashMap<>();
+        requestedIssues.forEach(issueKey -> requestedKeys.put(issueKey.toUpperCase(), issueKey));
+        Set<String> failedKeys = new HashSet<>();
+        for (String failedIssue : failedIssues.keySet()) {
+            String failedKey = requestedKeys.get(failedIssue.toUpperCase());
+            if (failedKey == null) {
+                return new HashSet<>(requestedIssues);
+            }
+            failedKeys.add(failedKey);
+        }
+        return failedKeys;
+    }
+
+    private void pauseFor(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JQLException(e);
+        }
+    }
+
+    /**
+     * Non-blocking version of {@link #findByKey(String)}: cached issues are returned immediately,
+     * and issues loaded from JIRA are added to the cache.
+     */
+    public CompletableFuture<Optional<IssueSummary>> findByKeyAsync(String key) {
+        Preconditions.checkNotNull(key, "JIRA key cannot be null");
+        LoadingCache<String, Optional<IssueSummary>> issueSummaryCache = issueSummaryCacheFor(FieldSet.FULL);
+        Optional<IssueSummary> cachedIssue = issueSummaryCache.getIfPresent(key);
+        if (cachedIssue != null) {
+            return CompletableFuture.completedFuture(cachedIssue);
+        }
+        return loadByKeyAsync(key).thenApply(issue -> {
+            issueSummaryCache.put(key, issue);
+            return issue;
+        });
+    }
+
+    private CompletableFuture<Optional<IssueSummary>> loadByKeyAsync(String key) {
+        String path = ISSUE + key;
+        WebTarget target = withProjection(restClient().target(url).path(path), FieldSet.FULL);
+        return asyncResponseFrom(callback -> asynchronously(target.request()).get(callback))
+                .thenApply(response -> {
+                    if (response.getStatus() == REDIRECT_REQUEST) {
+                        response = Redirector.forPath(path).usingClient(restClient()).followRedirectsIn(response);
+                    }
+                    if (resourceDoesNotExist(response)) {
+                        response.close();
+                        return Optional.empty();
+                    }
+                    return Optional.of(convertToIssueSummary(jsonEntityIn(response).getAsJsonObject()));
+                });
+    }
+
+    /**
+     * Non-blocking version of {@link #findByJQL(String)}.
+     * Results already in the query cache are returned immediately.
+     */
+    public CompletableFuture<List<IssueSummary>> findByJQLAsync(String query) {
+        Preconditions.checkNotNull(query, "JIRA key cannot be null");
+        LoadingCache<String, List<IssueSummary>> issueQueryCache
+                = issueQueryCacheFor(LoadingStrategy.LOAD_IN_SINGLE_QUERY, FieldSet.FULL);
+        List<IssueSummary> cachedIssues = issueQueryCache.getIfPresent(query);
+        if (cachedIssues != null) {
+            return CompletableFuture.completedFuture(cachedIssues);
+        }
+        return searchForAsync(query, 0, WITH_NO_BATCHES, FieldSet.FULL)
+                .thenApply(issues -> {
+                    issueQueryCache.put(query, issues);
+                    return issues;
+                });
+    }
+
+    public CompletableFuture<List<IssueComment>> getCommentsAsync(String issueKey) {
+        WebTarget target = restClient().target(url).path(ISSUE + issueKey + "/comment");
+        return asyncResponseFrom(callback -> asynchronously(target.request()).get(callback))
+                .thenApply(response -> {
+                    try {
+                        return commentsFrom(response);
+                    } catch (ParseException e) {
+                        throw new JQLException(e);
+                    }
+                });
+    }
+
+    public CompletableFuture<Void> addCommentAsync(String issueKey, IssueComment newComment) {
+        WebTarget target = buildWebTargetFor(String.format(ADD_COMMENT, issueKey));
+        return asyncResponseFrom(callback -> asynchronously(target.request()).post(Entity.json(jsonBodyOf(newComment)), callback))
+                .thenAccept(response -> {
+                    checkValid(response);
+                    response.close();
+                    invalidateCachedIssue(issueKey);
+                });
+    }
+
+    public CompletableFuture<Void> updateCommentAsync(String key, IssueComment updatedComment) {
+        WebTarget target = restClient().target(updatedComment.getSelf());
+        return asyncResponseFrom(callback -> asynchronously(target.request(MediaType.APPLICATION_JSON_TYPE)).get(callback))
+                .thenApply(response -> {
+                    checkValid(response);
+                    return withUpdatedBody(response.readEntity(String.class), updatedComment);
+                })
+                .thenCompose(jsonComment -> asyncResponseFrom(
+                        callback -> asynchronously(target.request(MediaType.APPLICATION_JSON_TYPE))
+                                .put(Entity.entity(jsonComment, MediaType.APPLICATION_JSON), callback)))
+                .thenAccept(response -> {
+                    checkValid(response);
+                    response.close();
+                    invalidateCachedIssue(key);
+                });
+    }
+
+    public CompletableFuture<List<IssueTransition>> getAvailableTransitionsAsync(String issueKey) {
+        WebTarget target = buildWebTargetFor(String.format(GET_TRANSITIONS, issueKey));
+        return asyncResponseFrom(callback -> asynchronously(target.request()).get(callback))
+                .thenApply(this::transitionsFrom);
+    }
+
+    public CompletableFuture<Void> progressWorkflowTransitionAsync(String issueKey, String transitionId) {
+        WebTarget target = buildWebTargetFor(String.format(GET_TRANSITIONS, issueKey));
+        return asyncResponseFrom(callback -> asynchronously(target.request()).post(Entity.json(jsonTransitionTo(transitionId)), callback))
+                .thenAccept(response -> {
+                    checkValid(response);
+                    response.close();
+                });
+    }
+
+    private JsonElement jsonEntityIn(Response response) {
         checkValid(response);
+        return StreamingResponseReader.readJson(response.readEntity(InputStream.class));
+    }
+
+    private static AsyncInvoker asynchronously(Invocation.Builder request) {
+        return request.property(ThrottlingFilter.ASYNC_REQUEST, Boolean.TRUE).async();
+    }
+
+    private CompletableFuture<Response> asyncResponseFrom(Consumer<InvocationCallback<Response>> invocation) {
+        return asyncResponseFrom(invocation, 0);
+    }
+
+    /**
+     * Throttled asynchronous requests are retried here rather than in the {@link ThrottlingFilter},
+     * so that no thread is blocked while waiting for the retry delay. For the same reason they are paced
+     * by waiting for a permit without blocking, before they are sent.
+     */
+    private CompletableFuture<Response> asyncResponseFrom(Consumer<InvocationCallback<Response>> invocation, int attempt) {
+        RequestThrottle throttle = RequestThrottle.forUrl(url);
+        return throttle.whenPermitAvailable()
+                .thenCompose(permitAcquired -> responseFrom(invocation))
+                .thenCompose(response -> {
+                    if (!throttle.shouldRetry(response.getStatus(), attempt)) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    String retryAfter = response.getHeaderString("Retry-After");
+                    response.close();
+                    return throttle.afterRetryDelay(attempt, retryAfter)
+                            .thenCompose(delayElapsed -> asyncResponseFrom(invocation, attempt + 1));
+                });
+    }
+
+    private static CompletableFuture<Response> responseFrom(Consumer<InvocationCallback<Response>> invocation) {
+        CompletableFuture<Response> futureResponse = new CompletableFuture<>();
+        invocation.accept(new InvocationCallback<Response>() {
+            @Override
+            public void completed(Response response) {
+                futureResponse.complete(response);
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                futureResponse.completeExceptionally(throwable);
+            }
+        });
+        return futureResponse;
     }
 }
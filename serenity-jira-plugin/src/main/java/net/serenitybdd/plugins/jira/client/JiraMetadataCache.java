@@ -0,0 +1,83 @@
+package net.serenitybdd.plugins.jira.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.gson.JsonArray;
+import net.serenitybdd.plugins.jira.model.CascadingSelectOption;
+import net.serenitybdd.plugins.jira.model.JQLException;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.util.EnvironmentVariables;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JIRA metadata (field definitions, create metadata and cascading select options) shared by every client in the JVM.
+ * <p>
+ * This metadata rarely changes but can be large, so it is fetched at most once per JIRA instance and user
+ * for the lifetime of an entry (<b>jira.metadata.cache.minutes</b>, 60 minutes by default).
+ * Concurrent requests for the same entry wait for a single load rather than each calling JIRA.
+ */
+class JiraMetadataCache {
+
+    static final String JIRA_METADATA_CACHE_MINUTES = "jira.metadata.cache.minutes";
+
+    private static final int DEFAULT_METADATA_CACHE_MINUTES = 60;
+
+    private static final Cache<String, CustomFieldIndex> FIELDS = newCache();
+    private static final Cache<String, Map<String, List<JsonArray>>> ALLOWED_VALUES = newCache();
+    private static final Cache<String, List<CascadingSelectOption>> CASCADING_OPTIONS = newCache();
+
+    private JiraMetadataCache() {}
+
+    static CustomFieldIndex fields(String instanceKey, Callable<CustomFieldIndex> loader) {
+        return getOrLoad(FIELDS, instanceKey, loader);
+    }
+
+    /**
+     * The allowed values of each field in the create metadata, indexed by lower-case field name.
+     */
+    static Map<String, List<JsonArray>> allowedValues(String createMetadataKey, Callable<Map<String, List<JsonArray>>> loader) {
+        return getOrLoad(ALLOWED_VALUES, createMetadataKey, loader);
+    }
+
+    static List<CascadingSelectOption> cascadingOptions(String fieldKey, Callable<List<CascadingSelectOption>> loader) {
+        return getOrLoad(CASCADING_OPTIONS, fieldKey, loader);
+    }
+
+    static void invalidateAll() {
+        FIELDS.invalidateAll();
+        ALLOWED_VALUES.invalidateAll();
+        CASCADING_OPTIONS.invalidateAll();
+    }
+
+    private static <V> V getOrLoad(Cache<String, V> cache, String key, Callable<V> loader) {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new JQLException(e.getCause());
+        }
+    }
+
+    private static <V> Cache<String, V> newCache() {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(cacheExpiryInMinutes(), TimeUnit.MINUTES)
+                .build();
+    }
+
+    private static int cacheExpiryInMinutes() {
+        EnvironmentVariables environmentVariables = Injectors.getInjector().getProvider(EnvironmentVariables.class).get();
+        return environmentVariables.getPropertyAsInteger(JIRA_METADATA_CACHE_MINUTES, DEFAULT_METADATA_CACHE_MINUTES);
+    }
+}
@@ -5,5 +5,6 @@ package net.serenitybdd.plugins.jira.client;
  */
 public enum LoadingStrategy {
     LOAD_IN_BATCHES,
+    LOAD_IN_PARALLEL_BATCHES,
     LOAD_IN_SINGLE_QUERY
 }
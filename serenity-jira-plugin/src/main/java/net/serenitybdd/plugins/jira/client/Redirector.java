@@ -39,6 +39,7 @@ public class Redirector {
 
     public Response followRedirectsIn(Response response) {
         while (response.getStatus() == REDIRECT_REQUEST) {
+            response.close();
             response = client.target(response.getLocation()).path(path).request().get();
         }
         return response;
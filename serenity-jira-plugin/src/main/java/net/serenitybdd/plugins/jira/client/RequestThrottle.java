@@ -0,0 +1,217 @@
+package net.serenitybdd.plugins.jira.client;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the requests sent to a JIRA host, and works out how long to wait before retrying a throttled request.
+ * <p>
+ * Requests are only paced when <b>jira.requests.per.second</b> is set. Each host then has a token bucket that lets
+ * through at most that many requests per second. Whenever JIRA answers with 429 (Too Many Requests)
+ * or 503 (Service Unavailable) the rate is halved, and each successful request then raises it a little,
+ * back up to the configured rate.
+ * Throttled requests are always retried, up to <b>jira.max.retries</b> times, waiting for the delay given in the
+ * Retry-After header or for an exponential backoff with jitter, whichever is longer.
+ */
+public class RequestThrottle {
+
+    public static final String JIRA_REQUESTS_PER_SECOND = "jira.requests.per.second";
+    public static final String JIRA_MAX_RETRIES = "jira.max.retries";
+
+    private static final int DEFAULT_MAX_RETRIES = 5;
+
+    private static final double MINIMUM_REQUESTS_PER_SECOND = 0.5;
+    private static final double RATE_INCREASE_PER_SUCCESS = 0.5;
+    private static final long BASE_BACKOFF_IN_MILLIS = 500;
+    private static final long MAX_BACKOFF_IN_MILLIS = 60000;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestThrottle.class);
+
+    private static final Map<String, RequestThrottle> THROTTLES = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("jira-retry-%d").setDaemon(true).build());
+
+    private final Optional<RateLimiter> rateLimiter;
+    private final double maximumRate;
+    private final int maxRetries;
+
+    RequestThrottle(double requestsPerSecond, int maxRetries) {
+        this.rateLimiter = Optional.of(RateLimiter.create(requestsPerSecond));
+        this.maximumRate = requestsPerSecond;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * A throttle that does not pace requests, but still retries the throttled ones.
+     */
+    RequestThrottle(int maxRetries) {
+        this.rateLimiter = Optional.empty();
+        this.maximumRate = Double.POSITIVE_INFINITY;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * The throttle shared by every request sent to the given host from this JVM.
+     */
+    public static RequestThrottle forHost(String host) {
+        return THROTTLES.computeIfAbsent(String.valueOf(host), key -> configuredIn(environmentVariables()));
+    }
+
+    public static RequestThrottle forUrl(String url) {
+        String host = URI.create(url).getHost();
+        return forHost(host != null ? host : url);
+    }
+
+    static RequestThrottle configuredIn(EnvironmentVariables environmentVariables) {
+        String requestsPerSecond = environmentVariables.getProperty(JIRA_REQUESTS_PER_SECOND);
+        int maxRetries = environmentVariables.getPropertyAsInteger(JIRA_MAX_RETRIES, DEFAULT_MAX_RETRIES);
+        if (StringUtils.isBlank(requestsPerSecond)) {
+            return new RequestThrottle(maxRetries);
+        }
+        return new RequestThrottle(Double.parseDouble(requestsPerSecond.trim()), maxRetries);
+    }
+
+    public static boolean isThrottled(int status) {
+        return status == TOO_MANY_REQUESTS || status == SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * Wait until the next request may be sent.
+     */
+    public void acquire() {
+        rateLimiter.ifPresent(RateLimiter::acquire);
+    }
+
+    /**
+     * Non-blocking version of {@link #acquire()}, for asynchronous requests.
+     *
+     * @return a future that completes once the next request may be sent
+     */
+    public CompletableFuture<Void> whenPermitAvailable() {
+        CompletableFuture<Void> permitAcquired = new CompletableFuture<>();
+        tryToAcquire(permitAcquired);
+        return permitAcquired;
+    }
+
+    private void tryToAcquire(CompletableFuture<Void> permitAcquired) {
+        if (!rateLimiter.isPresent() || rateLimiter.get().tryAcquire()) {
+            permitAcquired.complete(null);
+            return;
+        }
+        long interval = (long) Math.ceil(1000 / rateLimiter.get().getRate());
+        RETRY_SCHEDULER.schedule(() -> tryToAcquire(permitAcquired), interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Slow down sharply when JIRA pushes back, and speed up gradually again when it doesn't.
+     */
+    public synchronized void recordResponse(int status) {
+        if (!rateLimiter.isPresent()) {
+            return;
+        }
+        RateLimiter limiter = rateLimiter.get();
+        double currentRate = limiter.getRate();
+        if (isThrottled(status)) {
+            limiter.setRate(Math.max(MINIMUM_REQUESTS_PER_SECOND, currentRate / 2));
+            LOGGER.debug("JIRA is throttling requests ({}): slowing down to {} requests/second", status, limiter.getRate());
+        } else if (currentRate < maximumRate) {
+            limiter.setRate(Math.min(maximumRate, currentRate + RATE_INCREASE_PER_SUCCESS));
+        }
+    }
+
+    /**
+     * @return the current number of requests per second, or infinity if requests are not paced
+     */
+    public double getRate() {
+        return rateLimiter.map(RateLimiter::getRate).orElse(maximumRate);
+    }
+
+    /**
+     * @param attempt the number of times this request has already been retried
+     */
+    public boolean shouldRetry(int status, int attempt) {
+        return isThrottled(status) && attempt < maxRetries;
+    }
+
+    /**
+     * Sleep before retrying a throttled request.
+     *
+     * @param attempt    the number of times this request has already been retried
+     * @param retryAfter the value of the Retry-After header, if any
+     */
+    public void waitBeforeRetry(int attempt, String retryAfter) throws InterruptedIOException {
+        long delay = retryDelayInMillis(attempt, retryAfter);
+        LOGGER.debug("Retrying throttled JIRA request in {} ms (retry {} of {})", delay, attempt + 1, maxRetries);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry a throttled JIRA request");
+        }
+    }
+
+    /**
+     * Non-blocking version of {@link #waitBeforeRetry(int, String)}, for asynchronous requests.
+     *
+     * @return a future that completes once the request may be retried
+     */
+    public CompletableFuture<Void> afterRetryDelay(int attempt, String retryAfter) {
+        long delay = retryDelayInMillis(attempt, retryAfter);
+        LOGGER.debug("Retrying throttled JIRA request in {} ms (retry {} of {})", delay, attempt + 1, maxRetries);
+        CompletableFuture<Void> delayElapsed = new CompletableFuture<>();
+        RETRY_SCHEDULER.schedule(() -> delayElapsed.complete(null), delay, TimeUnit.MILLISECONDS);
+        return delayElapsed;
+    }
+
+    long retryDelayInMillis(int attempt, String retryAfter) {
+        long backoff = Math.min(MAX_BACKOFF_IN_MILLIS, BASE_BACKOFF_IN_MILLIS << Math.min(attempt, 16));
+        long backoffWithJitter = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        return Math.max(backoffWithJitter, retryAfterInMillis(retryAfter));
+    }
+
+    /**
+     * Retry-After holds either a number of seconds or an HTTP date.
+     */
+    static long retryAfterInMillis(String retryAfter) {
+        if (StringUtils.isBlank(retryAfter)) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException notANumberOfSeconds) {
+            try {
+                ZonedDateTime retryTime = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, retryTime.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException notADate) {
+                return 0;
+            }
+        }
+    }
+
+    private static EnvironmentVariables environmentVariables() {
+        return Injectors.getInjector().getProvider(EnvironmentVariables.class).get();
+    }
+}
@@ -0,0 +1,41 @@
+package net.serenitybdd.plugins.jira.client;
+
+/**
+ * The paging information returned with a page of JIRA results.
+ */
+public class ResponsePage {
+
+    private final int startAt;
+    private final int maxResults;
+    private final int total;
+    private final int entryCount;
+
+    public ResponsePage(int startAt, int maxResults, int total, int entryCount) {
+        this.startAt = startAt;
+        this.maxResults = maxResults;
+        this.total = total;
+        this.entryCount = entryCount;
+    }
+
+    public int getStartAt() {
+        return startAt;
+    }
+
+    /**
+     * The page size actually applied by the server, which may be lower than the one requested.
+     */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * The number of entries read from this page.
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+}
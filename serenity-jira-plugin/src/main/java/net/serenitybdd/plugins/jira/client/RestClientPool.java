@@ -0,0 +1,117 @@
+package net.serenitybdd.plugins.jira.client;
+
+import com.google.common.hash.Hashing;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
+import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
+import org.glassfish.jersey.client.filter.EncodingFeature;
+import org.glassfish.jersey.message.GZipEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one long-lived Jersey client per JIRA base URL and user.
+ * Each client is backed by a pooled connection manager, so connections (and TLS sessions) are kept alive
+ * and reused from one request to the next rather than being opened for every call.
+ * Requests are paced, and throttled requests retried, by the {@link RequestThrottle} of each host.
+ */
+public class RestClientPool {
+
+    public static final String JIRA_CONNECT_TIMEOUT = "jira.connect.timeout";
+    public static final String JIRA_READ_TIMEOUT = "jira.read.timeout";
+    public static final String JIRA_MAX_CONNECTIONS = "jira.max.connections";
+    public static final String JIRA_MAX_CONNECTIONS_PER_HOST = "jira.max.connections.per.host";
+    public static final String JIRA_ASYNC_THREADS = "jira.async.threads";
+
+    private static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+    private static final int DEFAULT_READ_TIMEOUT = 60000;
+    private static final int DEFAULT_MAX_CONNECTIONS = 50;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestClientPool.class);
+
+    private static final Map<String, Client> CLIENTS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RestClientPool::shutdown, "jira-rest-client-shutdown"));
+    }
+
+    private RestClientPool() {}
+
+    /**
+     * Return the shared client for a given JIRA instance and user, creating it on first use.
+     */
+    public static Client clientFor(String url, String username, String password) {
+        return CLIENTS.computeIfAbsent(keyFor(url, username, password),
+                                       key -> newPooledClient(username, password, environmentVariables()));
+    }
+
+    /**
+     * Close every pooled client and release the underlying connections.
+     * Clients are created again on demand if the pool is used after it has been shut down.
+     */
+    public static void shutdown() {
+        for (String key : CLIENTS.keySet()) {
+            Client client = CLIENTS.remove(key);
+            if (client != null) {
+                try {
+                    client.close();
+                } catch (RuntimeException closeFailed) {
+                    LOGGER.debug("Failed to close JIRA REST client", closeFailed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clients are told apart by a hash of the password, so that the password itself is not kept in the pool.
+     */
+    private static String keyFor(String url, String username, String password) {
+        String passwordHash = Hashing.sha256().hashString(String.valueOf(password), StandardCharsets.UTF_8).toString();
+        return url + "|" + username + "|" + passwordHash;
+    }
+
+    private static Client newPooledClient(String username, String password, EnvironmentVariables environmentVariables) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(
+                environmentVariables.getPropertyAsInteger(JIRA_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS));
+        int maxConnectionsPerHost
+                = environmentVariables.getPropertyAsInteger(JIRA_MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_CONNECTIONS_PER_HOST);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+
+        ClientConfig config = new ClientConfig()
+                .connectorProvider(new ApacheConnectorProvider())
+                .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+                .property(ClientProperties.CONNECT_TIMEOUT,
+                          environmentVariables.getPropertyAsInteger(JIRA_CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT))
+                .property(ClientProperties.READ_TIMEOUT,
+                          environmentVariables.getPropertyAsInteger(JIRA_READ_TIMEOUT, DEFAULT_READ_TIMEOUT))
+                .property(ClientProperties.ASYNC_THREADPOOL_SIZE,
+                          environmentVariables.getPropertyAsInteger(JIRA_ASYNC_THREADS, maxConnectionsPerHost))
+                .property(ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.BUFFERED)
+                .property(ClientProperties.FOLLOW_REDIRECTS, Boolean.TRUE);
+
+        return ClientBuilder.newBuilder()
+                .withConfig(config)
+                .register(HttpAuthenticationFeature.basic(username, password))
+                .register(new EncodingFeature(GZipEncoder.class))
+                .register(new ThrottlingFilter())
+                .build();
+    }
+
+    private static EnvironmentVariables environmentVariables() {
+        return Injectors.getInjector().getProvider(EnvironmentVariables.class).get();
+    }
+}
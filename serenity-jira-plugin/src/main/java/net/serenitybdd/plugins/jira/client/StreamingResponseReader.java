@@ -0,0 +1,107 @@
+package net.serenitybdd.plugins.jira.client;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import net.serenitybdd.plugins.jira.model.JQLException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Reads JIRA REST responses straight from the response stream.
+ * The entries of a paged response (e.g. the "issues" of a search or the "comments" of an issue) are parsed
+ * and handed over one at a time, so that a large page is never held in memory as a whole.
+ */
+public class StreamingResponseReader {
+
+    private static final String START_AT = "startAt";
+    private static final String MAX_RESULTS = "maxResults";
+    private static final String TOTAL = "total";
+
+    private final String entriesField;
+
+    private StreamingResponseReader(String entriesField) {
+        this.entriesField = entriesField;
+    }
+
+    public static StreamingResponseReader forEntriesIn(String entriesField) {
+        return new StreamingResponseReader(entriesField);
+    }
+
+    /**
+     * Read a paged response, passing each entry to the entry handler as soon as it has been parsed.
+     * The stream is closed once the response has been read.
+     */
+    public ResponsePage read(InputStream responseStream, Consumer<JsonObject> entryHandler) {
+        try (JsonReader reader = jsonReaderFor(responseStream)) {
+            return read(reader, entryHandler);
+        } catch (IOException e) {
+            throw new JQLException(e);
+        }
+    }
+
+    /**
+     * Parse a complete (non-paged) JSON document from a response stream, without reading it into a String first.
+     */
+    public static JsonElement readJson(InputStream responseStream) {
+        try (JsonReader reader = jsonReaderFor(responseStream)) {
+            return new JsonParser().parse(reader);
+        } catch (IOException e) {
+            throw new JQLException(e);
+        }
+    }
+
+    private ResponsePage read(JsonReader reader, Consumer<JsonObject> entryHandler) throws IOException {
+        int startAt = 0;
+        int maxResults = 0;
+        int total = 0;
+        int entryCount = 0;
+
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return new ResponsePage(startAt, maxResults, total, entryCount);
+        }
+
+        JsonParser parser = new JsonParser();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String fieldName = reader.nextName();
+            if (fieldName.equals(entriesField) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    entryHandler.accept(parser.parse(reader).getAsJsonObject());
+                    entryCount++;
+                }
+                reader.endArray();
+            } else if (fieldName.equals(START_AT)) {
+                startAt = intValueFrom(reader);
+            } else if (fieldName.equals(MAX_RESULTS)) {
+                maxResults = intValueFrom(reader);
+            } else if (fieldName.equals(TOTAL)) {
+                total = intValueFrom(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new ResponsePage(startAt, maxResults, total, entryCount);
+    }
+
+    private int intValueFrom(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NUMBER) {
+            return reader.nextInt();
+        }
+        reader.skipValue();
+        return 0;
+    }
+
+    private static JsonReader jsonReaderFor(InputStream responseStream) {
+        return new JsonReader(new InputStreamReader(responseStream, StandardCharsets.UTF_8));
+    }
+}
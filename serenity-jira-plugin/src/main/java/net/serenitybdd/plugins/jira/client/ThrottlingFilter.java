@@ -0,0 +1,88 @@
+package net.serenitybdd.plugins.jira.client;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Sends every request made through a pooled client through the {@link RequestThrottle} of its host,
+ * and transparently retries the synchronous requests that JIRA rejects with 429 or 503,
+ * so callers only see a throttling error once all the retries have been used up.
+ * <p>
+ * Filters run on the thread that sends the request, which for asynchronous requests is a thread of the
+ * shared async executor. Requests marked with {@link #ASYNC_REQUEST} are therefore never held up here:
+ * the caller paces them and retries them without blocking, and their responses are only recorded.
+ */
+class ThrottlingFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    static final String ASYNC_REQUEST = ThrottlingFilter.class.getName() + ".async";
+
+    private static final String RETRIED_REQUEST = ThrottlingFilter.class.getName() + ".retried";
+
+    @Override
+    public void filter(ClientRequestContext request) {
+        if (request.getProperty(ASYNC_REQUEST) == null) {
+            RequestThrottle.forHost(request.getUri().getHost()).acquire();
+        }
+    }
+
+    @Override
+    public void filter(ClientRequestContext request, ClientResponseContext response) throws IOException {
+        RequestThrottle throttle = RequestThrottle.forHost(request.getUri().getHost());
+        throttle.recordResponse(response.getStatus());
+        if (request.getProperty(RETRIED_REQUEST) != null || request.getProperty(ASYNC_REQUEST) != null) {
+            return;
+        }
+        int attempt = 0;
+        while (throttle.shouldRetry(response.getStatus(), attempt)) {
+            discardEntityOf(response);
+            throttle.waitBeforeRetry(attempt++, response.getHeaderString("Retry-After"));
+            copyInto(response, repeat(request));
+        }
+    }
+
+    private void discardEntityOf(ClientResponseContext response) throws IOException {
+        if (response.hasEntity()) {
+            response.getEntityStream().close();
+        }
+    }
+
+    /**
+     * The authentication and encoding headers are added again by their own filters.
+     */
+    private Response repeat(ClientRequestContext request) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putAll(request.getHeaders());
+        headers.remove(HttpHeaders.AUTHORIZATION);
+        headers.remove(HttpHeaders.ACCEPT_ENCODING);
+        Invocation.Builder builder = request.getClient().target(request.getUri())
+                .request()
+                .headers(headers)
+                .property(RETRIED_REQUEST, Boolean.TRUE);
+        Invocation invocation = (request.getEntity() == null)
+                ? builder.build(request.getMethod())
+                : builder.build(request.getMethod(), Entity.entity(request.getEntity(), request.getMediaType()));
+        return invocation.invoke();
+    }
+
+    /**
+     * The retried response body has already been decoded, so the encoding headers must not be carried over.
+     */
+    private void copyInto(ClientResponseContext response, Response retriedResponse) {
+        response.setStatus(retriedResponse.getStatus());
+        response.getHeaders().clear();
+        response.getHeaders().putAll(retriedResponse.getStringHeaders());
+        response.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        response.setEntityStream(retriedResponse.hasEntity() ? retriedResponse.readEntity(InputStream.class) : null);
+    }
+}
@@ -24,7 +24,10 @@ public class Author {
     }
 
     public static Author fromJsonString(String jsonIssueRepresentation) {
-        JsonObject authorJson = new JsonParser().parse(jsonIssueRepresentation).getAsJsonObject();
+        return fromJson(new JsonParser().parse(jsonIssueRepresentation).getAsJsonObject());
+    }
+
+    public static Author fromJson(JsonObject authorJson) {
         String self = authorJson.getAsJsonPrimitive(SELF_KEY).getAsString();
         String accountId = authorJson.getAsJsonPrimitive(ACCOUNT_ID_KEY).getAsString();
         String displayName = authorJson.getAsJsonPrimitive(DISPLAY_NAME_KEY).getAsString();
@@ -209,13 +209,16 @@ public class IssueComment {
 
     public static IssueComment fromJsonString(String jsonCommentRepresentation) throws ParseException{
         JsonParser parser = new JsonParser();
-        JsonObject currentComment = parser.parse(jsonCommentRepresentation).getAsJsonObject();
+        return fromJson(parser.parse(jsonCommentRepresentation).getAsJsonObject());
+    }
+
+    public static IssueComment fromJson(JsonObject currentComment) throws ParseException{
         JsonObject authorJsonObject = currentComment.getAsJsonObject(AUTHOR_KEY);
-        Author author = Author.fromJsonString(authorJsonObject.toString());
+        Author author = Author.fromJson(authorJsonObject);
         String self = currentComment.getAsJsonPrimitive(SELF_KEY).getAsString();
         String body = currentComment.getAsJsonPrimitive(BODY_KEY).getAsString();
         JsonObject updateAuthorJsonObject = currentComment.getAsJsonObject(UPDATE_AUTHOR_KEY);
-        Author updateAuthor = Author.fromJsonString(updateAuthorJsonObject.toString());
+        Author updateAuthor = Author.fromJson(updateAuthorJsonObject);
         String createdDate = currentComment.getAsJsonPrimitive(CREATED_KEY).getAsString();
         String updatedDate = currentComment.getAsJsonPrimitive(UPDATED_KEY).getAsString();
         Calendar createdCalendar =  GregorianCalendar.getInstance();
@@ -0,0 +1,44 @@
+package net.serenitybdd.plugins.jira.domain;
+
+/**
+ * A link from one issue to another, as seen from the issue that holds it.
+ * The description is the one JIRA shows on this side of the link (e.g. "is tested by" or "tests"),
+ * which is also the name <code>linkedIssues()</code> expects in JQL.
+ */
+public class IssueLink {
+
+    private final String type;
+    private final String description;
+    private final String linkedIssueKey;
+
+    public IssueLink(String type, String description, String linkedIssueKey) {
+        this.type = type;
+        this.description = description;
+        this.linkedIssueKey = linkedIssueKey;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getLinkedIssueKey() {
+        return linkedIssueKey;
+    }
+
+    /**
+     * True if this link is called <code>linkName</code>, either by its description on this side of the link
+     * or by the name of the link type.
+     */
+    public boolean isCalled(String linkName) {
+        return linkName.equalsIgnoreCase(description) || linkName.equalsIgnoreCase(type);
+    }
+
+    @Override
+    public String toString() {
+        return description + " " + linkedIssueKey;
+    }
+}
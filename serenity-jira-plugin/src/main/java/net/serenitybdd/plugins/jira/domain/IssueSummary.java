@@ -39,6 +39,9 @@ public class IssueSummary {
 
     private List<IssueComment> comments;
 
+    private List<IssueLink> links;
+    private String parentKey;
+
     public IssueSummary(){
 
     }
@@ -144,6 +147,25 @@ public class IssueSummary {
         this.key = key;
     }
 
+    public List<IssueLink> getLinks() {
+        return (links == null) ? ImmutableList.of() : links;
+    }
+
+    public void setLinks(List<IssueLink> links) {
+        this.links = ImmutableList.copyOf(links);
+    }
+
+    /**
+     * The key of the parent of this issue: the issue a sub-task belongs to or, on newer JIRA instances, the epic of a story.
+     */
+    public String getParentKey() {
+        return parentKey;
+    }
+
+    public void setParentKey(String parentKey) {
+        this.parentKey = parentKey;
+    }
+
     public String getStatus() {
         return status;
     }
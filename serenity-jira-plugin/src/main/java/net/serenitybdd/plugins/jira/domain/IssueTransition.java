@@ -10,15 +10,22 @@ public class IssueTransition {
     public static final String ID_KEY = "id";
     public static final String NAME_KEY = "name";
     public static final String TRANSITION_KEY = "transition";
+    public static final String TO_KEY = "to";
     public static final String REOPEN_ISSUE = "Reopen Issue";
     public static final String RESOLVE_ISSUE = "Resolve Issue";
 
     private String name;
     private String id;
+    private String targetStatus;
 
     public IssueTransition(String id, String name) {
+        this(id, name, null);
+    }
+
+    public IssueTransition(String id, String name, String targetStatus) {
         this.id = id;
         this.name = name;
+        this.targetStatus = targetStatus;
     }
 
     public String getName() {
@@ -37,11 +44,26 @@ public class IssueTransition {
         this.id = id;
     }
 
+    /**
+     * The status the issue will be in after this transition, if JIRA said so.
+     */
+    public String getTargetStatus() {
+        return targetStatus;
+    }
+
     public static IssueTransition fromJsonString(String jsonTransitionRepresentation) throws ParseException {
         JsonParser parser = new JsonParser();
-        JsonObject currentComment = parser.parse(jsonTransitionRepresentation).getAsJsonObject();
+        return fromJson(parser.parse(jsonTransitionRepresentation).getAsJsonObject());
+    }
+
+    public static IssueTransition fromJson(JsonObject currentComment) {
         String id = currentComment.getAsJsonPrimitive(ID_KEY).getAsString();
         String name = currentComment.getAsJsonPrimitive(NAME_KEY).getAsString();
-        return new IssueTransition(id,name);
+        String targetStatus = null;
+        if (currentComment.has(TO_KEY) && currentComment.get(TO_KEY).isJsonObject()
+                && currentComment.getAsJsonObject(TO_KEY).has(NAME_KEY)) {
+            targetStatus = currentComment.getAsJsonObject(TO_KEY).getAsJsonPrimitive(NAME_KEY).getAsString();
+        }
+        return new IssueTransition(id,name,targetStatus);
     }
 }
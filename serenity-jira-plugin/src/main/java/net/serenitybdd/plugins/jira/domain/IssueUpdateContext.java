@@ -0,0 +1,107 @@
+package net.serenitybdd.plugins.jira.domain;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A snapshot of what is needed to update an issue after a test run: its status, its comments
+ * and the workflow transitions available from its current status.
+ * The original JSON of each comment is kept so that a comment can be updated without being read again.
+ */
+public class IssueUpdateContext {
+
+    private final String key;
+    private final String issueType;
+    private final String status;
+    private final List<IssueComment> comments;
+    private final Map<String, JsonObject> commentJsonBySelf;
+    private final List<IssueTransition> transitions;
+
+    public IssueUpdateContext(String key,
+                              String status,
+                              List<IssueComment> comments,
+                              Map<String, JsonObject> commentJsonBySelf,
+                              List<IssueTransition> transitions) {
+        this(key, null, status, comments, commentJsonBySelf, transitions);
+    }
+
+    public IssueUpdateContext(String key,
+                              String issueType,
+                              String status,
+                              List<IssueComment> comments,
+                              Map<String, JsonObject> commentJsonBySelf,
+                              List<IssueTransition> transitions) {
+        this.key = key;
+        this.issueType = issueType;
+        this.status = status;
+        this.comments = ImmutableList.copyOf(comments);
+        this.commentJsonBySelf = ImmutableMap.copyOf(commentJsonBySelf);
+        this.transitions = ImmutableList.copyOf(transitions);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * The project key, taken from the issue key.
+     */
+    public String getProject() {
+        int separator = key.lastIndexOf('-');
+        return (separator > 0) ? key.substring(0, separator) : key;
+    }
+
+    public String getIssueType() {
+        return issueType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public List<IssueComment> getComments() {
+        return comments;
+    }
+
+    public List<IssueTransition> getTransitions() {
+        return transitions;
+    }
+
+    public Optional<IssueTransition> getTransitionNamed(String transitionName) {
+        return transitions.stream()
+                .filter(transition -> transition.getName().equalsIgnoreCase(transitionName))
+                .findFirst();
+    }
+
+    /**
+     * The comment as it was read from JIRA, if it was part of this snapshot.
+     */
+    public Optional<JsonObject> getCommentJsonFor(IssueComment comment) {
+        return Optional.ofNullable(comment.getSelf()).map(commentJsonBySelf::get);
+    }
+
+    public IssueUpdateContext withUpdatedComment(IssueComment updatedComment, JsonObject updatedCommentJson) {
+        List<IssueComment> updatedComments = new ArrayList<>();
+        for (IssueComment comment : comments) {
+            boolean isUpdatedComment = comment.getSelf() != null && comment.getSelf().equals(updatedComment.getSelf());
+            updatedComments.add(isUpdatedComment ? updatedComment : comment);
+        }
+        Map<String, JsonObject> updatedCommentJsonBySelf = new HashMap<>(commentJsonBySelf);
+        updatedCommentJsonBySelf.put(updatedComment.getSelf(), updatedCommentJson);
+        return new IssueUpdateContext(key, issueType, status, updatedComments, updatedCommentJsonBySelf, transitions);
+    }
+
+    /**
+     * The same issue after a workflow transition, when the transitions available from the new status are already known.
+     */
+    public IssueUpdateContext movedTo(String newStatus, List<IssueTransition> newTransitions) {
+        return new IssueUpdateContext(key, issueType, newStatus, comments, commentJsonBySelf, newTransitions);
+    }
+}
@@ -0,0 +1,165 @@
+package net.serenitybdd.plugins.jira.model;
+
+import net.thucydides.core.model.TestResult;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static net.serenitybdd.plugins.jira.model.JIRACommentBuilder.SERENITY_COMMENT_HEADING;
+
+/**
+ * Reads and writes the text of Serenity comments in a single pass over each line, without regular expressions.
+ * <p>
+ * Comments are read exactly as they always have been: the report link is on the second line, the test run
+ * number on the third, and the test results from the fourth line on, even when the comment has no test run line.
+ * Fields are separated by colons, and only the text up to the next colon is kept.
+ */
+final class CommentCodec {
+
+    static final int REPORT_URL_LINE = 1;
+    static final int TEST_RUN_NUMBER_LINE = 2;
+    static final int FIRST_TEST_RESULT_LINE = 3;
+
+    private static final String NEW_LINE = System.getProperty("line.separator");
+    private static final DateTimeFormatter EXECUTION_TIME_FORMAT = DateTimeFormatter.ofPattern("d MMM yyyy hh:mm a");
+
+    private CommentCodec() {}
+
+    /**
+     * The lines of a comment, split on LF or CRLF. Trailing empty lines are dropped, as {@code String.split} does.
+     */
+    static List<String> linesOf(String commentText) {
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        for (int newLine = commentText.indexOf('\n'); newLine >= 0; newLine = commentText.indexOf('\n', lineStart)) {
+            int lineEnd = (newLine > lineStart && commentText.charAt(newLine - 1) == '\r') ? newLine - 1 : newLine;
+            lines.add(commentText.substring(lineStart, lineEnd));
+            lineStart = newLine + 1;
+        }
+        if (lines.isEmpty()) {
+            lines.add(commentText);
+            return lines;
+        }
+        lines.add(commentText.substring(lineStart));
+        int size = lines.size();
+        while (size > 0 && lines.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return lines.subList(0, size);
+    }
+
+    static String reportUrlIn(List<String> commentLines) {
+        if (commentLines.size() <= REPORT_URL_LINE) {
+            return null;
+        }
+        String reportLine = commentLines.get(REPORT_URL_LINE);
+        if (reportLine.indexOf('[') >= 0) {
+            //[Test report|http://my.server/myproject/thucydides/my_test.html]
+            return reportLine.substring(reportLine.indexOf('|') + 1, reportLine.indexOf(']'));
+        }
+        return textAfterColon(reportLine);
+    }
+
+    static String testRunNumberIn(List<String> commentLines) {
+        return (commentLines.size() > TEST_RUN_NUMBER_LINE) ? textAfterColon(commentLines.get(TEST_RUN_NUMBER_LINE)) : null;
+    }
+
+    /**
+     * The test results in a comment, indexed by test name. A test that appears more than once keeps its last result.
+     */
+    static SortedMap<String, NamedTestResult> testResultsIn(List<String> commentLines) {
+        SortedMap<String, NamedTestResult> testResults = new TreeMap<>();
+        for (int line = FIRST_TEST_RESULT_LINE; line < commentLines.size(); line++) {
+            NamedTestResult testResult = testResultIn(commentLines.get(line));
+            testResults.put(testResult.getTestName(), testResult);
+        }
+        return testResults;
+    }
+
+    private static NamedTestResult testResultIn(String commentLine) {
+        String testName = stripInitialDash(textBeforeColon(commentLine));
+        return new NamedTestResult(testName, testResultCalled(textAfterColon(commentLine)));
+    }
+
+    private static TestResult testResultCalled(String resultName) {
+        try {
+            return TestResult.valueOf(resultName);
+        } catch (IllegalArgumentException e) {
+            return TestResult.UNDEFINED;
+        }
+    }
+
+    private static String stripInitialDash(String testResultText) {
+        return testResultText.startsWith("-") ? testResultText.substring(2) : testResultText;
+    }
+
+    private static String textBeforeColon(String line) {
+        int colon = line.indexOf(':');
+        return ((colon < 0) ? line : line.substring(0, colon)).trim();
+    }
+
+    private static String textAfterColon(String line) {
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        int nextColon = line.indexOf(':', colon + 1);
+        return line.substring(colon + 1, (nextColon < 0) ? line.length() : nextColon).trim();
+    }
+
+    static String render(boolean wikiRendering,
+                         String reportUrl,
+                         String testRunNumber,
+                         Collection<NamedTestResult> namedTestResults,
+                         LocalDateTime executionTime) {
+        StringBuilder comment = new StringBuilder(160 + ((namedTestResults == null) ? 0 : 64 * namedTestResults.size()));
+        if (wikiRendering) {
+            comment.append('*').append(SERENITY_COMMENT_HEADING).append('*');
+        } else {
+            comment.append(SERENITY_COMMENT_HEADING);
+        }
+        comment.append(NEW_LINE);
+
+        comment.append("Tests run: ").append(EXECUTION_TIME_FORMAT.format(executionTime));
+        if (wikiRendering) {
+            comment.append(" - [full report|").append(reportUrl).append(']');
+        } else {
+            comment.append(" - full report: ").append(reportUrl);
+        }
+        comment.append(NEW_LINE);
+
+        if (testRunNumber != null) {
+            comment.append("Test Run: ").append(testRunNumber).append(NEW_LINE);
+        }
+        if (namedTestResults != null) {
+            for (NamedTestResult testResult : namedTestResults) {
+                comment.append("  - ").append(testResult.getTestName())
+                        .append(": ").append(testResult.getTestResult())
+                        .append(' ').append(resultIconFor(testResult.getTestResult(), wikiRendering))
+                        .append(NEW_LINE);
+            }
+        }
+        return comment.toString();
+    }
+
+    private static String resultIconFor(TestResult testResult, boolean wikiRendering) {
+        if (!wikiRendering) {
+            return "";
+        }
+
+        switch (testResult) {
+            case SUCCESS: return ": (/)";
+            case FAILURE: return ": (x)";
+            case ERROR: return ": (x)";
+            case PENDING: return ": (!)";
+            case SKIPPED: return ": (!)";
+            case IGNORED: return ": (!)";
+            default: return ": (?)";
+        }
+    }
+}
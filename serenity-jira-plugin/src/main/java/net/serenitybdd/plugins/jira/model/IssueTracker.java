@@ -3,7 +3,12 @@ package net.serenitybdd.plugins.jira.model;
 import net.serenitybdd.plugins.jira.domain.IssueComment;
 import net.serenitybdd.plugins.jira.service.JIRAConnection;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An interface to an issue tracking system.
@@ -27,4 +32,67 @@ public interface IssueTracker {
     public void doTransition(final String issueKey, final String status) throws IssueTrackerUpdateException;
     
     public JIRAConnection getJiraConnection();
+
+    /**
+     * Return the current status of each of the specified issues.
+     * Issues that cannot be found are left out of the result.
+     */
+    default Map<String, String> getStatuses(final Collection<String> issueKeys) throws IssueTrackerUpdateException {
+        Map<String, String> statuses = new HashMap<>();
+        for (String issueKey : issueKeys) {
+            try {
+                statuses.put(issueKey, getStatusFor(issueKey));
+            } catch (IssueTrackerUpdateException issueNotFound) {
+                // left out of the result
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Return the comments of each of the specified issues.
+     * Issues that cannot be found are left out of the result.
+     */
+    default Map<String, List<IssueComment>> getCommentsFor(final Collection<String> issueKeys) throws IssueTrackerUpdateException {
+        Map<String, List<IssueComment>> comments = new HashMap<>();
+        for (String issueKey : issueKeys) {
+            try {
+                comments.put(issueKey, getCommentsFor(issueKey));
+            } catch (IssueTrackerUpdateException issueNotFound) {
+                // left out of the result
+            }
+        }
+        return comments;
+    }
+
+    /**
+     * Add or update a comment on each of the specified issues.
+     * A comment that has already been saved in the issue tracker (one with a <code>self</code> link) is updated,
+     * any other comment is added.
+     * @param comments the comment to apply to each issue, indexed by issue key.
+     * @return the keys of the issues whose comment could not be applied. This default implementation
+     * stops at the first failure instead, so it always returns an empty set.
+     */
+    default Set<String> applyComments(final Map<String, IssueComment> comments) throws IssueTrackerUpdateException {
+        for (Map.Entry<String, IssueComment> comment : comments.entrySet()) {
+            if (comment.getValue().getSelf() == null) {
+                addComment(comment.getKey(), comment.getValue().getBody());
+            } else {
+                updateComment(comment.getKey(), comment.getValue());
+            }
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Perform workflow transitions on each of the specified issues.
+     * @param transitions the transitions to perform on each issue, in order, indexed by issue key.
+     */
+    default void doTransitions(final Map<String, List<String>> transitions) throws IssueTrackerUpdateException {
+        for (Map.Entry<String, List<String>> issueTransitions : transitions.entrySet()) {
+            for (String transition : issueTransitions.getValue()) {
+                doTransition(issueTransitions.getKey(), transition);
+            }
+        }
+    }
 }
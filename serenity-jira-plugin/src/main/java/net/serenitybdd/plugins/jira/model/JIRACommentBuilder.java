@@ -1,15 +1,8 @@
 package net.serenitybdd.plugins.jira.model;
 
-import ch.lambdaj.function.convert.Converter;
-import net.thucydides.core.model.TestOutcome;
-import net.thucydides.core.model.TestResult;
-
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
-import static ch.lambdaj.Lambda.convert;
-
 public class JIRACommentBuilder {
     public static final String SERENITY_COMMENT_HEADING = "Serenity BDD Automated Acceptance Tests";
     private final boolean wikiRendering;
@@ -18,8 +11,6 @@ public class JIRACommentBuilder {
     private final LocalDateTime executionTime;
     private final List<NamedTestResult> namedTestResults;
 
-    private final static String NEW_LINE = System.getProperty("line.separator");
-
     public JIRACommentBuilder(boolean wikiRendering) {
         this(wikiRendering, null);
     }
@@ -43,19 +34,6 @@ public class JIRACommentBuilder {
     }
 
 
-    private static List<NamedTestResult> namedTestResultsFrom(List<TestOutcome> testOutcomes) {
-        return convert(testOutcomes, toNamedTestResults());
-    }
-
-    private static Converter<TestOutcome, NamedTestResult> toNamedTestResults() {
-        return new Converter<TestOutcome, NamedTestResult>() {
-
-            public NamedTestResult convert(TestOutcome from) {
-                return new NamedTestResult(from.getTitle(), from.getResult());
-            }
-        };
-    }
-
     public JIRACommentBuilder(boolean wikiRendering,
                               String reportUrl,
                               List<NamedTestResult> namedTestResults,
@@ -70,56 +48,7 @@ public class JIRACommentBuilder {
 
 
     public String asText() {
-        StringBuilder commentBuilder = new StringBuilder();
-        addLine(commentBuilder, bold(SERENITY_COMMENT_HEADING));
-
-        String executionTimestamp = "Tests run: "
-                + executionTime.format(DateTimeFormatter.ofPattern("d MMM yyyy hh:mm a"));
-
-        if (wikiRendering) {
-            addLine(commentBuilder, executionTimestamp + " - [full report|" + reportUrl + "]");
-        } else {
-            addLine(commentBuilder, executionTimestamp + " - full report: " + reportUrl);
-        }
-        if (testRunNumber != null) {
-            addLine(commentBuilder, "Test Run: " + testRunNumber);
-        }
-        addLineForEachTest(commentBuilder);
-        return commentBuilder.toString();
-    }
-
-    private String bold(String text) {
-        return (wikiRendering) ? "*" + text + "*" : text;
-    }
-
-    private void addLineForEachTest(StringBuilder commentBuilder) {
-        if (namedTestResults != null) {
-            for (NamedTestResult testResult : namedTestResults) {
-
-                addLine(commentBuilder, "  - " + testResult.getTestName() + ": " + testResult.getTestResult() + " "
-                + resultIconFor(testResult.getTestResult()));
-            }
-        }
-    }
-
-    private String resultIconFor(TestResult testResult) {
-        if (!wikiRendering) {
-            return "";
-        }
-
-        switch (testResult) {
-            case SUCCESS: return ": (/)";
-            case FAILURE: return ": (x)";
-            case ERROR: return ": (x)";
-            case PENDING: return ": (!)";
-            case SKIPPED: return ": (!)";
-            case IGNORED: return ": (!)";
-            default: return ": (?)";
-        }
-    }
-
-    private void addLine(StringBuilder commentBuilder, final String line) {
-        commentBuilder.append(line).append(NEW_LINE);
+        return CommentCodec.render(wikiRendering, reportUrl, testRunNumber, namedTestResults, executionTime);
     }
 
     public JIRACommentBuilder withResults(final List<NamedTestResult> testOutcomes) {
@@ -1,20 +1,13 @@
 package net.serenitybdd.plugins.jira.model;
 
-import ch.lambdaj.function.convert.Converter;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.model.TestResultList;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.SortedMap;
-
-import static ch.lambdaj.Lambda.*;
+import java.util.TreeMap;
 
 public class TestResultComment {
 
@@ -24,18 +17,13 @@ public class TestResultComment {
     private final boolean wikiRenderingActive;
     private final LocalDateTime executionTime;
 
-    private final static int REPORT_URL_LINE = 1;
-    private final static int TEXT_NUMBER_LINE = 2;
-    private final static int FIRST_TEST_RESULT_LINE = 3;
-
     protected TestResultComment(String commentText) {
-        List<String> commentLines = ImmutableList.copyOf(commentText.split("\\r?\\n"));
-        reportUrl = findReportUrl(commentLines);
-        testRunNumber = findTestRunNumber(commentLines);
-        namedTestResults = findTestResults(commentLines);
+        List<String> commentLines = CommentCodec.linesOf(commentText);
+        reportUrl = CommentCodec.reportUrlIn(commentLines);
+        testRunNumber = CommentCodec.testRunNumberIn(commentLines);
+        namedTestResults = CommentCodec.testResultsIn(commentLines);
         wikiRenderingActive = true;
         executionTime = LocalDateTime.now();
-
     }
 
     protected TestResultComment(String reportUrl,
@@ -43,9 +31,21 @@ public class TestResultComment {
                                 List<NamedTestResult> namedTestResults,
                                 boolean wikiRenderingActive,
                                 LocalDateTime executionTime) {
+        this(reportUrl, testRunNumber, indexByTestName(namedTestResults), wikiRenderingActive, executionTime);
+    }
+
+    /**
+     * The indexed test results are never modified once a comment has been created, so they are shared between
+     * a comment and the updated copies made from it.
+     */
+    private TestResultComment(String reportUrl,
+                              String testRunNumber,
+                              SortedMap<String, NamedTestResult> namedTestResults,
+                              boolean wikiRenderingActive,
+                              LocalDateTime executionTime) {
         this.reportUrl = reportUrl;
         this.testRunNumber = testRunNumber;
-        this.namedTestResults = indexByTestName(namedTestResults);
+        this.namedTestResults = namedTestResults;
         this.wikiRenderingActive = wikiRenderingActive;
         this.executionTime = executionTime;
     }
@@ -58,175 +58,69 @@ public class TestResultComment {
         return new TestResultComment(commentText);
     }
 
-    private SortedMap<String, NamedTestResult> findTestResults(List<String> commentLines) {
-        List<String> testResultLines = linesStartingAtRowIn(commentLines, FIRST_TEST_RESULT_LINE);
-
-        List<NamedTestResult> namedTestResults = convert(testResultLines, toNamedTestResults());
-
-        return indexByTestName(namedTestResults);
-    }
-
-    private SortedMap<String, NamedTestResult> indexByTestName(List<NamedTestResult> namedTestResults) {
-        Map<String, NamedTestResult> indexedTestResults = index(namedTestResults, on(NamedTestResult.class).getTestName());
-        SortedMap<String, NamedTestResult> sortedTestResults = Maps.newTreeMap();
-        sortedTestResults.putAll(indexedTestResults);
-        return sortedTestResults;
-    }
-
-    private List<String> linesStartingAtRowIn(List<String> commentLines, int startingIndex) {
-        if (commentLines.size() >= startingIndex) {
-            return commentLines.subList(startingIndex, commentLines.size());
-        } else {
-            return Collections.EMPTY_LIST;
-        }
-    }
-
-    private Converter<String, NamedTestResult> toNamedTestResults() {
-        return commentLine -> {
-            String testName = stripInitialDash(textBeforeColon(commentLine));
-            TestResult result = getTestResult(commentLine);
-            return new NamedTestResult(testName, result);
-        };
-    }
-
-    private TestResult getTestResult(String commentLine) {
-        try {
-            return TestResult.valueOf(textAfterColon(commentLine));
-        } catch( IllegalArgumentException e) {
-            return TestResult.UNDEFINED;
-        }
-    }
-
-    private String stripInitialDash(String testResultText) {
-        if (testResultText.trim().startsWith("-")) {
-            return testResultText.trim().substring(2);
-        } else {
-            return testResultText.trim();
-        }
-    }
-
-    private String findTestRunNumber(List<String> commentLines) {
-        if (commentLines.size() > TEXT_NUMBER_LINE) {
-            return textAfterColon(commentLines.get(TEXT_NUMBER_LINE));
-        } else {
-            return null;
-        }
-    }
-
-    private String findReportUrl(List<String> commentLines) {
-        if (commentLines.size() > REPORT_URL_LINE) {
-            return reportUrlIn(commentLines.get(REPORT_URL_LINE));
-        } else {
-            return null;
+    private static SortedMap<String, NamedTestResult> indexByTestName(List<NamedTestResult> namedTestResults) {
+        SortedMap<String, NamedTestResult> sortedTestResults = new TreeMap<>();
+        if (namedTestResults != null) {
+            for (NamedTestResult namedTestResult : namedTestResults) {
+                sortedTestResults.put(namedTestResult.getTestName(), namedTestResult);
+            }
         }
-    }
-
-    private String reportUrlIn(String commentLine) {
-        if (wikiFormatUrl(commentLine)) {
-            return wikiFormattedUrl(commentLine);
-        } else {
-            return textAfterColon(commentLine);
-        }
-    }
-
-    private String wikiFormattedUrl(String commentLine) {
-        //[Test report|http://my.server/myproject/thucydides/my_test.html]
-        int pipe = commentLine.indexOf("|");
-        int endBracket = commentLine.indexOf("]");
-        return commentLine.substring(pipe + 1, endBracket);
-    }
-
-    private boolean wikiFormatUrl(String commentLine) {
-        return commentLine.contains("[");
+        return sortedTestResults;
     }
 
     public String getReportUrl() {
         return reportUrl;
     }
 
-    private String textBeforeColon(String line) {
-        String[] lineTokens = splitAtColon(line);
-        return lineTokens[0].trim();
-    }
-
-    private String[] splitAtColon(String line) {
-        return line.split(":", 3);
-    }
-
-    private String[] splitAtPipe(String line) {
-        return line.split("|", 3);
-    }
-
-    private String textAfterColon(String line) {
-        String[] lineTokens = splitAtColon(line);
-        if (lineTokens.length >= 2) {
-            return splitAtColon(line)[1].trim();
-        } else {
-            return null;
-        }
-    }
-
     public String getTestRunNumber() {
         return testRunNumber;
     }
 
     public List<NamedTestResult> getNamedTestResults() {
-        if (namedTestResults.isEmpty()) {
-            return Lists.newArrayList();
-        } else {
-            return convert(namedTestResults.entrySet(), fromMapEntriesToNamedTestResults());
-        }
-    }
-
-    private Converter<Map.Entry<String, NamedTestResult>, NamedTestResult> fromMapEntriesToNamedTestResults() {
-        return Map.Entry::getValue;
+        return new ArrayList<>(namedTestResults.values());
     }
 
     public TestResult getOverallResult() {
-        return TestResultList.overallResultFrom(convert(namedTestResults, NamedTestResult::getTestResult));
+        List<TestResult> testResults = new ArrayList<>(namedTestResults.size());
+        for (NamedTestResult namedTestResult : namedTestResults.values()) {
+            testResults.add(namedTestResult.getTestResult());
+        }
+        return TestResultList.overallResultFrom(testResults);
     }
 
     public String asText() {
         return toString();
     }
 
+    /**
+     * The comment is rendered with the current time, whatever execution time it was given.
+     */
     public String toString() {
-        return comment(wikiRenderingActive).withTestRun(testRunNumber)
-                .withReportUrl(reportUrl)
-                .withNamedResults(getNamedTestResults())
-                .asText();
+        return CommentCodec.render(wikiRenderingActive, reportUrl, testRunNumber, namedTestResults.values(), LocalDateTime.now());
     }
 
     public TestResultComment withUpdatedTestResults(final List<NamedTestResult> newTestResults) {
-        Map<String, NamedTestResult> mergedTestResultsIndexedByName = Maps.newHashMap();
-        mergedTestResultsIndexedByName.putAll(namedTestResults);
-
+        SortedMap<String, NamedTestResult> mergedTestResults = new TreeMap<>(namedTestResults);
         for (NamedTestResult testResult : newTestResults) {
-            mergedTestResultsIndexedByName.put(testResult.getTestName(), testResult);
+            mergedTestResults.put(testResult.getTestName(), testResult);
         }
-
-        List<NamedTestResult> mergedTestResults = Lists.newArrayList();
-        mergedTestResults.addAll(mergedTestResultsIndexedByName.values());
-
-        return comment(wikiRenderingActive).withTestRun(testRunNumber)
-                .withReportUrl(reportUrl)
-                .withNamedResults(mergedTestResults).asComment();
+        return new TestResultComment(reportUrl, testRunNumber, mergedTestResults, wikiRenderingActive, LocalDateTime.now());
     }
 
     public TestResultComment withUpdatedReportUrl(String newReportUrl) {
-        return new TestResultComment(newReportUrl, this.testRunNumber, getNamedTestResults(),wikiRenderingActive, executionTime);
+        return new TestResultComment(newReportUrl, this.testRunNumber, namedTestResults, wikiRenderingActive, executionTime);
     }
 
     public TestResultComment withUpdatedTestRunNumber(String newTestRunNumber) {
-        return new TestResultComment(this.reportUrl, newTestRunNumber, getNamedTestResults(),wikiRenderingActive, executionTime);
+        return new TestResultComment(this.reportUrl, newTestRunNumber, namedTestResults, wikiRenderingActive, executionTime);
     }
 
     public TestResultComment withWikiRendering(boolean isWikiRenderedActive) {
-        return new TestResultComment(this.reportUrl, this.testRunNumber, getNamedTestResults(), isWikiRenderedActive, executionTime);
+        return new TestResultComment(this.reportUrl, this.testRunNumber, namedTestResults, isWikiRenderedActive, executionTime);
     }
 
     public TestResultComment forTestsExecutedAt(LocalDateTime executionTime) {
-        return new TestResultComment(this.reportUrl, this.testRunNumber, getNamedTestResults(), wikiRenderingActive, executionTime);
+        return new TestResultComment(this.reportUrl, this.testRunNumber, namedTestResults, wikiRenderingActive, executionTime);
     }
 
 }
@@ -0,0 +1,174 @@
+package net.serenitybdd.plugins.jira.service;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import net.serenitybdd.plugins.jira.model.NamedTestResult;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.COMMENT_FINGERPRINT_MAX_AGE_DAYS;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.JIRA_CACHE_DIRECTORY;
+
+/**
+ * The test results last written to the Serenity comment of each issue, kept on disk between builds.
+ * <p>
+ * Results are compared by fingerprint: a hash of the test names and results, leaving out what changes on every run,
+ * such as the build number, the report link and the execution time. When an issue is about to be given the same
+ * results as last time, neither the comment nor the issue need to be read or written again.
+ * Fingerprints older than <b>serenity.jira.comment.fingerprint.max.age.days</b> days (7 by default) are ignored,
+ * so comments that were edited or deleted in JIRA are eventually rewritten.
+ */
+public class CommentFingerprints {
+
+    static final int SCHEMA_VERSION = 1;
+
+    private static final int DEFAULT_MAX_AGE_IN_DAYS = 7;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommentFingerprints.class);
+
+    private static final Map<String, CommentFingerprints> INDEXES = new ConcurrentHashMap<>();
+
+    private final Gson gson = new GsonBuilder().create();
+
+    private final Path indexFile;
+    private final long maxAgeInMillis;
+
+    private final Map<String, Fingerprint> fingerprintsByIssue = new ConcurrentHashMap<>();
+    private volatile boolean changed;
+
+    CommentFingerprints(Path indexFile, long maxAgeInMillis) {
+        this.indexFile = indexFile;
+        this.maxAgeInMillis = maxAgeInMillis;
+    }
+
+    /**
+     * The index shared by every updater writing to the given JIRA instance from this JVM
+     * with the same cache directory and maximum age.
+     */
+    public static CommentFingerprints forInstance(String jiraUrl, EnvironmentVariables environmentVariables) {
+        Path cacheDirectory = Paths.get(environmentVariables.getProperty(JIRA_CACHE_DIRECTORY,
+                Paths.get(System.getProperty("user.home"), ".serenity", "jira-cache").toString()));
+        long maxAge = TimeUnit.DAYS.toMillis(
+                environmentVariables.getPropertyAsInteger(COMMENT_FINGERPRINT_MAX_AGE_DAYS, DEFAULT_MAX_AGE_IN_DAYS));
+        Path indexFile = cacheDirectory.resolve("comments-" + Integer.toHexString(String.valueOf(jiraUrl).hashCode()) + ".json");
+        return INDEXES.computeIfAbsent(indexFile + "|" + maxAge, key -> new CommentFingerprints(indexFile, maxAge).load());
+    }
+
+    /**
+     * Save every index that has changed during this run.
+     */
+    public static void saveAll() {
+        INDEXES.values().forEach(CommentFingerprints::save);
+    }
+
+    /**
+     * A fingerprint of the names and results of some tests. The order of the tests does not matter,
+     * and a test that appears more than once counts with its last result, as when a comment is updated.
+     */
+    public static String fingerprintOf(List<NamedTestResult> testResults) {
+        SortedMap<String, TestResult> resultsByName = new TreeMap<>();
+        for (NamedTestResult testResult : testResults) {
+            resultsByName.put(testResult.getTestName(), testResult.getTestResult());
+        }
+        Hasher hasher = Hashing.sha256().newHasher();
+        resultsByName.forEach((testName, testResult) -> hasher
+                .putString(String.valueOf(testName), StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(testResult), StandardCharsets.UTF_8).putByte((byte) '\n'));
+        return hasher.hash().toString();
+    }
+
+    /**
+     * The overall result written to the comment of an issue, if the same test results were written last time.
+     * The workflow of an unchanged issue is updated from this result rather than from the comment in JIRA,
+     * so a change made to the comment by hand is only taken into account once the fingerprint has expired.
+     */
+    public Optional<TestResult> resultWrittenFor(String issueKey, String testResultsFingerprint) {
+        Fingerprint fingerprint = fingerprintsByIssue.get(issueKey);
+        if (fingerprint == null
+                || !fingerprint.testResults.equals(testResultsFingerprint)
+                || System.currentTimeMillis() - fingerprint.recordedAt >= maxAgeInMillis) {
+            return Optional.empty();
+        }
+        return Optional.of(fingerprint.overallResult);
+    }
+
+    public void record(String issueKey, String testResultsFingerprint, TestResult overallResult) {
+        Fingerprint fingerprint = new Fingerprint();
+        fingerprint.testResults = testResultsFingerprint;
+        fingerprint.overallResult = overallResult;
+        fingerprint.recordedAt = System.currentTimeMillis();
+        fingerprintsByIssue.put(issueKey, fingerprint);
+        changed = true;
+    }
+
+    public synchronized void save() {
+        if (!changed) {
+            return;
+        }
+        IndexContents contents = new IndexContents();
+        contents.schemaVersion = SCHEMA_VERSION;
+        contents.fingerprints = new HashMap<>(fingerprintsByIssue);
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Path temporaryFile = Files.createTempFile(indexFile.getParent(), "comments", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                gson.toJson(contents, writer);
+            }
+            Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changed = false;
+        } catch (IOException e) {
+            LOGGER.warn("Could not save the JIRA comment fingerprints to " + indexFile, e);
+        }
+    }
+
+    synchronized CommentFingerprints load() {
+        if (!Files.exists(indexFile)) {
+            return this;
+        }
+        try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            IndexContents contents = gson.fromJson(reader, IndexContents.class);
+            if (contents != null && contents.schemaVersion == SCHEMA_VERSION && contents.fingerprints != null) {
+                long now = System.currentTimeMillis();
+                contents.fingerprints.forEach((issueKey, fingerprint) -> {
+                    if (fingerprint.testResults != null && fingerprint.overallResult != null
+                            && now - fingerprint.recordedAt < maxAgeInMillis) {
+                        fingerprintsByIssue.put(issueKey, fingerprint);
+                    }
+                });
+            } else {
+                LOGGER.debug("Ignoring incompatible JIRA comment fingerprints at {}", indexFile);
+            }
+        } catch (IOException | JsonParseException e) {
+            LOGGER.warn("Could not read the JIRA comment fingerprints at " + indexFile, e);
+        }
+        return this;
+    }
+
+    private static class Fingerprint {
+        String testResults;
+        TestResult overallResult;
+        long recordedAt;
+    }
+
+    private static class IndexContents {
+        int schemaVersion;
+        Map<String, Fingerprint> fingerprints;
+    }
+}
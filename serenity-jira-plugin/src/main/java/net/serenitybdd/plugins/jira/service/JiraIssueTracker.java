@@ -1,12 +1,17 @@
 package net.serenitybdd.plugins.jira.service;
 
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.JsonObject;
 import com.google.inject.Inject;
 import net.serenitybdd.plugins.jira.domain.IssueComment;
-import net.serenitybdd.plugins.jira.domain.IssueSummary;
 import net.serenitybdd.plugins.jira.domain.IssueTransition;
+import net.serenitybdd.plugins.jira.domain.IssueUpdateContext;
 import net.serenitybdd.plugins.jira.model.IssueTracker;
 import net.serenitybdd.plugins.jira.model.IssueTrackerUpdateException;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.util.EnvironmentVariables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
@@ -14,33 +19,63 @@ import org.slf4j.MarkerFactory;
 
 import java.io.IOException;
 import java.text.ParseException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.BULK_JIRA_TRANSITIONS;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.BULK_TRANSITION_TIMEOUT;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.JIRA_MAX_THREADS;
 
 /**
  * Update comments in JIRA issues with links to Thucydides reports.
  * This plugin will use the JIRA username and password provided in the <b>jira.username</b>
  * and <b>jira.password</b> system properties. The URL of the JIRA instance should be provided
  * using the <b>jira.url</b> system property.
+ * <p>
+ * The status, comments and available transitions of an issue are read together in a single request,
+ * and this snapshot is shared by the steps of an update until one of them changes the issue.
+ * After a workflow transition, the {@link TransitionGraph} is used to work out the next snapshot when it can.
  */
 public class JiraIssueTracker implements IssueTracker {
 
     private final Logger logger;
     private final JIRAConnection jiraConnection;
+    private final EnvironmentVariables environmentVariables;
     private final Marker warn = MarkerFactory.getMarker("WARN");
 
+    private static final int UPDATE_CONTEXT_EXPIRY_IN_SECONDS = 30;
+    private static final int DEFAULT_MAX_CONCURRENT_UPDATES = 4;
+    private static final int DEFAULT_BULK_TRANSITION_TIMEOUT_IN_SECONDS = 300;
+
+    private final Cache<String, IssueUpdateContext> updateContexts = CacheBuilder.newBuilder()
+            .expireAfterWrite(UPDATE_CONTEXT_EXPIRY_IN_SECONDS, TimeUnit.SECONDS)
+            .build();
+
     @Inject
     public JiraIssueTracker(JIRAConfiguration jiraConfiguration) {
         this(LoggerFactory.getLogger(JiraIssueTracker.class), jiraConfiguration);
     }
 
     public JiraIssueTracker(Logger logger, JIRAConfiguration jiraConfiguration) {
+        this(logger, new JIRAConnection(jiraConfiguration),
+             Injectors.getInjector().getProvider(EnvironmentVariables.class).get());
+    }
+
+    JiraIssueTracker(Logger logger, JIRAConnection jiraConnection, EnvironmentVariables environmentVariables) {
         this.logger = logger;
-        this.jiraConnection = new JIRAConnection(jiraConfiguration);
+        this.jiraConnection = jiraConnection;
+        this.environmentVariables = environmentVariables;
     }
     
+    private TransitionGraph transitionGraph() {
+        return TransitionGraph.forInstance(jiraConnection.getJiraWebserviceUrl());
+    }
+
     public JIRAConnection getJiraConnection() {
     	return this.jiraConnection;
     }
@@ -61,6 +96,7 @@ public class JiraIssueTracker implements IssueTracker {
      */
     public void addComment(final String issueKey, final String commentText) {
             jiraConnection.getRestJiraClient().addComment(issueKey,new IssueComment(commentText));
+            updateContexts.invalidate(issueKey);
     }
 
 
@@ -89,15 +125,19 @@ public class JiraIssueTracker implements IssueTracker {
      * @throws IssueTrackerUpdateException if something wrong
      */
     public List<IssueComment> getCommentsFor(String issueKey) throws IssueTrackerUpdateException {
-        try {
-            return jiraConnection.getRestJiraClient().getComments(issueKey);
-        } catch (ParseException pe) {
-            throw new IssueTrackerUpdateException(pe.getMessage(),pe);
-        }
+        return updateContextFor(issueKey).getComments();
     }
 
     public void updateComment(String issuekey,IssueComment issueComment) {
-         jiraConnection.getRestJiraClient().updateComment(issuekey,issueComment);
+        IssueUpdateContext context = updateContexts.getIfPresent(issuekey);
+        Optional<JsonObject> existingComment = (context != null) ? context.getCommentJsonFor(issueComment) : Optional.empty();
+        if (existingComment.isPresent()) {
+            JsonObject updatedComment = jiraConnection.getRestJiraClient().updateComment(issuekey, issueComment, existingComment.get());
+            updateContexts.put(issuekey, context.withUpdatedComment(issueComment, updatedComment));
+        } else {
+            jiraConnection.getRestJiraClient().updateComment(issuekey,issueComment);
+            updateContexts.invalidate(issuekey);
+        }
     }
 
     /**
@@ -105,42 +145,248 @@ public class JiraIssueTracker implements IssueTracker {
      * Note that the status value depends on the issue workflow, so can be very variable.
      */
     public String getStatusFor(final String issueKey) throws IssueTrackerUpdateException {
-        Optional<IssueSummary> issue = jiraConnection.getRestJiraClient().loadByKey(issueKey);
-        if(issue.isPresent()) {
-            return issue.get().getStatus();
-        } else {
-            logJiraIssueNotFound(issueKey);
-            throw new IssueTrackerUpdateException("Issue not found " + issueKey, new NoSuchIssueException(issueKey));
-        }
+        return updateContextFor(issueKey).getStatus();
     }
 
     public void doTransition(final String issueKey, final String workflowAction) throws IssueTrackerUpdateException {
         try {
-            Optional<IssueSummary> issue = jiraConnection.getRestJiraClient().loadByKey(issueKey);
-            if(issue.isPresent()) {
-                String actionId = getAvailableActions(issueKey).get(workflowAction.toLowerCase());
-                if (actionId != null) {
-                    jiraConnection.getRestJiraClient().progressWorkflowTransition(issueKey, actionId);
+            IssueUpdateContext context = updateContextFor(issueKey);
+            Optional<IssueTransition> transition = context.getTransitionNamed(workflowAction);
+            if (transition.isPresent()) {
+                jiraConnection.getRestJiraClient().progressWorkflowTransition(issueKey, transition.get().getId());
+                afterTransition(context, transition.get());
+            }
+        } catch (ParseException pe) {
+            throw new IssueTrackerUpdateException(pe.getMessage(),pe);
+        }
+    }
+
+    /**
+     * Read the statuses of all the issues that are not already known with paged JQL searches.
+     */
+    @Override
+    public Map<String, String> getStatuses(final Collection<String> issueKeys) throws IssueTrackerUpdateException {
+        Map<String, String> statuses = new HashMap<>();
+        updateContextsFor(issueKeys).forEach((issueKey, context) -> statuses.put(issueKey, context.getStatus()));
+        return statuses;
+    }
+
+    /**
+     * Read the comments of all the issues that are not already known with paged JQL searches.
+     */
+    @Override
+    public Map<String, List<IssueComment>> getCommentsFor(final Collection<String> issueKeys) throws IssueTrackerUpdateException {
+        Map<String, List<IssueComment>> comments = new HashMap<>();
+        updateContextsFor(issueKeys).forEach((issueKey, context) -> comments.put(issueKey, context.getComments()));
+        return comments;
+    }
+
+    /**
+     * Apply the comments to several issues at once, with at most <b>jira.max.threads</b> concurrent updates.
+     * A failed update is logged and does not stop the others.
+     *
+     * @return the keys of the issues whose comment could not be applied
+     */
+    @Override
+    public Set<String> applyComments(final Map<String, IssueComment> comments) throws IssueTrackerUpdateException {
+        return forEachIssueInParallel(comments, (issueKey, comment) -> {
+            if (comment.getSelf() == null) {
+                addComment(issueKey, comment.getBody());
+            } else {
+                updateComment(issueKey, comment);
+            }
+        });
+    }
+
+    /**
+     * Transition several issues at once, with at most <b>jira.max.threads</b> issues being transitioned at a time.
+     * The transitions of each issue are performed in order.
+     * When <b>serenity.jira.bulk.transitions</b> is set, the issues are moved with the JIRA bulk transition
+     * endpoint instead, one workflow step at a time for all of them.
+     */
+    @Override
+    public void doTransitions(final Map<String, List<String>> transitions) throws IssueTrackerUpdateException {
+        Map<String, List<String>> remainingTransitions = transitions;
+        if (bulkTransitions()) {
+            remainingTransitions = doBulkTransitions(transitions);
+        }
+        forEachIssueInParallel(remainingTransitions, (issueKey, issueTransitions) -> {
+            for (String transition : issueTransitions) {
+                doTransition(issueKey, transition);
+            }
+        });
+    }
+
+    /**
+     * Each round moves every issue through its next available transition, in as few bulk requests as possible.
+     * As with {@link #doTransition(String, String)}, transitions that are not available from the current
+     * status of an issue are skipped.
+     *
+     * @return the transitions still to be done one issue at a time: those of the issues that JIRA did not move,
+     * whose bulk task failed or timed out, or all of them if this JIRA instance has no bulk transitions
+     */
+    private Map<String, List<String>> doBulkTransitions(final Map<String, List<String>> transitions) {
+        Map<String, List<String>> remainingTransitions = new HashMap<>();
+        Map<String, Deque<String>> pendingTransitions = new HashMap<>();
+        transitions.forEach((issueKey, issueTransitions) -> pendingTransitions.put(issueKey, new ArrayDeque<>(issueTransitions)));
+        long timeout = TimeUnit.SECONDS.toMillis(bulkTransitionTimeout());
+
+        while (!pendingTransitions.isEmpty()) {
+            Map<String, IssueUpdateContext> contexts = updateContextsFor(pendingTransitions.keySet());
+            Map<String, List<String>> issueKeysByTransitionId = new HashMap<>();
+            Map<String, String> nextTransitions = new HashMap<>();
+            for (String issueKey : new ArrayList<>(pendingTransitions.keySet())) {
+                Deque<String> issueTransitions = pendingTransitions.get(issueKey);
+                IssueUpdateContext context = contexts.get(issueKey);
+                Optional<IssueTransition> transition = Optional.empty();
+                while (context != null && !transition.isPresent() && !issueTransitions.isEmpty()) {
+                    nextTransitions.put(issueKey, issueTransitions.peek());
+                    transition = context.getTransitionNamed(issueTransitions.pop());
+                }
+                if (transition.isPresent()) {
+                    issueKeysByTransitionId.computeIfAbsent(transition.get().getId(), id -> new ArrayList<>()).add(issueKey);
+                } else {
+                    if (context == null) {
+                        logJiraIssueNotFound(issueKey);
+                    }
+                    pendingTransitions.remove(issueKey);
+                }
+            }
+            if (issueKeysByTransitionId.isEmpty()) {
+                break;
+            }
+            Set<String> untransitionedIssues
+                    = jiraConnection.getRestJiraClient().progressWorkflowTransitions(issueKeysByTransitionId, timeout);
+            remainingTransitions.putAll(unfinishedTransitions(untransitionedIssues, nextTransitions, pendingTransitions));
+            issueKeysByTransitionId.values().forEach(issueKeys -> issueKeys.forEach(issueKey -> {
+                if (!untransitionedIssues.contains(issueKey)) {
+                    IssueUpdateContext context = contexts.get(issueKey);
+                    afterTransition(context, context.getTransitionNamed(nextTransitions.get(issueKey)).get());
                 }
+            }));
+            pendingTransitions.keySet().removeAll(untransitionedIssues);
+            pendingTransitions.values().removeIf(Deque::isEmpty);
+        }
+        return remainingTransitions;
+    }
+
+    /**
+     * Keep the issue's snapshot if the transitions out of its new status are already known,
+     * so that the next step of a multi-step transition does not need to read the issue again.
+     */
+    private void afterTransition(IssueUpdateContext context, IssueTransition transition) {
+        Optional<IssueUpdateContext> movedContext = transitionGraph().afterTransition(context, transition);
+        if (movedContext.isPresent()) {
+            updateContexts.put(context.getKey(), movedContext.get());
+        } else {
+            updateContexts.invalidate(context.getKey());
+        }
+    }
+
+    /**
+     * The status of an issue that was not transitioned in bulk is unknown, so it is read again before
+     * its transitions are retried one at a time.
+     */
+    private Map<String, List<String>> unfinishedTransitions(Set<String> untransitionedIssues,
+                                                            Map<String, String> nextTransitions,
+                                                            Map<String, Deque<String>> pendingTransitions) {
+        Map<String, List<String>> unfinishedTransitions = new HashMap<>();
+        for (String issueKey : untransitionedIssues) {
+            List<String> issueTransitions = new ArrayList<>();
+            issueTransitions.add(nextTransitions.get(issueKey));
+            issueTransitions.addAll(pendingTransitions.get(issueKey));
+            unfinishedTransitions.put(issueKey, issueTransitions);
+            updateContexts.invalidate(issueKey);
+        }
+        return unfinishedTransitions;
+    }
+
+    private Map<String, IssueUpdateContext> updateContextsFor(final Collection<String> issueKeys) {
+        Map<String, IssueUpdateContext> contexts = new HashMap<>();
+        Set<String> unknownIssueKeys = new LinkedHashSet<>();
+        for (String issueKey : issueKeys) {
+            IssueUpdateContext context = updateContexts.getIfPresent(issueKey);
+            if (context != null) {
+                contexts.put(issueKey, context);
             } else {
+                unknownIssueKeys.add(issueKey);
+            }
+        }
+        if (!unknownIssueKeys.isEmpty()) {
+            try {
+                Map<String, IssueUpdateContext> loadedContexts
+                        = jiraConnection.getRestJiraClient().loadUpdateContexts(unknownIssueKeys);
+                updateContexts.putAll(loadedContexts);
+                loadedContexts.values().forEach(transitionGraph()::record);
+                contexts.putAll(loadedContexts);
+            } catch (ParseException pe) {
+                throw new IssueTrackerUpdateException(pe.getMessage(),pe);
+            }
+        }
+        return contexts;
+    }
+
+    private <T> Set<String> forEachIssueInParallel(final Map<String, T> updates, final BiConsumer<String, T> update) {
+        Set<String> failedIssues = new HashSet<>();
+        if (updates.isEmpty()) {
+            return failedIssues;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConcurrentUpdates(), updates.size()));
+        try {
+            Map<String, Future<?>> pendingUpdates = new LinkedHashMap<>();
+            for (Map.Entry<String, T> issueUpdate : updates.entrySet()) {
+                pendingUpdates.put(issueUpdate.getKey(),
+                                   executor.submit(() -> update.accept(issueUpdate.getKey(), issueUpdate.getValue())));
+            }
+            for (Map.Entry<String, Future<?>> pendingUpdate : pendingUpdates.entrySet()) {
+                try {
+                    pendingUpdate.getValue().get();
+                } catch (ExecutionException e) {
+                    logger.error("Could not update JIRA issue " + pendingUpdate.getKey(), e.getCause());
+                    failedIssues.add(pendingUpdate.getKey());
+                }
+            }
+            return failedIssues;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IssueTrackerUpdateException("Interrupted while updating JIRA issues", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int maxConcurrentUpdates() {
+        return Math.max(1, environmentVariables.getPropertyAsInteger(JIRA_MAX_THREADS, DEFAULT_MAX_CONCURRENT_UPDATES));
+    }
+
+    private boolean bulkTransitions() {
+        return environmentVariables.getPropertyAsBoolean(BULK_JIRA_TRANSITIONS, false);
+    }
+
+    private int bulkTransitionTimeout() {
+        return environmentVariables.getPropertyAsInteger(BULK_TRANSITION_TIMEOUT, DEFAULT_BULK_TRANSITION_TIMEOUT_IN_SECONDS);
+    }
+
+    private IssueUpdateContext updateContextFor(final String issueKey) throws IssueTrackerUpdateException {
+        IssueUpdateContext context = updateContexts.getIfPresent(issueKey);
+        if (context != null) {
+            return context;
+        }
+        try {
+            Optional<IssueUpdateContext> loadedContext = jiraConnection.getRestJiraClient().loadUpdateContext(issueKey);
+            if (!loadedContext.isPresent()) {
                 logJiraIssueNotFound(issueKey);
                 throw new IssueTrackerUpdateException("Issue not found " + issueKey, new NoSuchIssueException(issueKey));
             }
+            updateContexts.put(issueKey, loadedContext.get());
+            transitionGraph().record(loadedContext.get());
+            return loadedContext.get();
         } catch (ParseException pe) {
             throw new IssueTrackerUpdateException(pe.getMessage(),pe);
         }
     }
 
 
-    private Map<String, String> getAvailableActions(final String issueKey) throws  ParseException {
-        Map<String, String> availableActionMap = new HashMap<String, String>();
-        List<IssueTransition> actions = jiraConnection.getRestJiraClient().getAvailableTransitions(issueKey);
-        for(IssueTransition action : actions) {
-            availableActionMap.put(action.getName().toLowerCase(), action.getId());
-        }
-        return availableActionMap;
-    }
-
     private Map<String, String> statusCodeMap = null;
 //    private Map<String, String> getStatusCodeMap() {
 //        if (statusCodeMap == null) {
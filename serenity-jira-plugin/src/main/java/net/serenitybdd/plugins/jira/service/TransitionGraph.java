@@ -0,0 +1,196 @@
+package net.serenitybdd.plugins.jira.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import net.serenitybdd.plugins.jira.domain.IssueTransition;
+import net.serenitybdd.plugins.jira.domain.IssueUpdateContext;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.JIRA_CACHE_DIRECTORY;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.JIRA_CACHE_FULL_REFRESH_HOURS;
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.JIRA_PERSISTENT_CACHE;
+
+/**
+ * The workflow transitions available from each status, for each project and issue type of a JIRA instance.
+ * <p>
+ * The graph is filled in as issues are read. Once the transitions out of a status are known, an issue that is moved
+ * into that status can be moved on again without asking JIRA which transitions it now has, so the multi-step
+ * transitions of a workflow cost one request per step rather than two.
+ * When <b>jira.persistent.cache</b> is set, the graph is also kept on disk between builds, and is discarded
+ * every <b>jira.cache.full.refresh.hours</b> hours (24 by default) so that workflow changes are picked up.
+ */
+public class TransitionGraph {
+
+    static final int SCHEMA_VERSION = 1;
+
+    private static final int DEFAULT_FULL_REFRESH_HOURS = 24;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransitionGraph.class);
+
+    private static final Map<String, TransitionGraph> GRAPHS = new ConcurrentHashMap<>();
+
+    private final Gson gson = new GsonBuilder().create();
+
+    private final Path cacheFile;
+    private final long maxAgeInMillis;
+
+    private final Map<String, List<IssueTransition>> transitionsByState = new ConcurrentHashMap<>();
+    private long createdAt = System.currentTimeMillis();
+    private volatile boolean changed;
+
+    TransitionGraph(Path cacheFile, long maxAgeInMillis) {
+        this.cacheFile = cacheFile;
+        this.maxAgeInMillis = maxAgeInMillis;
+    }
+
+    /**
+     * The graph shared by every issue tracker connected to the given JIRA instance from this JVM.
+     */
+    public static TransitionGraph forInstance(String jiraUrl) {
+        return GRAPHS.computeIfAbsent(String.valueOf(jiraUrl), url -> configuredIn(environmentVariables(), url));
+    }
+
+    private static TransitionGraph configuredIn(EnvironmentVariables environmentVariables, String jiraUrl) {
+        Path cacheFile = null;
+        if (environmentVariables.getPropertyAsBoolean(JIRA_PERSISTENT_CACHE, false)) {
+            Path cacheDirectory = Paths.get(environmentVariables.getProperty(JIRA_CACHE_DIRECTORY,
+                    Paths.get(System.getProperty("user.home"), ".serenity", "jira-cache").toString()));
+            cacheFile = cacheDirectory.resolve("transitions-" + Integer.toHexString(jiraUrl.hashCode()) + ".json");
+        }
+        long maxAge = TimeUnit.HOURS.toMillis(
+                environmentVariables.getPropertyAsInteger(JIRA_CACHE_FULL_REFRESH_HOURS, DEFAULT_FULL_REFRESH_HOURS));
+        return new TransitionGraph(cacheFile, maxAge).load();
+    }
+
+    /**
+     * Save every graph that has learnt something new during this run.
+     */
+    public static void saveAll() {
+        GRAPHS.values().forEach(TransitionGraph::save);
+    }
+
+    /**
+     * Remember the transitions that JIRA returned for an issue in its current status.
+     */
+    public void record(IssueUpdateContext context) {
+        if (context.getIssueType() == null || context.getStatus() == null) {
+            return;
+        }
+        String state = stateOf(context.getProject(), context.getIssueType(), context.getStatus());
+        List<IssueTransition> transitions = ImmutableList.copyOf(context.getTransitions());
+        List<IssueTransition> previousTransitions = transitionsByState.put(state, transitions);
+        if (previousTransitions == null || !sameTransitions(previousTransitions, transitions)) {
+            changed = true;
+        }
+    }
+
+    public Optional<List<IssueTransition>> transitionsFrom(String project, String issueType, String status) {
+        return Optional.ofNullable(transitionsByState.get(stateOf(project, issueType, status)));
+    }
+
+    /**
+     * What the issue will look like after the given transition, if both its new status and the transitions
+     * available from that status are known.
+     */
+    public Optional<IssueUpdateContext> afterTransition(IssueUpdateContext context, IssueTransition transition) {
+        if (transition.getTargetStatus() == null || context.getIssueType() == null) {
+            return Optional.empty();
+        }
+        return transitionsFrom(context.getProject(), context.getIssueType(), transition.getTargetStatus())
+                .map(transitions -> context.movedTo(transition.getTargetStatus(), transitions));
+    }
+
+    public synchronized void save() {
+        if (cacheFile == null || !changed) {
+            return;
+        }
+        GraphContents contents = new GraphContents();
+        contents.schemaVersion = SCHEMA_VERSION;
+        contents.createdAt = createdAt;
+        contents.transitions = new HashMap<>(transitionsByState);
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path temporaryFile = Files.createTempFile(cacheFile.getParent(), "transitions", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                gson.toJson(contents, writer);
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changed = false;
+        } catch (IOException e) {
+            LOGGER.warn("Could not save the JIRA transition graph to " + cacheFile, e);
+        }
+    }
+
+    synchronized TransitionGraph load() {
+        if (cacheFile == null || !Files.exists(cacheFile)) {
+            return this;
+        }
+        try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            GraphContents contents = gson.fromJson(reader, GraphContents.class);
+            if (isUsable(contents)) {
+                contents.transitions.forEach(
+                        (state, transitions) -> transitionsByState.put(state, ImmutableList.copyOf(transitions)));
+                createdAt = contents.createdAt;
+            } else {
+                LOGGER.debug("Ignoring stale or incompatible JIRA transition graph at {}", cacheFile);
+            }
+        } catch (IOException | JsonParseException e) {
+            LOGGER.warn("Could not read the JIRA transition graph at " + cacheFile, e);
+        }
+        return this;
+    }
+
+    private boolean isUsable(GraphContents contents) {
+        return contents != null
+                && contents.schemaVersion == SCHEMA_VERSION
+                && contents.transitions != null
+                && (System.currentTimeMillis() - contents.createdAt) < maxAgeInMillis;
+    }
+
+    private static String stateOf(String project, String issueType, String status) {
+        return project + "|" + issueType + "|" + status;
+    }
+
+    private static boolean sameTransitions(List<IssueTransition> someTransitions, List<IssueTransition> otherTransitions) {
+        if (someTransitions.size() != otherTransitions.size()) {
+            return false;
+        }
+        for (int i = 0; i < someTransitions.size(); i++) {
+            IssueTransition someTransition = someTransitions.get(i);
+            IssueTransition otherTransition = otherTransitions.get(i);
+            if (!Objects.equals(someTransition.getId(), otherTransition.getId())
+                    || !Objects.equals(someTransition.getName(), otherTransition.getName())
+                    || !Objects.equals(someTransition.getTargetStatus(), otherTransition.getTargetStatus())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static EnvironmentVariables environmentVariables() {
+        return Injectors.getInjector().getProvider(EnvironmentVariables.class).get();
+    }
+
+    private static class GraphContents {
+        int schemaVersion;
+        long createdAt;
+        Map<String, List<IssueTransition>> transitions;
+    }
+}
@@ -0,0 +1,112 @@
+package net.serenitybdd.plugins.jira.workflow;
+
+import com.google.common.io.CharStreams;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+public class ClasspathWorkflowLoader implements WorkflowLoader {
+
+    public static final String BUNDLED_WORKFLOW = "default-workflow.groovy";
+    public static final String WORKFLOW_CONFIGURATION_PROPERTY = "serenity.jira.workflow";
+    public static final String ACTIVATE_WORKFLOW_PROPERTY = "serenity.jira.workflow.active";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClasspathWorkflowLoader.class);
+
+    private final String defaultWorkflow;
+    private final EnvironmentVariables environmentVariables;
+
+    @Inject
+    public ClasspathWorkflowLoader(@Named("defaultWorkflow") String defaultWorkflow,
+                                   EnvironmentVariables environmentVariables) {
+        this.defaultWorkflow = defaultWorkflow;
+        this.environmentVariables = environmentVariables;
+    }
+
+    public String getDefaultWorkflow() {
+        return defaultWorkflow;
+    }
+
+    public Workflow load() {
+        String workflowFile = getWorkflowFile();
+        try (InputStream inputStream = Thread.currentThread().getContextClassLoader().getResourceAsStream(workflowFile)) {
+            return loadFrom(workflowFile, CharStreams.toString(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the JIRA workflow " + workflowFile, e);
+        }
+    }
+
+    private Workflow loadFrom(String name, String configuration) {
+        return new Workflow(name, configuration, workflowActive());
+    }
+
+    public boolean workflowActive() {
+        if (systemConfiguredWorkflowPropertyIsDefined() && !systemConfiguredWorkflowFileExists()) {
+            return false;
+        } else {
+            return (systemConfiguredWorkflowFileExists()
+                    || defaultWorkflowIsPresent()
+                    || worflowActivatedViaTheSystemProperty());
+        }
+    }
+
+    public boolean systemConfiguredWorkflowPropertyIsDefined() {
+        return getSystemConfiguredWorkflow() != null;
+    }
+
+    public boolean worflowActivatedViaTheSystemProperty() {
+        return Boolean.valueOf(environmentVariables.getProperty(ACTIVATE_WORKFLOW_PROPERTY, "false"));
+    }
+
+    public String getWorkflowFile() {
+        if (systemConfiguredWorkflowFileExists()) {
+            return getSystemConfiguredWorkflow();
+        } else if (defaultWorkflowIsPresent()) {
+            return defaultWorkflow;
+        } else {
+            return BUNDLED_WORKFLOW;
+        }
+    }
+
+    public boolean defaultWorkflowIsPresent() {
+        String defaultWorkflowPath = fileOnClasspathAt(defaultWorkflow);
+        if (defaultWorkflowPath != null) {
+            return new File(defaultWorkflowPath).exists();
+        } else {
+            return false;
+        }
+    }
+
+    public String fileOnClasspathAt(String resource) {
+        URL resourceUrl = Thread.currentThread().getContextClassLoader().getResource(resource);
+        return (resourceUrl != null) ? resourceUrl.getFile() : null;
+    }
+
+    public String getSystemConfiguredWorkflow() {
+        return environmentVariables.getProperty(WORKFLOW_CONFIGURATION_PROPERTY);
+    }
+
+    public boolean systemConfiguredWorkflowFileExists() {
+        return (getSystemConfiguredWorkflow() != null) && (fileOnClasspathAt(getSystemConfiguredWorkflow()) != null);
+    }
+
+    public String getSystemConfiguredWorkflowFile() {
+        if (fileOnClasspathAt(getSystemConfiguredWorkflow()) != null) {
+            return fileOnClasspathAt(getSystemConfiguredWorkflow());
+        } else {
+            LOGGER.error("Failed to load system-specified JIRA workflow configuration at {}", getSystemConfiguredWorkflow());
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package net.serenitybdd.plugins.jira.workflow;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+import net.thucydides.core.model.TestResult;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Runs a workflow written in the Groovy DSL, and copies the transitions it defines into a {@link TransitionTable}.
+ * This is the only place the Groovy runtime is needed to load a workflow.
+ */
+class GroovyWorkflowCompiler {
+
+    static TransitionTable compile(String configuration) {
+        TransitionBuilder builder = new TransitionBuilder();
+        try (GroovyClassLoader classLoader = new GroovyClassLoader()) {
+            Class<?> scriptClass = classLoader.parseClass(configuration);
+            Script script = (Script) scriptClass.getDeclaredConstructor().newInstance();
+            BuilderBinding binding = new BuilderBinding();
+            binding.setBuilder(builder);
+            script.setBinding(binding);
+            script.run();
+        } catch (ReflectiveOperationException | IOException e) {
+            throw new IllegalStateException("Could not compile the JIRA workflow", e);
+        }
+        return transitionTableFrom(builder.getTransitionSetMap());
+    }
+
+    private static TransitionTable transitionTableFrom(TransitionBuilder.TransitionSetMap transitionSetMap) {
+        Map<TestResult, Map<String, List<String>>> transitions = new EnumMap<>(TestResult.class);
+        transitionSetMap.getTransitionsByTestResult().forEach((testResult, transitionsForOutcome) -> {
+            Map<String, List<String>> transitionsByStatus = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> statusTransitions : ((Map<?, ?>) transitionsForOutcome.getTransitionMap()).entrySet()) {
+                List<String> transitionNames = new ArrayList<>();
+                for (Object transitionName : (List<?>) statusTransitions.getValue()) {
+                    transitionNames.add(String.valueOf(transitionName));
+                }
+                transitionsByStatus.put(String.valueOf(statusTransitions.getKey()), transitionNames);
+            }
+            transitions.put(testResult, transitionsByStatus);
+        });
+        return new TransitionTable(transitions);
+    }
+}
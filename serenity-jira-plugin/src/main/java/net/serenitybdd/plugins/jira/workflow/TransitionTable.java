@@ -0,0 +1,102 @@
+package net.serenitybdd.plugins.jira.workflow;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import net.thucydides.core.model.TestResult;
+
+import java.util.*;
+
+/**
+ * The workflow transitions to perform for each test result, given the current status of an issue.
+ * Tables are immutable, so a compiled workflow can be shared by every updater in the JVM.
+ */
+public class TransitionTable {
+
+    private final Map<TestResult, Map<String, List<String>>> transitionsByTestResult;
+
+    TransitionTable(Map<TestResult, Map<String, List<String>>> transitionsByTestResult) {
+        EnumMap<TestResult, Map<String, List<String>>> transitions = new EnumMap<>(TestResult.class);
+        transitionsByTestResult.forEach((testResult, transitionsByStatus) -> {
+            ImmutableMap.Builder<String, List<String>> copiedTransitions = ImmutableMap.builder();
+            transitionsByStatus.forEach((status, statusTransitions) -> copiedTransitions.put(status, ImmutableList.copyOf(statusTransitions)));
+            transitions.put(testResult, copiedTransitions.build());
+        });
+        this.transitionsByTestResult = Collections.unmodifiableMap(transitions);
+    }
+
+    public TransitionsForOutcome forTestResult(TestResult testResult) {
+        return new TransitionsForOutcome(transitionsByTestResult.getOrDefault(testResult, Collections.emptyMap()));
+    }
+
+    public List<String> transitionsFor(TestResult testResult, String status) {
+        return forTestResult(testResult).whenIssueIs(status);
+    }
+
+    /**
+     * Read a workflow written as JSON, with the same structure as the Groovy DSL:
+     * <pre>
+     * {
+     *   "Open":        { "success": "Resolve Issue" },
+     *   "In Progress": { "success": ["Stop Progress", "Resolve Issue"] },
+     *   "Resolved":    { "failure": "Reopen Issue" }
+     * }
+     * </pre>
+     */
+    static TransitionTable fromJson(String configuration) {
+        Map<TestResult, Map<String, List<String>>> transitions = new EnumMap<>(TestResult.class);
+        JsonObject transitionsByStatus = new JsonParser().parse(configuration).getAsJsonObject();
+        for (Map.Entry<String, JsonElement> statusEntry : transitionsByStatus.entrySet()) {
+            for (Map.Entry<String, JsonElement> outcomeEntry : statusEntry.getValue().getAsJsonObject().entrySet()) {
+                TestResult testResult = testResultCalled(outcomeEntry.getKey());
+                transitions.computeIfAbsent(testResult, result -> new LinkedHashMap<>())
+                        .put(statusEntry.getKey(), transitionNamesIn(outcomeEntry.getValue()));
+            }
+        }
+        return new TransitionTable(transitions);
+    }
+
+    private static TestResult testResultCalled(String outcome) {
+        try {
+            return TestResult.valueOf(outcome.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException unknownOutcome) {
+            throw new JsonParseException("Unknown test result in JIRA workflow: " + outcome);
+        }
+    }
+
+    private static List<String> transitionNamesIn(JsonElement transitions) {
+        List<String> transitionNames = new ArrayList<>();
+        if (transitions.isJsonArray()) {
+            transitions.getAsJsonArray().forEach(transition -> transitionNames.add(transition.getAsString()));
+        } else {
+            transitionNames.add(transitions.getAsString());
+        }
+        return transitionNames;
+    }
+
+    @Override
+    public String toString() {
+        return transitionsByTestResult.toString();
+    }
+
+    public static class TransitionsForOutcome {
+
+        private final Map<String, List<String>> transitionMap;
+
+        TransitionsForOutcome(Map<String, List<String>> transitionMap) {
+            this.transitionMap = transitionMap;
+        }
+
+        public List<String> whenIssueIs(String status) {
+            return transitionMap.getOrDefault(status, Collections.emptyList());
+        }
+
+        @Override
+        public String toString() {
+            return transitionMap.toString();
+        }
+    }
+}
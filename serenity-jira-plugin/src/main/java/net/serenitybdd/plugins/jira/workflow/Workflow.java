@@ -0,0 +1,58 @@
+package net.serenitybdd.plugins.jira.workflow;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manage JIRA workflow integration.
+ * JIRA workflow integration is configured using a simple Groovy DSL to define the transitionSetMap to be performed
+ * for each test result, or with the same rules written as JSON in a file ending in <b>.json</b>.
+ * Each workflow is compiled once per JVM, and shared by every updater that loads the same configuration.
+ * JSON workflows are read without starting the Groovy runtime.
+ */
+public class Workflow {
+
+    private static final String JSON_WORKFLOW_SUFFIX = ".json";
+
+    private static final Map<String, TransitionTable> COMPILED_WORKFLOWS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final boolean active;
+    private final TransitionTable transitions;
+
+    protected Workflow(String name, String configuration, boolean active) {
+        this(name, compiled(name, configuration), active);
+    }
+
+    Workflow(String name, TransitionTable transitions, boolean active) {
+        this.name = name;
+        this.active = active;
+        this.transitions = transitions;
+    }
+
+    private static TransitionTable compiled(String name, String configuration) {
+        boolean isJson = isJsonWorkflow(name);
+        String configurationHash = Hashing.sha256().hashString(configuration, StandardCharsets.UTF_8).toString();
+        return COMPILED_WORKFLOWS.computeIfAbsent((isJson ? "json:" : "groovy:") + configurationHash,
+                key -> isJson ? TransitionTable.fromJson(configuration) : GroovyWorkflowCompiler.compile(configuration));
+    }
+
+    static boolean isJsonWorkflow(String name) {
+        return name != null && name.toLowerCase().endsWith(JSON_WORKFLOW_SUFFIX);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public TransitionTable getTransitions() {
+        return transitions;
+    }
+}
@@ -1,4 +1,4 @@
-package net.serenitybdd.plugins.jira.workflow
+package net.serenitybdd.plugins.jira.workflow;
 
 public interface WorkflowLoader {
     Workflow load();
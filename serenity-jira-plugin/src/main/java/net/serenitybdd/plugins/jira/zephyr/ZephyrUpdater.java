@@ -1,9 +1,7 @@
 package net.serenitybdd.plugins.jira.zephyr;
 
-import ch.lambdaj.function.convert.Converter;
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.serenitybdd.plugins.jira.OutcomeRecord;
 import net.serenitybdd.plugins.jira.TestResultTally;
 import net.serenitybdd.plugins.jira.domain.IssueSummary;
 import net.serenitybdd.plugins.jira.model.IssueTracker;
@@ -12,7 +10,6 @@ import net.serenitybdd.plugins.jira.service.SystemPropertiesJIRAConfiguration;
 import net.serenitybdd.plugins.jira.zephyr.client.ZephyrClient;
 import net.serenitybdd.plugins.jira.zephyr.domain.ZephyrCycle;
 import net.serenitybdd.plugins.jira.zephyr.domain.ZephyrExecutionDetails;
-import net.thucydides.core.model.TestOutcomeSummary;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.model.TestResultList;
 import net.thucydides.core.util.EnvironmentVariables;
@@ -21,16 +18,27 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
-import static ch.lambdaj.Lambda.convert;
 
+/**
+ * Updates the Zephyr test executions of the issues of a test suite, on a pool of at most <b>jira.max.threads</b> threads.
+ * Each suite waits for its updates for up to <b>serenity.jira.zephyr.update.timeout</b> seconds, and the pool is
+ * shut down at the end of the test run.
+ */
 public class ZephyrUpdater {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ZephyrUpdater.class);
@@ -41,11 +49,12 @@ public class ZephyrUpdater {
 	public static final String ZEPHYR_DEFAULT_CYCLE = "serenity.jira.zephyr.default.cycle";
 	public static final String ZEPHYR_SELECTED_CYCLE = "serenity.jira.zephyr.update.selected.cycles";
 	public static final String ZEPHYR_SELECTED_VERSION = "serenity.jira.zephyr.update.selected.versions";
+	public static final String ZEPHYR_UPDATE_TIMEOUT = "serenity.jira.zephyr.update.timeout";
 	
 	static final int DEFAULT_MAX_THREADS = 4;
+	static final int DEFAULT_UPDATE_TIMEOUT_IN_SECONDS = 600;
 	private final JIRAConnection jiraConnection;
-	private final ListeningExecutorService executorService;
-	private final AtomicInteger queueSize = new AtomicInteger(0);
+	private ExecutorService executorService;
 	private EnvironmentVariables environmentVariables;
 	
 	private final String projectKey;
@@ -76,8 +85,6 @@ public class ZephyrUpdater {
 		this.jiraConnection = issueTracker.getJiraConnection();
 		this.zephyrClient = zephyrClient;
 		
-		executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(getMaxJobs()));
-		
 		this.jiraURL = environmentVariables.getProperty(SystemPropertiesJIRAConfiguration.JIRA_URL);
 		logStatus();
 	}
@@ -86,53 +93,74 @@ public class ZephyrUpdater {
 		LOGGER.debug("ZEPHYR ACTIVE: {} ", shouldUpdateZephyr() && shouldUpdateZephyrExecution());
 	}
 
-	public void updateZephyrExecutionStatus(Set<String> issues, final TestResultTally<TestOutcomeSummary> resultTally) {
-		queueSize.set(issues.size());
+	public void updateZephyrExecutionStatus(Set<String> issues, final TestResultTally<OutcomeRecord> resultTally) {
+		ExecutorService executor = executor();
+		Map<String, Throwable> failures = new ConcurrentHashMap<>();
+		List<CompletableFuture<Void>> updates = new ArrayList<>();
 		for (final String issue : issues) {
-			final ListenableFuture<String> future = executorService.submit(new Callable<String>() {
-				@Override
-				public String call() throws Exception {
-					return issue;
-				}
-			});
-			future.addListener(new Runnable() {
-				@Override
-				public void run() {
-					logZephyrExecutionTracking(issue);
-					if (!dryRun()) {
-						try
-						{
-							updateZephyrExecution(issue, resultTally.getTestOutcomesForIssue(issue));
-						} catch (IOException io)
-						{
-							LOGGER.error("Failed to update Zephyr Status for Issue {}", issue);
-							LOGGER.error("exception occured while changing Zephyr execution status {}", io);
+			updates.add(CompletableFuture
+					.runAsync(() -> updateZephyrExecutionFor(issue, resultTally), executor)
+					.whenComplete((done, failure) -> {
+						if (failure != null) {
+							failures.put(issue, (failure instanceof CompletionException) ? failure.getCause() : failure);
 						}
-						queueSize.decrementAndGet();
-					}
-				}
-			}, MoreExecutors.newDirectExecutorService());
-			future.addListener(new Runnable() {
-				@Override
-				public void run() {
-					queueSize.decrementAndGet();
-				}
-			}, executorService);
-
+					}));
 		}
-		waitTillUpdatesDone(queueSize);
+		waitTillUpdatesDone(updates);
+		failures.forEach((issue, failure) -> LOGGER.error("Failed to update Zephyr Status for Issue " + issue, failure));
 	}
 
-	private void waitTillUpdatesDone(AtomicInteger counter) {
-		while (counter.get() > 0) {
+	private void updateZephyrExecutionFor(String issue, TestResultTally<OutcomeRecord> resultTally) {
+		logZephyrExecutionTracking(issue);
+		if (!dryRun()) {
 			try {
-				Thread.sleep(50);
-			} catch (InterruptedException e) {
+				updateZephyrExecution(issue, resultTally.getTestOutcomesForIssue(issue));
+			} catch (IOException io) {
+				throw new UncheckedIOException(io);
 			}
 		}
 	}
+
+	private void waitTillUpdatesDone(List<CompletableFuture<Void>> updates) {
+		try {
+			CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0])).get(getUpdateTimeout(), TimeUnit.SECONDS);
+		} catch (ExecutionException failedUpdates) {
+			// Each failure has already been recorded against its issue
+		} catch (TimeoutException timeout) {
+			long pendingUpdates = updates.stream().filter(update -> !update.isDone()).count();
+			LOGGER.error("{} Zephyr execution updates did not finish within {} seconds", pendingUpdates, getUpdateTimeout());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private synchronized ExecutorService executor() {
+		if (executorService == null || executorService.isShutdown()) {
+			executorService = Executors.newFixedThreadPool(getMaxJobs(),
+					new ThreadFactoryBuilder().setNameFormat("zephyr-updater-%d").setDaemon(true).build());
+		}
+		return executorService;
+	}
+
+	/**
+	 * Wait for any update still running, then release the update threads.
+	 */
+	public synchronized void shutdown() {
+		if (executorService == null) {
+			return;
+		}
+		executorService.shutdown();
+		try {
+			if (!executorService.awaitTermination(getUpdateTimeout(), TimeUnit.SECONDS)) {
+				executorService.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			executorService.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
 	
-	private void updateZephyrExecution(String issue, List<TestOutcomeSummary> testOutcomes) throws IOException {
+	private void updateZephyrExecution(String issue, List<OutcomeRecord> testOutcomes) throws IOException {
 		IssueSummary issueDetails = this.jiraConnection.getRestJiraClient().getIssue(issue);
 		LOGGER.debug("Issue Type is: {}", issueDetails.getType());
 		if (("Test").equalsIgnoreCase(issueDetails.getType()) && shouldUpdateZephyrExecution() && shouldUpdateZephyr()) {
@@ -209,8 +237,9 @@ public class ZephyrUpdater {
 		return versionId;
 	}
 	
-	private Status returnExecutionStatus(List<TestOutcomeSummary> testOutcomes) {
-		TestResult overallResult = TestResultList.overallResultFrom(convert(testOutcomes, toTestResults()));
+	private Status returnExecutionStatus(List<OutcomeRecord> testOutcomes) {
+		TestResult overallResult = TestResultList.overallResultFrom(
+				testOutcomes.stream().map(OutcomeRecord::getTestResult).collect(Collectors.toList()));
 		if (overallResult.equals(TestResult.FAILURE) || overallResult.equals(TestResult.ERROR)
 				|| overallResult.equals(TestResult.COMPROMISED))
 			return Status.FAIL;
@@ -222,15 +251,6 @@ public class ZephyrUpdater {
 			return Status.PASS;
 	}
 
-	private Converter<TestOutcomeSummary, TestResult> toTestResults() {
-		return new Converter<TestOutcomeSummary, TestResult>() {
-			@Override
-			public TestResult convert(TestOutcomeSummary from) {
-				return from.getTestResult();
-			}
-		};
-	}
-
 	private void logZephyrExecutionTracking(final String issueId) {
 		if (dryRun()) {
 			LOGGER.info("--- DRY RUN ONLY: ZEPHYR WILL NOT BE UPDATED ---");
@@ -245,6 +265,10 @@ public class ZephyrUpdater {
 	private int getMaxJobs() {
 		return environmentVariables.getPropertyAsInteger(JIRA_MAX_THREADS, DEFAULT_MAX_THREADS);
 	}
+
+	private int getUpdateTimeout() {
+		return environmentVariables.getPropertyAsInteger(ZEPHYR_UPDATE_TIMEOUT, DEFAULT_UPDATE_TIMEOUT_IN_SECONDS);
+	}
 	
 	private boolean shouldUpdateZephyr() {
 		return !(StringUtils.isEmpty(this.jiraURL));
@@ -3,6 +3,7 @@ package net.serenitybdd.plugins.jira.zephyr.client;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import net.serenitybdd.plugins.jira.client.RequestThrottle;
 import org.apache.commons.codec.binary.Base64;
 
 import java.io.BufferedReader;
@@ -53,7 +54,7 @@ public class HttpClient {
 	 * @throws IOException
 	 */
 	public static String httpGetJSONString(final String url, final String creds) throws IOException {
-		final HttpURLConnection httpCon = createHttpCon(url, creds, "GET");
+		final HttpURLConnection httpCon = send(url, creds, "GET", null);
 		final BufferedReader br = new BufferedReader(new InputStreamReader(httpCon.getInputStream()));
 
 		final StringBuilder httpResponse = new StringBuilder();
@@ -78,13 +79,8 @@ public class HttpClient {
 	 */
 	private static JsonObject sendRequest(final String url, final String creds, final JsonObject obj, final String method)
 			throws IOException {
-		final HttpURLConnection httpCon = createHttpCon(url, creds, method);
-
-		if (null != obj && !"{}".equalsIgnoreCase(obj.toString())) {
-			final OutputStreamWriter out = new OutputStreamWriter(httpCon.getOutputStream());
-			out.write(obj.toString());
-			out.close();
-		}
+		final String content = (null != obj && !"{}".equalsIgnoreCase(obj.toString())) ? obj.toString() : null;
+		final HttpURLConnection httpCon = send(url, creds, method, content);
 
 		final BufferedReader rd = new BufferedReader(new InputStreamReader(httpCon.getInputStream()));
 		final StringBuilder result = new StringBuilder();
@@ -97,13 +93,7 @@ public class HttpClient {
 
 	private static JsonObject sendRequest(final String url, final String creds, final String jsonObj, final String method)
 			throws IOException {
-		final HttpURLConnection httpCon = createHttpCon(url, creds, method);
-
-		if (null != jsonObj) {
-			final OutputStreamWriter out = new OutputStreamWriter(httpCon.getOutputStream());
-			out.write(jsonObj);
-			out.close();
-		}
+		final HttpURLConnection httpCon = send(url, creds, method, jsonObj);
 
 		final BufferedReader rd = new BufferedReader(new InputStreamReader(httpCon.getInputStream()));
 		final StringBuilder result = new StringBuilder();
@@ -163,6 +153,39 @@ public class HttpClient {
 		return sendRequest(url, creds, jsonObj, "DELETE");
 	}
 
+	/**
+	 * Send a request through the throttle shared with the JIRA client, retrying it
+	 * while the server answers 429 or 503.
+	 * 
+	 * @param url
+	 *            - the URL to send the request to
+	 * @param content
+	 *            - the JSON content to send, if any
+	 * @return the connection, ready to read the response from
+	 */
+	private static HttpURLConnection send(final String url, final String creds, final String method, final String content)
+			throws IOException {
+		final RequestThrottle throttle = RequestThrottle.forUrl(url);
+		int attempt = 0;
+		while (true) {
+			throttle.acquire();
+			final HttpURLConnection httpCon = createHttpCon(url, creds, method);
+			if (null != content) {
+				final OutputStreamWriter out = new OutputStreamWriter(httpCon.getOutputStream());
+				out.write(content);
+				out.close();
+			}
+			final int status = httpCon.getResponseCode();
+			throttle.recordResponse(status);
+			if (!throttle.shouldRetry(status, attempt)) {
+				return httpCon;
+			}
+			final String retryAfter = httpCon.getHeaderField("Retry-After");
+			httpCon.disconnect();
+			throttle.waitBeforeRetry(attempt++, retryAfter);
+		}
+	}
+
 	/**
 	 * Return a HttpURLConnection object for the specified URL and request
 	 * method
@@ -0,0 +1,67 @@
+package net.serenitybdd.plugins.jira.client
+
+import net.serenitybdd.plugins.jira.model.CustomField
+import net.serenitybdd.plugins.jira.model.JQLException
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class WhenCachingJiraMetadata extends Specification {
+
+    def cleanup() {
+        JiraMetadataCache.invalidateAll()
+    }
+
+    def "should index the fields by name and by id from a single list"() {
+        when:
+            def index = new CustomFieldIndex([new CustomField("customfield_10001", "Epic Link", "any"),
+                                              new CustomField("summary", "Summary", "string")])
+        then:
+            index.fieldsByName["Epic Link"].id == "customfield_10001"
+            index.fieldNamesById["summary"] == "Summary"
+    }
+
+    def "should load the fields of an instance only once"() {
+        given:
+            def loads = new AtomicInteger()
+            def loader = { loads.incrementAndGet(); new CustomFieldIndex([]) } as Callable<CustomFieldIndex>
+        when:
+            3.times { JiraMetadataCache.fields("http://jira|bruce", loader) }
+        then:
+            loads.get() == 1
+    }
+
+    def "should wait for a load already in progress rather than loading again"() {
+        given:
+            def loads = new AtomicInteger()
+            def started = new CountDownLatch(1)
+            def loader = {
+                loads.incrementAndGet()
+                started.countDown()
+                Thread.sleep(200)
+                new CustomFieldIndex([])
+            } as Callable<CustomFieldIndex>
+            def executor = Executors.newFixedThreadPool(4)
+        when:
+            def results = (1..4).collect {
+                executor.submit({ JiraMetadataCache.fields("http://jira|alice", loader) } as Callable)
+            }*.get(5, TimeUnit.SECONDS)
+        then:
+            loads.get() == 1
+            results.unique { System.identityHashCode(it) }.size() == 1
+        cleanup:
+            executor.shutdown()
+    }
+
+    def "should report load failures as they were thrown"() {
+        when:
+            JiraMetadataCache.fields("http://jira|bob", { throw new JQLException("JIRA query failed: error 500") } as Callable)
+        then:
+            def e = thrown(JQLException)
+            e.message == "JIRA query failed: error 500"
+    }
+}
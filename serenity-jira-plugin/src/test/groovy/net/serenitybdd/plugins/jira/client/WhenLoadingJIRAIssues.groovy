@@ -42,6 +42,28 @@ class WhenLoadingJIRAIssues extends Specification {
             issue.get().key == "DEMO-33"
     }
 
+    def "should load only the requested fields of an issue"() {
+        given:
+            def jiraClient = globalJiraClient
+        when:
+            Optional<IssueSummary> issue = jiraClient.findByKey("DEMO-33", FieldSet.STATUS)
+        then:
+            issue.get().status != null
+        and:
+            issue.get().summary == null
+    }
+
+    def "should load several issues by key in one go"() {
+        given:
+            def jiraClient = globalJiraClient
+        when:
+            Map<String, IssueSummary> issues = jiraClient.findByKeys(["DEMO-2", "DEMO-33", "DEMO-99999"])
+        then:
+            issues.keySet() as List == ["DEMO-2", "DEMO-33"]
+        and:
+            !jiraClient.findByKey("DEMO-99999").isPresent()
+    }
+
     def "should not load issue by key if the issue is not available"() {
         given:
             def jiraClient = globalJiraClient
@@ -51,6 +73,26 @@ class WhenLoadingJIRAIssues extends Specification {
             !issue.isPresent()
     }
 
+    def "should load issue summary by key asynchronously"() {
+        given:
+            def jiraClient = globalJiraClient
+        when:
+            Optional<IssueSummary> issue = jiraClient.findByKeyAsync("DEMO-33").get()
+        then:
+            issue.isPresent()
+        and:
+            issue.get().key == "DEMO-33"
+    }
+
+    def "should load issues with JQL filters asynchronously"() {
+        given:
+            def jiraClient = globalJiraClient
+        when:
+            List<IssueSummary> issues = jiraClient.findByJQLAsync("project='DEMO'").get()
+        then:
+            issues.size() > 10
+    }
+
     def "should load the fix versions for an issue "() {
         given:
             def jiraClient = globalJiraClient
@@ -73,6 +115,17 @@ class WhenLoadingJIRAIssues extends Specification {
             issue.isEmpty()
     }
 
+    def "should load the same issues in parallel batches as in sequential batches"() {
+        given:
+            def jiraClient = new JerseyJiraClient(JiraConnectionSettings.getJIRAWebserviceURL(),JiraConnectionSettings.getJIRAUserName(),
+                                                  JiraConnectionSettings.getJIRAUserApiToken(), 5, "DEMO")
+        when:
+            List<IssueSummary> parallelIssues = jiraClient.findByJQL("project='DEMO' order by key", LoadingStrategy.LOAD_IN_PARALLEL_BATCHES)
+            List<IssueSummary> sequentialIssues = jiraClient.findByJQL("project='DEMO' order by key", LoadingStrategy.LOAD_IN_BATCHES)
+        then:
+            parallelIssues*.key == sequentialIssues*.key
+    }
+
     def "should not freak out if a JQL count doesn't return any issues"() {
         given:
             def jiraClient = globalJiraClient
@@ -82,5 +135,32 @@ class WhenLoadingJIRAIssues extends Specification {
             total == 0
     }
 
+    def "should reuse a recent count for the same query"() {
+        given:
+            def jiraClient = globalJiraClient
+        when:
+            def firstCount = jiraClient.findCountByJQL("project='DEMO'")
+            def secondCount = jiraClient.findCountByJQL("project='DEMO'")
+        then:
+            firstCount > 10
+            secondCount == firstCount
+    }
+
+    def "should load the status, comments and transitions of an issue in one go"() {
+        given:
+            def jiraClient = globalJiraClient
+        when:
+            def context = jiraClient.loadUpdateContext("DEMO-2").get()
+        then:
+            context.status == jiraClient.loadByKey("DEMO-2", FieldSet.STATUS).get().status
+            context.comments*.body == jiraClient.getComments("DEMO-2")*.body
+            context.transitions*.name == jiraClient.getAvailableTransitions("DEMO-2")*.name
+    }
+
+    def "should not find an update context for an unknown issue"() {
+        expect:
+            !globalJiraClient.loadUpdateContext("DEMO-DOES-NOT-EXIST").isPresent()
+    }
+
     InputStream streamed(String source) { new ByteArrayInputStream(source.bytes) }
 }
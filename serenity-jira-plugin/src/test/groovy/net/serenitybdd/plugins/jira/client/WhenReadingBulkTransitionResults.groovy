@@ -0,0 +1,37 @@
+package net.serenitybdd.plugins.jira.client
+
+import com.google.gson.JsonParser
+import spock.lang.Specification
+
+class WhenReadingBulkTransitionResults extends Specification {
+
+    def jiraClient = new JerseyJiraClient("http://jira.acme.com", "bruce", "batm0bile", "DEMO")
+
+    def "should report no issues when the task completed without failures"() {
+        expect:
+            jiraClient.issuesNotTransitionedBy(task('{"status":"COMPLETE","failedAccessibleIssues":{}}'), ["DEMO-1", "DEMO-2"]).isEmpty()
+    }
+
+    def "should report the issues that JIRA could not transition"() {
+        expect:
+            jiraClient.issuesNotTransitionedBy(task('{"status":"COMPLETE","failedAccessibleIssues":{"demo-2":["Field required"]}}'),
+                                               ["DEMO-1", "DEMO-2"]) == ["DEMO-2"] as Set
+    }
+
+    def "should report every issue when a failed issue cannot be matched to a requested key"() {
+        expect:
+            jiraClient.issuesNotTransitionedBy(task('{"status":"COMPLETE","failedAccessibleIssues":{"10002":["Field required"]}}'),
+                                               ["DEMO-1", "DEMO-2"]) == ["DEMO-1", "DEMO-2"] as Set
+    }
+
+    def "should report every issue when the task did not complete"() {
+        expect:
+            jiraClient.issuesNotTransitionedBy(task('{"status":"' + status + '"}'), ["DEMO-1", "DEMO-2"]) == ["DEMO-1", "DEMO-2"] as Set
+        where:
+            status << ["RUNNING", "FAILED", "CANCELLED", "DEAD"]
+    }
+
+    private static task(String json) {
+        new JsonParser().parse(json).getAsJsonObject()
+    }
+}
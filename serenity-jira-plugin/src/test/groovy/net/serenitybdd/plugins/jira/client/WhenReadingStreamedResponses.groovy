@@ -0,0 +1,55 @@
+package net.serenitybdd.plugins.jira.client
+
+import spock.lang.Specification
+
+class WhenReadingStreamedResponses extends Specification {
+
+    def searchResults = """
+        {"expand":"names,schema","startAt":50,"maxResults":2,"total":120,
+         "issues":[{"id":"10001","key":"DEMO-1","fields":{"summary":"First issue"}},
+                   {"id":"10002","key":"DEMO-2","fields":{"summary":"Second issue","labels":["a","b"]}}]}
+    """
+
+    def "should pass each entry to the handler in order"() {
+        given:
+            def keys = []
+        when:
+            StreamingResponseReader.forEntriesIn("issues").read(streamOf(searchResults), { keys << it.get("key").asString })
+        then:
+            keys == ["DEMO-1", "DEMO-2"]
+    }
+
+    def "should read the paging information"() {
+        when:
+            def page = StreamingResponseReader.forEntriesIn("issues").read(streamOf(searchResults), {})
+        then:
+            page.startAt == 50
+            page.maxResults == 2
+            page.total == 120
+            page.entryCount == 2
+    }
+
+    def "should read nothing from a response with no entries"() {
+        given:
+            def entries = []
+        when:
+            def page = StreamingResponseReader.forEntriesIn("issues")
+                    .read(streamOf('{"errorMessages":["The value \'XYZ\' does not exist for the field \'project\'."],"errors":{}}'),
+                          { entries << it })
+        then:
+            entries.isEmpty()
+            page.entryCount == 0
+            page.total == 0
+    }
+
+    def "should read a complete JSON document"() {
+        when:
+            def json = StreamingResponseReader.readJson(streamOf('[{"id":"customfield_10001","name":"Epic Link"}]'))
+        then:
+            json.asJsonArray.get(0).asJsonObject.get("name").asString == "Epic Link"
+    }
+
+    private static InputStream streamOf(String json) {
+        new ByteArrayInputStream(json.getBytes("UTF-8"))
+    }
+}
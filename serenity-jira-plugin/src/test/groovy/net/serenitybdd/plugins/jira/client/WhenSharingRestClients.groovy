@@ -0,0 +1,40 @@
+package net.serenitybdd.plugins.jira.client
+
+import spock.lang.Specification
+
+class WhenSharingRestClients extends Specification {
+
+    def cleanup() {
+        RestClientPool.shutdown()
+    }
+
+    def "should reuse the same client for the same JIRA instance and user"() {
+        when:
+            def client = RestClientPool.clientFor("http://jira.acme.com", "bruce", "batm0bile")
+        then:
+            RestClientPool.clientFor("http://jira.acme.com", "bruce", "batm0bile").is(client)
+    }
+
+    def "should use a separate client for a different user"() {
+        when:
+            def client = RestClientPool.clientFor("http://jira.acme.com", "bruce", "batm0bile")
+        then:
+            !RestClientPool.clientFor("http://jira.acme.com", "robin", "batcave").is(client)
+    }
+
+    def "should use a separate client when the password changes"() {
+        when:
+            def client = RestClientPool.clientFor("http://jira.acme.com", "bruce", "batm0bile")
+        then:
+            !RestClientPool.clientFor("http://jira.acme.com", "bruce", "batw1ng").is(client)
+    }
+
+    def "should create a new client after the pool has been shut down"() {
+        given:
+            def client = RestClientPool.clientFor("http://jira.acme.com", "bruce", "batm0bile")
+        when:
+            RestClientPool.shutdown()
+        then:
+            !RestClientPool.clientFor("http://jira.acme.com", "bruce", "batm0bile").is(client)
+    }
+}
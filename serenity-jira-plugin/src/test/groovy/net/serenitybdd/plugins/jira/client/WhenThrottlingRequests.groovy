@@ -0,0 +1,116 @@
+package net.serenitybdd.plugins.jira.client
+
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+import java.time.ZonedDateTime
+import java.time.format.DateTimeFormatter
+import java.util.concurrent.TimeUnit
+
+class WhenThrottlingRequests extends Specification {
+
+    def "should halve the request rate when JIRA pushes back"() {
+        given:
+            def throttle = new RequestThrottle(20, 5)
+        when:
+            throttle.recordResponse(429)
+        then:
+            throttle.rate == 10
+        when:
+            throttle.recordResponse(503)
+        then:
+            throttle.rate == 5
+    }
+
+    def "should gradually recover the configured request rate"() {
+        given:
+            def throttle = new RequestThrottle(2, 5)
+            throttle.recordResponse(429)
+        when:
+            throttle.recordResponse(200)
+        then:
+            Math.abs(throttle.rate - 1.5) < 0.001
+        when:
+            3.times { throttle.recordResponse(200) }
+        then:
+            throttle.rate == 2
+    }
+
+    def "should only pace requests when a rate is configured"() {
+        given:
+            def environmentVariables = new MockEnvironmentVariables()
+        expect:
+            RequestThrottle.configuredIn(environmentVariables).rate == Double.POSITIVE_INFINITY
+        when:
+            environmentVariables.setProperty(RequestThrottle.JIRA_REQUESTS_PER_SECOND, "5")
+        then:
+            RequestThrottle.configuredIn(environmentVariables).rate == 5
+    }
+
+    def "should still retry throttled requests when they are not paced"() {
+        given:
+            def throttle = new RequestThrottle(3)
+        when:
+            throttle.recordResponse(429)
+        then:
+            throttle.rate == Double.POSITIVE_INFINITY
+            throttle.shouldRetry(429, 0)
+    }
+
+    def "should only retry throttled requests, a limited number of times"() {
+        given:
+            def throttle = new RequestThrottle(20, 3)
+        expect:
+            throttle.shouldRetry(status, attempt) == shouldRetry
+        where:
+            status | attempt | shouldRetry
+            429    | 0       | true
+            503    | 2       | true
+            429    | 3       | false
+            500    | 0       | false
+            200    | 0       | false
+    }
+
+    def "should read Retry-After as a number of seconds or as a date"() {
+        expect:
+            RequestThrottle.retryAfterInMillis("30") == 30000
+            RequestThrottle.retryAfterInMillis(null) == 0
+            RequestThrottle.retryAfterInMillis("not a date") == 0
+        and:
+            def inAMinute = ZonedDateTime.now().plusMinutes(1).format(DateTimeFormatter.RFC_1123_DATE_TIME)
+            def delay = RequestThrottle.retryAfterInMillis(inAMinute)
+            delay >= 50000 && delay <= 60000
+    }
+
+    def "should wait at least as long as JIRA asks"() {
+        given:
+            def throttle = new RequestThrottle(20, 5)
+        expect:
+            throttle.retryDelayInMillis(0, "10") == 10000
+    }
+
+    def "should wait for an asynchronous retry without blocking the caller"() {
+        given:
+            def throttle = new RequestThrottle(20, 5)
+        when:
+            def delayElapsed = throttle.afterRetryDelay(0, "1")
+        then:
+            !delayElapsed.isDone()
+        and:
+            delayElapsed.get(5, TimeUnit.SECONDS) == null
+    }
+
+    def "should back off exponentially with jitter"() {
+        given:
+            def throttle = new RequestThrottle(20, 5)
+        expect:
+            def delay = throttle.retryDelayInMillis(attempt, null)
+            delay >= minimumDelay && delay <= maximumDelay
+        where:
+            attempt | minimumDelay | maximumDelay
+            0       | 250          | 500
+            1       | 500          | 1000
+            3       | 2000         | 4000
+            20      | 30000        | 60000
+    }
+}
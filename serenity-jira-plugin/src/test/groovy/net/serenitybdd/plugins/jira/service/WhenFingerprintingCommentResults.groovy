@@ -0,0 +1,105 @@
+package net.serenitybdd.plugins.jira.service
+
+import net.serenitybdd.plugins.jira.model.NamedTestResult
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.COMMENT_FINGERPRINT_MAX_AGE_DAYS
+import static net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions.JIRA_CACHE_DIRECTORY
+import static net.thucydides.core.model.TestResult.FAILURE
+import static net.thucydides.core.model.TestResult.SUCCESS
+
+class WhenFingerprintingCommentResults extends Specification {
+
+    def cacheDirectory = Files.createTempDirectory("jira-comments")
+    def indexFile = cacheDirectory.resolve("comments.json")
+    def oneDay = TimeUnit.DAYS.toMillis(1)
+
+    def cleanup() {
+        cacheDirectory.toFile().deleteDir()
+    }
+
+    def "should not depend on the order of the test results"() {
+        expect:
+            CommentFingerprints.fingerprintOf([passing("Test 1"), failing("Test 2")]) ==
+                    CommentFingerprints.fingerprintOf([failing("Test 2"), passing("Test 1")])
+    }
+
+    def "should change when a test result changes"() {
+        expect:
+            CommentFingerprints.fingerprintOf([passing("Test 1"), passing("Test 2")]) !=
+                    CommentFingerprints.fingerprintOf([passing("Test 1"), failing("Test 2")])
+    }
+
+    def "should keep the last result of a test that appears more than once"() {
+        expect:
+            CommentFingerprints.fingerprintOf([failing("Test 1"), passing("Test 1")]) ==
+                    CommentFingerprints.fingerprintOf([passing("Test 1")])
+    }
+
+    def "should know the result written with the same test results"() {
+        given:
+            def fingerprints = new CommentFingerprints(indexFile, oneDay)
+            def fingerprint = CommentFingerprints.fingerprintOf([failing("Test 1")])
+        when:
+            fingerprints.record("DEMO-1", fingerprint, FAILURE)
+        then:
+            fingerprints.resultWrittenFor("DEMO-1", fingerprint).get() == FAILURE
+            !fingerprints.resultWrittenFor("DEMO-1", CommentFingerprints.fingerprintOf([passing("Test 1")])).isPresent()
+            !fingerprints.resultWrittenFor("DEMO-2", fingerprint).isPresent()
+    }
+
+    def "should forget fingerprints once they are too old"() {
+        given:
+            def fingerprints = new CommentFingerprints(indexFile, 0)
+            def fingerprint = CommentFingerprints.fingerprintOf([passing("Test 1")])
+        when:
+            fingerprints.record("DEMO-1", fingerprint, SUCCESS)
+        then:
+            !fingerprints.resultWrittenFor("DEMO-1", fingerprint).isPresent()
+    }
+
+    def "should remember fingerprints between runs"() {
+        given:
+            def fingerprint = CommentFingerprints.fingerprintOf([passing("Test 1")])
+            def fingerprints = new CommentFingerprints(indexFile, oneDay)
+            fingerprints.record("DEMO-1", fingerprint, SUCCESS)
+        when:
+            fingerprints.save()
+        then:
+            new CommentFingerprints(indexFile, oneDay).load().resultWrittenFor("DEMO-1", fingerprint).get() == SUCCESS
+    }
+
+    def "should keep a separate index for each cache directory and maximum age"() {
+        given:
+            def environmentVariables = new MockEnvironmentVariables()
+            environmentVariables.setProperty(JIRA_CACHE_DIRECTORY, cacheDirectory.toString())
+            def fingerprints = CommentFingerprints.forInstance("http://jira.acme.com", environmentVariables)
+        when:
+            environmentVariables.setProperty(property, value)
+        then:
+            !CommentFingerprints.forInstance("http://jira.acme.com", environmentVariables).is(fingerprints)
+        where:
+            property                          | value
+            JIRA_CACHE_DIRECTORY              | Files.createTempDirectory("other-jira-comments").toString()
+            COMMENT_FINGERPRINT_MAX_AGE_DAYS  | "1"
+    }
+
+    def "should ignore an unreadable index"() {
+        given:
+            indexFile.toFile().text = "not json {"
+        expect:
+            !new CommentFingerprints(indexFile, oneDay).load().resultWrittenFor("DEMO-1", "anything").isPresent()
+    }
+
+    private static NamedTestResult passing(String testName) {
+        new NamedTestResult(testName, SUCCESS)
+    }
+
+    private static NamedTestResult failing(String testName) {
+        new NamedTestResult(testName, FAILURE)
+    }
+}
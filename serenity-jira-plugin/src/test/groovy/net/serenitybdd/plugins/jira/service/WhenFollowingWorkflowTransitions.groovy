@@ -0,0 +1,73 @@
+package net.serenitybdd.plugins.jira.service
+
+import net.serenitybdd.plugins.jira.domain.IssueTransition
+import net.serenitybdd.plugins.jira.domain.IssueUpdateContext
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+class WhenFollowingWorkflowTransitions extends Specification {
+
+    def cacheDirectory = Files.createTempDirectory("jira-transitions")
+    def cacheFile = cacheDirectory.resolve("transitions.json")
+    def oneDay = TimeUnit.DAYS.toMillis(1)
+
+    def stopProgress = new IssueTransition("301", "Stop Progress", "Open")
+    def resolveIssue = new IssueTransition("5", "Resolve Issue", "Resolved")
+
+    def cleanup() {
+        cacheDirectory.toFile().deleteDir()
+    }
+
+    def "should read the target status of a transition"() {
+        when:
+            def transition = IssueTransition.fromJsonString('{"id":"5","name":"Resolve Issue","to":{"id":"5","name":"Resolved"}}')
+        then:
+            transition.targetStatus == "Resolved"
+        and:
+            IssueTransition.fromJsonString('{"id":"5","name":"Resolve Issue"}').targetStatus == null
+    }
+
+    def "should know the transitions available after a transition once they have been seen"() {
+        given:
+            def graph = new TransitionGraph(null, oneDay)
+            def inProgress = context("DEMO-1", "In Progress", [stopProgress])
+            graph.record(inProgress)
+        expect:
+            !graph.afterTransition(inProgress, stopProgress).isPresent()
+        when:
+            graph.record(context("DEMO-2", "Open", [resolveIssue]))
+        then:
+            def movedIssue = graph.afterTransition(inProgress, stopProgress).get()
+            movedIssue.key == "DEMO-1"
+            movedIssue.status == "Open"
+            movedIssue.getTransitionNamed("resolve issue").get().id == "5"
+    }
+
+    def "should keep the transitions of each project and issue type apart"() {
+        given:
+            def graph = new TransitionGraph(null, oneDay)
+            graph.record(context("DEMO-2", "Open", [resolveIssue]))
+        expect:
+            graph.transitionsFrom("DEMO", "Bug", "Open").isPresent()
+            !graph.transitionsFrom("DEMO", "Story", "Open").isPresent()
+            !graph.transitionsFrom("OTHER", "Bug", "Open").isPresent()
+    }
+
+    def "should reload the transition graph in a new build"() {
+        given:
+            def graph = new TransitionGraph(cacheFile, oneDay)
+            graph.record(context("DEMO-2", "Open", [resolveIssue]))
+        when:
+            graph.save()
+        then:
+            new TransitionGraph(cacheFile, oneDay).load().transitionsFrom("DEMO", "Bug", "Open").get()*.id == ["5"]
+        and:
+            !new TransitionGraph(cacheFile, 0).load().transitionsFrom("DEMO", "Bug", "Open").isPresent()
+    }
+
+    private static IssueUpdateContext context(String key, String status, List<IssueTransition> transitions) {
+        new IssueUpdateContext(key, "Bug", status, [], [:], transitions)
+    }
+}
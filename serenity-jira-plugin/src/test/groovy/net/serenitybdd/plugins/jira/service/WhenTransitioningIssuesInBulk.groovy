@@ -0,0 +1,65 @@
+package net.serenitybdd.plugins.jira.service
+
+import net.serenitybdd.plugins.jira.JiraPluginConfigurationOptions
+import net.serenitybdd.plugins.jira.client.JerseyJiraClient
+import net.serenitybdd.plugins.jira.domain.IssueTransition
+import net.serenitybdd.plugins.jira.domain.IssueUpdateContext
+import net.thucydides.core.util.MockEnvironmentVariables
+import org.slf4j.LoggerFactory
+import spock.lang.Specification
+
+class WhenTransitioningIssuesInBulk extends Specification {
+
+    def resolveIssue = new IssueTransition("5", "Resolve Issue", "Resolved")
+
+    def jiraClient = Mock(JerseyJiraClient)
+    def jiraConnection = Stub(JIRAConnection) {
+        getRestJiraClient() >> jiraClient
+        getJiraWebserviceUrl() >> "http://jira.acme.com"
+    }
+    def environmentVariables = new MockEnvironmentVariables()
+
+    def tracker = new JiraIssueTracker(LoggerFactory.getLogger(JiraIssueTracker), jiraConnection, environmentVariables)
+
+    def setup() {
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.BULK_JIRA_TRANSITIONS, "true")
+    }
+
+    def "should move every issue in a single bulk request"() {
+        when:
+            tracker.doTransitions(["DEMO-1": ["Resolve Issue"], "DEMO-2": ["Resolve Issue"]])
+        then:
+            1 * jiraClient.loadUpdateContexts(_) >> ["DEMO-1": open("DEMO-1"), "DEMO-2": open("DEMO-2")]
+            1 * jiraClient.progressWorkflowTransitions({ it.keySet() == ["5"] as Set && it["5"] as Set == ["DEMO-1", "DEMO-2"] as Set }, _) >> ([] as Set)
+            0 * jiraClient.progressWorkflowTransition(_, _)
+    }
+
+    def "should transition the issues that JIRA rejected one at a time, after reading them again"() {
+        when:
+            tracker.doTransitions(["DEMO-1": ["Resolve Issue"], "DEMO-2": ["Resolve Issue"]])
+        then:
+            1 * jiraClient.loadUpdateContexts(_) >> ["DEMO-1": open("DEMO-1"), "DEMO-2": open("DEMO-2")]
+            1 * jiraClient.progressWorkflowTransitions(_, _) >> (["DEMO-2"] as Set)
+        then:
+            1 * jiraClient.loadUpdateContext("DEMO-2") >> Optional.of(open("DEMO-2"))
+            1 * jiraClient.progressWorkflowTransition("DEMO-2", "5")
+            0 * jiraClient.progressWorkflowTransition("DEMO-1", _)
+    }
+
+    def "should transition every issue one at a time when the bulk task fails or times out"() {
+        when:
+            tracker.doTransitions(["DEMO-1": ["Resolve Issue"], "DEMO-2": ["Resolve Issue"]])
+        then:
+            1 * jiraClient.loadUpdateContexts(_) >> ["DEMO-1": open("DEMO-1"), "DEMO-2": open("DEMO-2")]
+            1 * jiraClient.progressWorkflowTransitions(_, _) >> (["DEMO-1", "DEMO-2"] as Set)
+        then:
+            1 * jiraClient.loadUpdateContext("DEMO-1") >> Optional.of(open("DEMO-1"))
+            1 * jiraClient.loadUpdateContext("DEMO-2") >> Optional.of(open("DEMO-2"))
+            1 * jiraClient.progressWorkflowTransition("DEMO-1", "5")
+            1 * jiraClient.progressWorkflowTransition("DEMO-2", "5")
+    }
+
+    private IssueUpdateContext open(String key) {
+        new IssueUpdateContext(key, "Bug", "Open", [], [:], [resolveIssue])
+    }
+}
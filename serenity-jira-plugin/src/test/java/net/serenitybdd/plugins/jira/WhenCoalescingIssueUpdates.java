@@ -0,0 +1,76 @@
+package net.serenitybdd.plugins.jira;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WhenCoalescingIssueUpdates {
+
+    private long now;
+    private Map<String, String> issueStates = new HashMap<>();
+    private List<Set<String>> updates = new ArrayList<>();
+    private IssueUpdateCoalescer coalescer;
+
+    @Before
+    public void setupCoalescer() {
+        coalescer = new IssueUpdateCoalescer(1000, issueStates::get, updates::add, () -> now);
+        issueStates.put("ISSUE-1", "SUCCESS");
+        issueStates.put("ISSUE-2", "SUCCESS");
+    }
+
+    @Test
+    public void should_write_new_issues_straight_away() {
+        coalescer.issuesUpdated(ImmutableSet.of("ISSUE-1", "ISSUE-2"));
+
+        assertThat(updates).isEqualTo(Arrays.asList(ImmutableSet.of("ISSUE-1", "ISSUE-2")));
+    }
+
+    @Test
+    public void should_write_an_issue_at_most_once_per_window() {
+        coalescer.issuesUpdated(ImmutableSet.of("ISSUE-1"));
+        issueStates.put("ISSUE-1", "FAILURE");
+
+        now = 500;
+        coalescer.issuesUpdated(ImmutableSet.of("ISSUE-1"));
+
+        assertThat(updates).hasSize(1);
+        assertThat(coalescer.getPendingIssues()).containsExactly("ISSUE-1");
+
+        now = 1000;
+        coalescer.issuesUpdated(ImmutableSet.of("ISSUE-2"));
+
+        assertThat(updates).isEqualTo(Arrays.asList(ImmutableSet.of("ISSUE-1"), ImmutableSet.of("ISSUE-1", "ISSUE-2")));
+    }
+
+    @Test
+    public void should_skip_issues_whose_state_has_not_changed() {
+        coalescer.issuesUpdated(ImmutableSet.of("ISSUE-1"));
+
+        now = 2000;
+        coalescer.issuesUpdated(ImmutableSet.of("ISSUE-1"));
+
+        assertThat(updates).hasSize(1);
+        assertThat(coalescer.getPendingIssues()).isEmpty();
+    }
+
+    @Test
+    public void should_write_pending_issues_when_flushed() {
+        coalescer.issuesUpdated(ImmutableSet.of("ISSUE-1"));
+        issueStates.put("ISSUE-1", "FAILURE");
+        coalescer.issuesUpdated(ImmutableSet.of("ISSUE-1"));
+
+        coalescer.flush();
+
+        assertThat(updates).isEqualTo(Arrays.asList(ImmutableSet.of("ISSUE-1"), ImmutableSet.of("ISSUE-1")));
+        assertThat(coalescer.getPendingIssues()).isEmpty();
+    }
+}
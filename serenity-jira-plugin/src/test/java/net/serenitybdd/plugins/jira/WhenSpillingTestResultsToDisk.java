@@ -0,0 +1,67 @@
+package net.serenitybdd.plugins.jira;
+
+import net.thucydides.core.model.TestResult;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WhenSpillingTestResultsToDisk {
+
+    @Test
+    public void should_read_spilled_outcomes_back_in_the_order_they_were_recorded() {
+        TestResultTally<OutcomeRecord> resultTally = new TestResultTally<>(OutcomeRecord::getTestResult, OutcomeRecord.CODEC);
+        resultTally.setMemoryThreshold(1000);
+
+        for (int i = 0; i < 100; i++) {
+            resultTally.recordResult("ISSUE-" + (i % 3), new OutcomeRecord("Test " + i, TestResult.SUCCESS, "report"));
+        }
+        resultTally.recordResult("ISSUE-1", new OutcomeRecord("Broken test", TestResult.FAILURE, null));
+
+        List<OutcomeRecord> outcomes = resultTally.getTestOutcomesForIssue("ISSUE-1");
+        assertThat(outcomes).hasSize(34);
+        assertThat(outcomes.get(0).getTitle()).isEqualTo("Test 1");
+        assertThat(outcomes.get(1).getTitle()).isEqualTo("Test 4");
+        assertThat(outcomes.get(0).getReportName()).isEqualTo("report");
+        assertThat(outcomes.get(33).getTitle()).isEqualTo("Broken test");
+        assertThat(outcomes.get(33).getReportName()).isNull();
+        assertThat(resultTally.getResultForIssue("ISSUE-1")).isEqualTo(TestResult.FAILURE);
+        assertThat(resultTally.getResultForIssue("ISSUE-2")).isEqualTo(TestResult.SUCCESS);
+    }
+
+    @Test
+    public void should_delete_the_spill_file_when_the_tally_is_closed() {
+        SpillFile spillFile = SpillFile.createTemporary("serenity-jira-tally");
+        spillFile.append(new byte[]{1, 2, 3});
+
+        spillFile.close();
+
+        assertThat(spillFile.getPath().toFile()).doesNotExist();
+    }
+
+    @Test
+    public void should_start_afresh_once_closed() {
+        TestResultTally<OutcomeRecord> resultTally = new TestResultTally<>(OutcomeRecord::getTestResult, OutcomeRecord.CODEC);
+        resultTally.setMemoryThreshold(100);
+        for (int i = 0; i < 10; i++) {
+            resultTally.recordResult("ISSUE-1", new OutcomeRecord("Test " + i, TestResult.FAILURE, "report"));
+        }
+
+        resultTally.close();
+        resultTally.recordResult("ISSUE-1", new OutcomeRecord("Test", TestResult.SUCCESS, "report"));
+
+        assertThat(resultTally.getTestOutcomesForIssue("ISSUE-1")).hasSize(1);
+        assertThat(resultTally.getResultForIssue("ISSUE-1")).isEqualTo(TestResult.SUCCESS);
+    }
+
+    @Test
+    public void should_keep_outcomes_in_memory_below_the_threshold() {
+        TestResultTally<OutcomeRecord> resultTally = new TestResultTally<>(OutcomeRecord::getTestResult, OutcomeRecord.CODEC);
+
+        OutcomeRecord outcome = new OutcomeRecord("Test", TestResult.PENDING, "report");
+        resultTally.recordResult("ISSUE-1", outcome);
+
+        assertThat(resultTally.getTestOutcomesForIssue("ISSUE-1")).containsExactly(outcome);
+    }
+}
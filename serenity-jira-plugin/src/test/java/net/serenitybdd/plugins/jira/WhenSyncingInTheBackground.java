@@ -0,0 +1,53 @@
+package net.serenitybdd.plugins.jira;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WhenSyncingInTheBackground {
+
+    @Test
+    public void should_run_every_queued_update_before_the_run_finishes() {
+        BackgroundSync backgroundSync = new BackgroundSync(2, 3);
+        AtomicInteger updates = new AtomicInteger();
+
+        for (int i = 0; i < 20; i++) {
+            backgroundSync.submit("count updates", updates::incrementAndGet);
+        }
+
+        assertThat(backgroundSync.drain(10)).isTrue();
+        assertThat(updates.get()).isEqualTo(20);
+    }
+
+    @Test
+    public void should_carry_on_after_a_failed_update() {
+        BackgroundSync backgroundSync = new BackgroundSync(1, 1);
+        AtomicInteger updates = new AtomicInteger();
+
+        backgroundSync.submit("fail", () -> { throw new IllegalStateException("JIRA is down"); });
+        backgroundSync.submit("count updates", updates::incrementAndGet);
+
+        assertThat(backgroundSync.drain(10)).isTrue();
+        assertThat(updates.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_give_up_waiting_after_the_deadline() throws InterruptedException {
+        BackgroundSync backgroundSync = new BackgroundSync(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        backgroundSync.submit("wait", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThat(backgroundSync.drain(0)).isFalse();
+        release.countDown();
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
@@ -78,4 +80,17 @@ public class WhenTrackingTestResultsForAnIssue {
         assertThat(resultTally.getTestOutcomesForIssue("ISSUE-1")).contains(successfulTestOutcome, failingTestOutcome);
     }
 
+    @Test
+    public void should_record_results_from_several_threads_at_once() {
+        TestResultTally<TestResult> resultTally = new TestResultTally<>(result -> result);
+
+        IntStream.range(0, 1000).parallel().forEach(
+                i -> resultTally.recordResult("ISSUE-1", (i == 500) ? TestResult.FAILURE : TestResult.SUCCESS)
+        );
+
+        assertThat(resultTally.getOutcomeCountForIssue("ISSUE-1")).isEqualTo(1000);
+        assertThat(resultTally.getTestOutcomesForIssue("ISSUE-1")).hasSize(1000);
+        assertThat(resultTally.getResultForIssue("ISSUE-1")).isEqualTo(TestResult.FAILURE);
+    }
+
 }
@@ -17,16 +17,23 @@ import net.thucydides.core.util.MockEnvironmentVariables;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
@@ -252,6 +259,77 @@ public class WhenUpdatingCommentsInJIRA {
         verify(issueTracker).updateComment(eq("MYPROJECT-123"),any(IssueComment.class));
     }
 
+    @Test
+    public void should_write_each_issue_once_per_window_in_coalesced_mode() {
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.COALESCE_JIRA_UPDATES, "true");
+        JiraStepListener.resetCoalescedUpdates();
+        try {
+            JiraStepListener listener = new JiraStepListener(issueTracker, environmentVariables, workflowLoader, zephyrClient);
+
+            listener.testSuiteStarted(SampleTestSuite.class);
+            listener.testStarted("issue_123_should_be_fixed_now");
+            listener.testFinished(newTestOutcome("issue_123_should_be_fixed_now", TestResult.SUCCESS));
+            listener.testSuiteFinished();
+
+            listener.testSuiteStarted(SampleTestSuite.class);
+            listener.testStarted("issue_123_should_be_fixed_now");
+            listener.testFinished(newTestOutcome("issue_123_should_be_fixed_now", TestResult.FAILURE));
+            listener.testSuiteFinished();
+
+            verify(issueTracker, times(1)).addComment(eq("MYPROJECT-123"), anyString());
+
+            listener.testRunFinished();
+
+            verify(issueTracker, times(2)).addComment(eq("MYPROJECT-123"), anyString());
+        } finally {
+            JiraStepListener.resetCoalescedUpdates();
+        }
+    }
+
+    @Test
+    public void should_not_read_or_write_comments_again_when_the_test_results_have_not_changed() throws Exception {
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.IDEMPOTENT_COMMENTS, "true");
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.JIRA_CACHE_DIRECTORY,
+                Files.createTempDirectory("jira-cache").toString());
+
+        for (int run = 0; run < 2; run++) {
+            JiraStepListener listener = new JiraStepListener(issueTracker, environmentVariables, workflowLoader, zephyrClient);
+            listener.testSuiteStarted(SampleTestSuite.class);
+            listener.testStarted("issue_123_should_be_fixed_now");
+            listener.testFinished(newTestOutcome("issue_123_should_be_fixed_now", TestResult.SUCCESS));
+            listener.testSuiteFinished();
+        }
+
+        verify(issueTracker, times(1)).getCommentsFor("MYPROJECT-123");
+        verify(issueTracker, times(1)).addComment(eq("MYPROJECT-123"), anyString());
+    }
+
+    @Test
+    public void should_write_a_comment_again_when_the_last_batch_update_failed() throws Exception {
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.BATCH_JIRA_UPDATES, "true");
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.IDEMPOTENT_COMMENTS, "true");
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.JIRA_CACHE_DIRECTORY,
+                Files.createTempDirectory("jira-cache").toString());
+        when(issueTracker.getCommentsFor(anyCollection()))
+                .thenReturn(Collections.singletonMap("MYPROJECT-123", Collections.<IssueComment>emptyList()));
+        when(issueTracker.applyComments(anyMap()))
+                .thenReturn(Collections.singleton("MYPROJECT-123"))
+                .thenReturn(Collections.<String>emptySet());
+
+        for (int run = 0; run < 3; run++) {
+            JiraStepListener listener = new JiraStepListener(issueTracker, environmentVariables, workflowLoader, zephyrClient);
+            listener.testSuiteStarted(SampleTestSuite.class);
+            listener.testStarted("issue_123_should_be_fixed_now");
+            listener.testFinished(newTestOutcome("issue_123_should_be_fixed_now", TestResult.SUCCESS));
+            listener.testSuiteFinished();
+        }
+
+        ArgumentCaptor<Map> comments = ArgumentCaptor.forClass(Map.class);
+        verify(issueTracker, atLeastOnce()).applyComments(comments.capture());
+        long commentsWritten = comments.getAllValues().stream().filter(issueComments -> !issueComments.isEmpty()).count();
+        assertThat(commentsWritten, is(2L));
+    }
+
 
     @Test
     public void should_not_update_status_if_issue_does_not_exist() {
@@ -346,4 +424,42 @@ public class WhenUpdatingCommentsInJIRA {
         verify(issueTracker).doTransition("MYPROJECT-123", "Reopen Issue");
     }
 
+    @Test
+    public void batch_updates_should_add_the_comments_of_all_the_issues_together() {
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.BATCH_JIRA_UPDATES, "true");
+        when(issueTracker.getCommentsFor(anyCollection()))
+                .thenReturn(Collections.singletonMap("MYPROJECT-123", Collections.<IssueComment>emptyList()));
+
+        JiraStepListener listener = new JiraStepListener(issueTracker, environmentVariables, workflowLoader, zephyrClient);
+        listener.testSuiteStarted(SampleTestSuite.class);
+        listener.testStarted("issue_123_should_be_fixed_now");
+        listener.testFinished(newTestOutcome("issue_123_should_be_fixed_now", TestResult.SUCCESS));
+        listener.testSuiteFinished();
+
+        ArgumentCaptor<Map> comments = ArgumentCaptor.forClass(Map.class);
+        verify(issueTracker).applyComments(comments.capture());
+        IssueComment newComment = (IssueComment) comments.getValue().get("MYPROJECT-123");
+        assertThat(newComment.getSelf(), is(nullValue()));
+        verify(issueTracker, never()).addComment(anyString(), anyString());
+    }
+
+    @Test
+    public void batch_updates_should_transition_all_the_issues_together() {
+        environmentVariables.setProperty(JiraPluginConfigurationOptions.BATCH_JIRA_UPDATES, "true");
+        when(issueTracker.getCommentsFor(anyCollection()))
+                .thenReturn(Collections.singletonMap("MYPROJECT-123", Collections.<IssueComment>emptyList()));
+        when(issueTracker.getStatuses(anyCollection())).thenReturn(Collections.singletonMap("MYPROJECT-123", "Open"));
+
+        JiraStepListener listener = new JiraStepListener(issueTracker, environmentVariables, workflowLoader, zephyrClient);
+        listener.testSuiteStarted(SampleTestSuite.class);
+        listener.testStarted("issue_123_should_be_fixed_now");
+        listener.testFinished(newTestOutcome("issue_123_should_be_fixed_now", TestResult.SUCCESS));
+        listener.testSuiteFinished();
+
+        ArgumentCaptor<Map> transitions = ArgumentCaptor.forClass(Map.class);
+        verify(issueTracker).doTransitions(transitions.capture());
+        assertThat((List<String>) transitions.getValue().get("MYPROJECT-123"), contains("Resolve Issue"));
+        verify(issueTracker, never()).doTransition(anyString(), anyString());
+    }
+
 }
@@ -0,0 +1,164 @@
+package net.serenitybdd.plugins.jira.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import net.thucydides.core.model.TestResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import static ch.lambdaj.Lambda.index;
+import static ch.lambdaj.Lambda.on;
+
+/**
+ * Compares reading, updating and writing a large Serenity comment with {@link TestResultComment} against the
+ * regex and lambdaj based reading and the copy-per-field updates it replaced. Both sides render with the same code.
+ * This is not a unit test: run the main method by hand, e.g. with 5000 test results and 200 rounds,
+ * {@code CommentCodecBenchmark 5000 200}. On one core with OpenJDK 1.8.0_392 this took around 2050 ms with the old
+ * code and 670 ms with the current codec.
+ */
+public class CommentCodecBenchmark {
+
+    private static final TestResult[] RESULTS = {TestResult.SUCCESS, TestResult.FAILURE, TestResult.PENDING, TestResult.ERROR};
+
+    public static void main(String[] args) {
+        int testCount = (args.length > 0) ? Integer.parseInt(args[0]) : 5000;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+
+        String commentText = commentWith(testCount);
+        List<NamedTestResult> newTestResults = ImmutableList.of(new NamedTestResult("Test 42", TestResult.FAILURE));
+
+        if (!LegacyComment.parse(commentText).summary().equals(current(commentText))) {
+            throw new IllegalStateException("The two implementations read the comment differently");
+        }
+        for (int warmUp = 0; warmUp < rounds; warmUp++) {
+            legacyUpdate(commentText, newTestResults);
+            currentUpdate(commentText, newTestResults);
+        }
+        System.out.printf("%d test results, %d rounds%n", testCount, rounds);
+        System.out.printf("legacy:  %6d ms%n", time(rounds, () -> legacyUpdate(commentText, newTestResults)));
+        System.out.printf("current: %6d ms%n", time(rounds, () -> currentUpdate(commentText, newTestResults)));
+    }
+
+    private static long time(int rounds, Runnable update) {
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            update.run();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static String commentWith(int testCount) {
+        List<NamedTestResult> testResults = new ArrayList<>();
+        for (int test = 0; test < testCount; test++) {
+            testResults.add(new NamedTestResult("Test " + test, RESULTS[test % RESULTS.length]));
+        }
+        return TestResultComment.comment(true)
+                .withResults(testResults)
+                .withReportUrl("http://my.server/myproject/serenity/my_test.html")
+                .withTestRun("2012-01-17_15-39-03")
+                .asText();
+    }
+
+    private static int currentUpdate(String commentText, List<NamedTestResult> newTestResults) {
+        return TestResultComment.fromText(commentText)
+                .withWikiRendering(true)
+                .withUpdatedTestResults(newTestResults)
+                .withUpdatedReportUrl("http://my.server/myproject/serenity/my_test.html")
+                .withUpdatedTestRunNumber("2012-01-17_15-39-04")
+                .asText().length();
+    }
+
+    private static int legacyUpdate(String commentText, List<NamedTestResult> newTestResults) {
+        LegacyComment comment = LegacyComment.parse(commentText);
+        Map<String, NamedTestResult> merged = Maps.newHashMap(comment.namedTestResults);
+        for (NamedTestResult testResult : newTestResults) {
+            merged.put(testResult.getTestName(), testResult);
+        }
+        SortedMap<String, NamedTestResult> sorted = LegacyComment.indexByTestName(new ArrayList<>(merged.values()));
+        return TestResultComment.comment(true)
+                .withTestRun("2012-01-17_15-39-04")
+                .withReportUrl("http://my.server/myproject/serenity/my_test.html")
+                .withNamedResults(new ArrayList<>(sorted.values()))
+                .asText().length();
+    }
+
+    private static String current(String commentText) {
+        TestResultComment comment = TestResultComment.fromText(commentText);
+        return summary(comment.getReportUrl(), comment.getTestRunNumber(), comment.getNamedTestResults());
+    }
+
+    private static String summary(String reportUrl, String testRunNumber, List<NamedTestResult> testResults) {
+        StringBuilder summary = new StringBuilder(reportUrl + "|" + testRunNumber);
+        for (NamedTestResult testResult : testResults) {
+            summary.append('|').append(testResult.getTestName()).append('=').append(testResult.getTestResult());
+        }
+        return summary.toString();
+    }
+
+    /**
+     * How comments used to be read: a regular expression split per line and per field, and a lambdaj index.
+     */
+    private static class LegacyComment {
+        private final String reportUrl;
+        private final String testRunNumber;
+        private final SortedMap<String, NamedTestResult> namedTestResults;
+
+        private LegacyComment(String commentText) {
+            List<String> commentLines = ImmutableList.copyOf(commentText.split("\\r?\\n"));
+            reportUrl = (commentLines.size() > 1) ? reportUrlIn(commentLines.get(1)) : null;
+            testRunNumber = (commentLines.size() > 2) ? textAfterColon(commentLines.get(2)) : null;
+            List<String> testResultLines = (commentLines.size() >= 3)
+                    ? commentLines.subList(3, commentLines.size()) : Collections.<String>emptyList();
+            List<NamedTestResult> testResults = new ArrayList<>();
+            for (String line : testResultLines) {
+                testResults.add(new NamedTestResult(stripInitialDash(textBeforeColon(line)), testResultIn(line)));
+            }
+            namedTestResults = indexByTestName(testResults);
+        }
+
+        static LegacyComment parse(String commentText) {
+            return new LegacyComment(commentText);
+        }
+
+        static SortedMap<String, NamedTestResult> indexByTestName(List<NamedTestResult> namedTestResults) {
+            Map<String, NamedTestResult> indexedTestResults = index(namedTestResults, on(NamedTestResult.class).getTestName());
+            SortedMap<String, NamedTestResult> sortedTestResults = Maps.newTreeMap();
+            sortedTestResults.putAll(indexedTestResults);
+            return sortedTestResults;
+        }
+
+        private static String reportUrlIn(String line) {
+            return line.contains("[") ? line.substring(line.indexOf("|") + 1, line.indexOf("]")) : textAfterColon(line);
+        }
+
+        private static TestResult testResultIn(String line) {
+            try {
+                return TestResult.valueOf(textAfterColon(line));
+            } catch (IllegalArgumentException e) {
+                return TestResult.UNDEFINED;
+            }
+        }
+
+        private static String stripInitialDash(String text) {
+            return text.trim().startsWith("-") ? text.trim().substring(2) : text.trim();
+        }
+
+        private static String textBeforeColon(String line) {
+            return line.split(":", 3)[0].trim();
+        }
+
+        private static String textAfterColon(String line) {
+            String[] tokens = line.split(":", 3);
+            return (tokens.length >= 2) ? line.split(":", 3)[1].trim() : null;
+        }
+
+        String summary() {
+            return CommentCodecBenchmark.summary(reportUrl, testRunNumber, new ArrayList<>(namedTestResults.values()));
+        }
+    }
+}
@@ -216,6 +216,27 @@ public class WhenFormattingJIRACommentUpdates {
         assertThat(testResults.get(2).getTestResult(), is(TestResult.SUCCESS));
     }
 
+    @Test
+    public void should_read_comments_with_windows_line_endings_and_repeated_tests() {
+
+        String commentText = "*Serenity BDD Automated Acceptance Tests*\r\n"
+                + "Tests run: 17 Jan 2012 03:39 PM - [full report|http://my.server/myproject/thucydides/my_test.html]\r\n"
+                + "Test Run: 2012-01-17_15-39-03\r\n"
+                + "  - Failing Test: FAILURE : (x)\r\n"
+                + "  - Failing Test: SUCCESS : (/)\r\n"
+                + "  - Unknown Test: BROKEN\r\n\r\n";
+
+        TestResultComment comment = TestResultComment.fromText(commentText);
+
+        assertThat(comment.getReportUrl(), is("http://my.server/myproject/thucydides/my_test.html"));
+        assertThat(comment.getTestRunNumber(), is("2012-01-17_15-39-03"));
+        List<NamedTestResult> testResults = comment.getNamedTestResults();
+        assertThat(testResults.size(), is(2));
+        assertThat(testResults.get(0).getTestResult(), is(TestResult.SUCCESS));
+        assertThat(testResults.get(1).getTestName(), is("Unknown Test"));
+        assertThat(testResults.get(1).getTestResult(), is(TestResult.UNDEFINED));
+    }
+
     @Test
     public void should_be_able_to_obtain_the_overall_test_result_from_tests_in_a_comment() {
 
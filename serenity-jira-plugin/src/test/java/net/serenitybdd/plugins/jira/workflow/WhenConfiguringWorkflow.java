@@ -10,6 +10,7 @@ import org.mockito.MockitoAnnotations;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
 
 public class WhenConfiguringWorkflow {
 
@@ -82,4 +83,34 @@ public class WhenConfiguringWorkflow {
 
     }
 
+    @Test
+    public void should_compile_each_workflow_configuration_only_once() {
+
+        String configuration = " when 'Open', {\n" +
+                "    'success' should: 'Resolve issue'\n" +
+                " }";
+
+        Workflow workflow = new Workflow("testflow", configuration, true);
+        Workflow sameWorkflow = new Workflow("testflow", configuration, true);
+
+        assertThat(sameWorkflow.getTransitions()).isSameAs(workflow.getTransitions());
+    }
+
+    @Test
+    public void should_be_able_to_configure_a_workflow_in_json() {
+
+        when(environmentVariables.getProperty(ClasspathWorkflowLoader.WORKFLOW_CONFIGURATION_PROPERTY))
+                .thenReturn("custom-workflow.json");
+        WorkflowLoader loader = new ClasspathWorkflowLoader("default-workflow.groovy", environmentVariables);
+
+        Workflow workflow = loader.load();
+
+        assertThat(workflow.getName()).isEqualTo("custom-workflow.json");
+        assertThat(workflow.getTransitions().forTestResult(TestResult.SUCCESS).whenIssueIs("In Progress"))
+                .containsExactly("Stop Progress", "Resolve Issue");
+        assertThat(workflow.getTransitions().forTestResult(TestResult.FAILURE).whenIssueIs("Pending Validation"))
+                .containsExactly("Reopen Issue");
+        assertThat(workflow.getTransitions().forTestResult(TestResult.FAILURE).whenIssueIs("Open")).isEmpty();
+    }
+
 }
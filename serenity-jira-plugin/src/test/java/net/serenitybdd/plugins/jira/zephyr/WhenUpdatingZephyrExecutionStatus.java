@@ -1,6 +1,9 @@
 package net.serenitybdd.plugins.jira.zephyr;
 
+import com.google.common.collect.ImmutableSet;
 import net.serenitybdd.plugins.jira.JiraStepListener;
+import net.serenitybdd.plugins.jira.OutcomeRecord;
+import net.serenitybdd.plugins.jira.TestResultTally;
 import net.serenitybdd.plugins.jira.client.JerseyJiraClient;
 import net.serenitybdd.plugins.jira.domain.IssueSummary;
 import net.serenitybdd.plugins.jira.domain.Project;
@@ -29,7 +32,13 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
@@ -171,6 +180,65 @@ public class WhenUpdatingZephyrExecutionStatus {
         verify(zephyrClient, never()).updateTestExecution(anyString(),any(ZephyrUpdater.Status.class), anyString());
     }
 
+    @Test
+    public void a_failing_zephyr_update_should_not_stop_the_updates_of_other_issues() throws IOException {
+        ZephyrUpdater zephyrUpdater = zephyrUpdaterForTestIssues();
+        when(zephyrClient.getListOfTestExecutions("1", "456", null, null)).thenReturn(executions("10"));
+        when(zephyrClient.getListOfTestExecutions("2", "456", null, null)).thenThrow(new IOException("Zephyr is down"));
+
+        zephyrUpdater.updateZephyrExecutionStatus(ImmutableSet.of("MYPROJECT-1", "MYPROJECT-2"), successfulTests("MYPROJECT-1", "MYPROJECT-2"));
+
+        verify(zephyrClient).updateTestExecution(eq("10"), eq(ZephyrUpdater.Status.PASS), anyString());
+    }
+
+    @Test
+    public void a_zephyr_update_that_hangs_should_not_hold_up_the_test_suite_past_the_timeout() throws IOException {
+        environmentVariables.setProperty(ZephyrUpdater.ZEPHYR_UPDATE_TIMEOUT, "1");
+        ZephyrUpdater zephyrUpdater = zephyrUpdaterForTestIssues();
+        CountDownLatch hungUpdate = new CountDownLatch(1);
+        when(zephyrClient.getListOfTestExecutions("1", "456", null, null)).thenReturn(executions("10"));
+        when(zephyrClient.getListOfTestExecutions("2", "456", null, null)).thenAnswer(invocation -> {
+            hungUpdate.await(10, TimeUnit.SECONDS);
+            return executions("20");
+        });
+
+        try {
+            long startTime = System.currentTimeMillis();
+            zephyrUpdater.updateZephyrExecutionStatus(ImmutableSet.of("MYPROJECT-1", "MYPROJECT-2"), successfulTests("MYPROJECT-1", "MYPROJECT-2"));
+
+            assertThat(System.currentTimeMillis() - startTime, lessThan(5000L));
+            verify(zephyrClient).updateTestExecution(eq("10"), eq(ZephyrUpdater.Status.PASS), anyString());
+            verify(zephyrClient, never()).updateTestExecution(eq("20"), any(ZephyrUpdater.Status.class), anyString());
+        } finally {
+            hungUpdate.countDown();
+            zephyrUpdater.shutdown();
+        }
+    }
+
+    private ZephyrUpdater zephyrUpdaterForTestIssues() {
+        environmentVariables.setProperty(ZephyrUpdater.IS_ZEPHYR_ACTIVE, "true");
+        JIRAConnection conn = Mockito.mock(JIRAConnection.class);
+        JerseyJiraClient jiraClient = Mockito.mock(JerseyJiraClient.class);
+        when(issueTracker.getJiraConnection()).thenReturn(conn);
+        when(conn.getRestJiraClient()).thenReturn(jiraClient);
+        when(jiraClient.getIssue("MYPROJECT-1")).thenReturn(new IssueSummary(null, 1L, "MYPROJECT-1", null, null, null, "Test", null));
+        when(jiraClient.getIssue("MYPROJECT-2")).thenReturn(new IssueSummary(null, 2L, "MYPROJECT-2", null, null, null, "Test", null));
+        when(jiraClient.getProjectByKey(anyString())).thenReturn(new Project("456", null, null, null, null, null, null));
+        return new ZephyrUpdater(issueTracker, environmentVariables, zephyrClient);
+    }
+
+    private List<ZephyrExecutionDetails> executions(String executionId) {
+        return Collections.singletonList(new ZephyrExecutionDetails(executionId));
+    }
+
+    private TestResultTally<OutcomeRecord> successfulTests(String... issues) {
+        TestResultTally<OutcomeRecord> resultTally = new TestResultTally<>(OutcomeRecord::getTestResult);
+        for (String issue : issues) {
+            resultTally.recordResult(issue, new OutcomeRecord("a test of " + issue, TestResult.SUCCESS, null));
+        }
+        return resultTally;
+    }
+
     private TestOutcome newTestOutcome(String testMethod, TestResult testResult) {
         TestOutcome result = TestOutcome.forTest(testMethod, SampleTestCase.class);
         TestStep step = new TestStep("a narrative description");
@@ -1,108 +1,92 @@
 package net.serenitybdd.plugins.jira.requirements;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import net.serenitybdd.plugins.jira.domain.IssueSummary;
 import net.thucydides.core.requirements.model.Requirement;
 import net.thucydides.core.util.EnvironmentVariables;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsConfiguration.JIRA_MAX_THREADS;
 
+/**
+ * Loads the requirements hierarchy level by level, without waiting for one branch to finish before starting the next.
+ * Each child query runs as a task on a work-stealing pool of <b>jira.max.threads</b> threads, which is also the
+ * largest number of JIRA queries in flight at any time. As soon as the children of a requirement are known,
+ * the queries for their own children are queued, so grandchildren of one root are loaded alongside the children
+ * of the others. Children keep the order in which JIRA returned them.
+ */
 public class ConcurrentRequirementsLoader implements RequirementsLoader {
 
-    private final ListeningExecutorService executorService;
     private final EnvironmentVariables environmentVariables;
     private final JIRARequirementsProvider requirementsProvider;
     private final RequirementsAdaptor adaptor;
 
-    private final AtomicInteger queueSize = new AtomicInteger(0);
     static int DEFAULT_MAX_THREADS = 4;
 
     public ConcurrentRequirementsLoader(EnvironmentVariables environmentVariables,
                                         JIRARequirementsProvider requirementsProvider) {
         this.environmentVariables = environmentVariables;
         this.requirementsProvider = requirementsProvider;
-        this.executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(getMaxJobs()));
         this.adaptor = new RequirementsAdaptor(environmentVariables);
     }
 
     private final org.slf4j.Logger logger = LoggerFactory.getLogger(ConcurrentRequirementsLoader.class);
 
     public List<Requirement> loadFrom(List<IssueSummary> rootRequirementIssues) {
-        final List<Requirement> requirements = Collections.synchronizedList(new ArrayList<Requirement>());
-
         long t0 = System.currentTimeMillis();
         logger.debug("Loading {} requirements", rootRequirementIssues.size());
 
         if (rootRequirementIssues.isEmpty()) {
             return ImmutableList.of();
         }
-        queueSize.set(rootRequirementIssues.size());
-        for (final IssueSummary issueSummary : rootRequirementIssues) {
-            final ListenableFuture<IssueSummary> future = executorService.submit(new Callable<IssueSummary>() {
-                @Override
-                public IssueSummary call() throws Exception {
-                    return issueSummary;
-                }
-            });
-            future.addListener(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        IssueSummary issue = future.get();
-
-                        Requirement requirement = adaptor.requirementFrom(issue);
-                        logger.debug("Load children for requirement {}", requirement.getName());
-                        List<Requirement> childRequirements = requirementsProvider.findChildrenFor(requirement, 0);
-                        logger.debug("Load children for requirement {} done", requirement.getName());
-                        requirements.add(requirement.withChildren(childRequirements));
+        ForkJoinPool pool = new ForkJoinPool(getMaxJobs(), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        try {
+            List<CompletableFuture<Requirement>> requirements = new ArrayList<>();
+            for (IssueSummary issueSummary : rootRequirementIssues) {
+                requirements.add(withChildren(adaptor.requirementFrom(issueSummary), 0, pool));
+            }
+            List<Requirement> loadedRequirements = allOf(requirements).join();
 
-                        queueSize.decrementAndGet();
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    } catch (ExecutionException e) {
-                        e.printStackTrace();
-                    }
-                }
-            }, MoreExecutors.newDirectExecutorService());
+            logger.debug("{} requirements loaded in {} ms", loadedRequirements.size(), System.currentTimeMillis() - t0);
+            logger.debug("Requirements: {}", loadedRequirements);
+            return loadedRequirements;
+        } finally {
+            pool.shutdown();
         }
-        waitTillEmpty();
-        logger.debug("{} requirements loaded in {} ms", requirements.size(), System.currentTimeMillis() - t0);
-        logger.debug("Requirements: {}", requirements);
-
-        return requirements;
     }
 
-    private void waitTillQueueNotEmpty() {
-        while (queueSize.get() == 0) {
-            try {
-                Thread.sleep(50);
-            } catch (InterruptedException e) {
-            }
-        }
+    private CompletableFuture<Requirement> withChildren(Requirement requirement, int level, ForkJoinPool pool) {
+        return CompletableFuture
+                .supplyAsync(() -> requirementsProvider.findChildIssuesFor(requirement, level), pool)
+                .exceptionally(failure -> {
+                    logger.warn("Could not load the children of requirement " + requirement.getName(), failure);
+                    return ImmutableList.<IssueSummary>of();
+                })
+                .thenCompose(childIssues -> {
+                    List<CompletableFuture<Requirement>> children = new ArrayList<>();
+                    for (IssueSummary childIssue : childIssues) {
+                        Requirement child = requirementsProvider.requirementFrom(childIssue);
+                        children.add(requirementsProvider.moreRequirements(level)
+                                             ? withChildren(child, level + 1, pool)
+                                             : CompletableFuture.completedFuture(child));
+                    }
+                    return allOf(children);
+                })
+                .thenApply(requirement::withChildren);
     }
 
-    private void waitTillEmpty() {
-        while (queueSize.get() > 0) {
-            try {
-                Thread.sleep(50);
-            } catch (InterruptedException e) {
-            }
-        }
+    private static CompletableFuture<List<Requirement>> allOf(List<CompletableFuture<Requirement>> requirements) {
+        return CompletableFuture.allOf(requirements.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> requirements.stream().map(CompletableFuture::join).collect(Collectors.toList()));
     }
 
     private int getMaxJobs() {
-        return environmentVariables.getPropertyAsInteger(JIRA_MAX_THREADS.getName(), DEFAULT_MAX_THREADS);
+        return Math.max(1, environmentVariables.getPropertyAsInteger(JIRA_MAX_THREADS.getName(), DEFAULT_MAX_THREADS));
     }
 }
@@ -1,6 +1,7 @@
 package net.serenitybdd.plugins.jira.requirements;
 
 import com.google.common.collect.Lists;
+import net.serenitybdd.plugins.jira.client.FieldSet;
 import net.serenitybdd.plugins.jira.client.JIRAAuthenticationError;
 import net.serenitybdd.plugins.jira.client.JIRAConfigurationError;
 import net.serenitybdd.plugins.jira.client.JerseyJiraClient;
@@ -11,7 +12,10 @@ import net.thucydides.core.util.EnvironmentVariables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class ConfigurableJiraClient extends JerseyJiraClient {
@@ -58,9 +62,9 @@ public class ConfigurableJiraClient extends JerseyJiraClient {
     }
 
     @Override
-    public Optional<IssueSummary> findByKey(String key) throws JQLException {
+    public Optional<IssueSummary> findByKey(String key, FieldSet fieldSet) throws JQLException {
         try {
-            return super.findByKey(key);
+            return super.findByKey(key, fieldSet);
         } catch(JIRAAuthenticationError authenticationError) {
 
         } catch(JIRAConfigurationError configurationError) {
@@ -68,4 +72,24 @@ public class ConfigurableJiraClient extends JerseyJiraClient {
         }
         return Optional.empty();
     }
+
+    @Override
+    public Map<String, IssueSummary> findByKeys(Collection<String> keys, FieldSet fieldSet) throws JQLException {
+        try {
+            return super.findByKeys(keys, fieldSet);
+        } catch(JIRAAuthenticationError authenticationError) {
+            if (failOnJiraErrors()) {
+                throw authenticationError;
+            } else {
+                logger.error("Could not connect to JIRA", authenticationError);
+            }
+        } catch(JIRAConfigurationError configurationError) {
+            if (failOnJiraErrors()) {
+                throw configurationError;
+            } else {
+                logger.error("Could not connect to JIRA", configurationError);
+            }
+        }
+        return new HashMap<>();
+    }
 }
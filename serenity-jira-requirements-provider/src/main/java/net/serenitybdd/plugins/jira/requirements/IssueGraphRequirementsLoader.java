@@ -0,0 +1,139 @@
+package net.serenitybdd.plugins.jira.requirements;
+
+import com.google.common.collect.ImmutableList;
+import net.serenitybdd.plugins.jira.domain.IssueLink;
+import net.serenitybdd.plugins.jira.domain.IssueSummary;
+import net.thucydides.core.requirements.model.Requirement;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsProvider.EPIC_LINK;
+
+/**
+ * Builds the requirements hierarchy from issues that have already been loaded, instead of asking JIRA for the
+ * children of each requirement in turn. The issues are expected to come from a single scan of the project
+ * that includes their issue links, their parent and their epic link.
+ * <p>
+ * An "Epic Link" level is read from the epic link (or, failing that, the parent) of every scanned issue;
+ * any other level follows the links of the parent requirement whose description or type name matches
+ * <b>jira.requirement.links</b>. Linked issues that were not part of the scan are loaded together, one level at a time.
+ * Children keep the order of the project scan, followed by any issues loaded from outside it.
+ */
+public class IssueGraphRequirementsLoader implements RequirementsLoader {
+
+    private final JIRARequirementsProvider requirementsProvider;
+    private final RequirementsAdaptor adaptor;
+
+    private final Map<String, IssueSummary> issuesByKey = new HashMap<>();
+    private final Map<String, Integer> scanPositions = new HashMap<>();
+    private final Map<String, List<String>> issueKeysByEpic = new HashMap<>();
+    private final List<Map<String, List<String>>> childKeysByLevel = new ArrayList<>();
+
+    private final Logger logger = LoggerFactory.getLogger(IssueGraphRequirementsLoader.class);
+
+    public IssueGraphRequirementsLoader(EnvironmentVariables environmentVariables,
+                                        JIRARequirementsProvider requirementsProvider,
+                                        List<IssueSummary> projectIssues) {
+        this.requirementsProvider = requirementsProvider;
+        this.adaptor = new RequirementsAdaptor(environmentVariables);
+        for (IssueSummary issue : projectIssues) {
+            issuesByKey.put(issue.getKey(), issue);
+            scanPositions.putIfAbsent(issue.getKey(), scanPositions.size());
+            String epicKey = epicKeyOf(issue);
+            if (epicKey != null) {
+                issueKeysByEpic.computeIfAbsent(epicKey, key -> new ArrayList<>()).add(issue.getKey());
+            }
+        }
+    }
+
+    public List<Requirement> loadFrom(List<IssueSummary> rootRequirementIssues) {
+        long t0 = System.currentTimeMillis();
+        logger.debug("Building {} requirements from {} issues", rootRequirementIssues.size(), issuesByKey.size());
+
+        Set<String> parentKeys = new LinkedHashSet<>();
+        for (IssueSummary rootRequirementIssue : rootRequirementIssues) {
+            parentKeys.add(rootRequirementIssue.getKey());
+        }
+        List<String> requirementLinks = requirementsProvider.getRequirementsLinks();
+        for (int level = 0; level < requirementLinks.size() && !parentKeys.isEmpty(); level++) {
+            parentKeys = linkLevel(parentKeys, requirementLinks.get(level));
+        }
+
+        List<Requirement> requirements = new ArrayList<>();
+        for (IssueSummary rootRequirementIssue : rootRequirementIssues) {
+            requirements.add(adaptor.requirementFrom(rootRequirementIssue)
+                                     .withChildren(childrenOf(rootRequirementIssue.getKey(), 0)));
+        }
+        logger.debug("{} requirements built in {} ms", requirements.size(), System.currentTimeMillis() - t0);
+        return requirements;
+    }
+
+    /**
+     * Record the children of each parent for one level of the hierarchy, and return the keys of those children.
+     */
+    private Set<String> linkLevel(Set<String> parentKeys, String linkName) {
+        Map<String, List<String>> childKeysByParent = new HashMap<>();
+        Set<String> unknownKeys = new LinkedHashSet<>();
+        for (String parentKey : parentKeys) {
+            List<String> childKeys = childKeysOf(parentKey, linkName);
+            childKeysByParent.put(parentKey, childKeys);
+            for (String childKey : childKeys) {
+                if (!issuesByKey.containsKey(childKey)) {
+                    unknownKeys.add(childKey);
+                }
+            }
+        }
+        issuesByKey.putAll(requirementsProvider.findIssuesByKeys(unknownKeys));
+        childKeysByLevel.add(childKeysByParent);
+
+        Set<String> childKeys = new LinkedHashSet<>();
+        childKeysByParent.values().forEach(childKeys::addAll);
+        childKeys.retainAll(issuesByKey.keySet());
+        return childKeys;
+    }
+
+    private List<String> childKeysOf(String parentKey, String linkName) {
+        if (linkName.equals(EPIC_LINK)) {
+            return issueKeysByEpic.getOrDefault(parentKey, ImmutableList.of());
+        }
+        IssueSummary parent = issuesByKey.get(parentKey);
+        Set<String> linkedKeys = new LinkedHashSet<>();
+        for (IssueLink link : parent.getLinks()) {
+            if (link.isCalled(linkName)) {
+                linkedKeys.add(link.getLinkedIssueKey());
+            }
+        }
+        List<String> childKeys = new ArrayList<>(linkedKeys);
+        childKeys.sort(Comparator.comparing(key -> scanPositions.getOrDefault(key, Integer.MAX_VALUE)));
+        return childKeys;
+    }
+
+    private List<Requirement> childrenOf(String parentKey, int level) {
+        if (level >= childKeysByLevel.size()) {
+            return ImmutableList.of();
+        }
+        List<Requirement> children = new ArrayList<>();
+        for (String childKey : childKeysByLevel.get(level).getOrDefault(parentKey, ImmutableList.of())) {
+            IssueSummary childIssue = issuesByKey.get(childKey);
+            if (childIssue != null) {
+                Requirement child = requirementsProvider.requirementFrom(childIssue);
+                if (requirementsProvider.moreRequirements(level)) {
+                    child = child.withChildren(childrenOf(childKey, level + 1));
+                }
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    private String epicKeyOf(IssueSummary issue) {
+        String epicLink = issue.customField(EPIC_LINK)
+                .map(epic -> String.valueOf(epic.value()))
+                .orElse(null);
+        return StringUtils.isNotEmpty(epicLink) ? epicLink : issue.getParentKey();
+    }
+}
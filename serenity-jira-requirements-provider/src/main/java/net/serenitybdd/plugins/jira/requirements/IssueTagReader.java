@@ -2,6 +2,7 @@ package net.serenitybdd.plugins.jira.requirements;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import net.serenitybdd.plugins.jira.client.FieldSet;
 import net.serenitybdd.plugins.jira.client.JerseyJiraClient;
 import net.serenitybdd.plugins.jira.domain.IssueSummary;
 import net.serenitybdd.plugins.jira.model.JQLException;
@@ -18,21 +19,42 @@ public class IssueTagReader {
 
     private final Logger logger = LoggerFactory.getLogger(IssueTagReader.class);
 
-    private final List<Requirement> flattenedRequirements;
+    private final RequirementsIndex requirementsIndex;
     private final JerseyJiraClient jiraClient;
     private final String projectKey;
     private List<TestTag> tags = Lists.newArrayList();
 
     public IssueTagReader(JerseyJiraClient jiraClient, List<Requirement> flattenedRequirements, String projectKey) {
-        this.flattenedRequirements = flattenedRequirements;
+        this(jiraClient, RequirementsIndex.of(flattenedRequirements), projectKey);
+    }
+
+    public IssueTagReader(JerseyJiraClient jiraClient, RequirementsIndex requirementsIndex, String projectKey) {
+        this.requirementsIndex = requirementsIndex;
         this.jiraClient = jiraClient;
         this.projectKey = projectKey;
     }
 
+    /**
+     * Load the issues behind several issue keys in one go, so that the tags for each of them can be read from the cache.
+     * If the batch lookup fails, nothing is cached and each issue is looked up on its own when its tags are read.
+     */
+    public IssueTagReader prefetch(List<String> issueKeys) {
+        List<String> decodedIssueKeys = Lists.newArrayList();
+        for (String issueKey : issueKeys) {
+            decodedIssueKeys.add(decoded(issueKey));
+        }
+        try {
+            jiraClient.findByKeys(decodedIssueKeys, FieldSet.REQUIREMENTS);
+        } catch (RuntimeException e) {
+            logger.warn("Could not prefetch issues " + decodedIssueKeys + ", loading them one at a time", e);
+        }
+        return this;
+    }
+
     public IssueTagReader addVersionTags(String issueKey) {
         String decodedIssueKey = decoded(issueKey);
         try {
-            java.util.Optional<IssueSummary> issue = jiraClient.findByKey(issueKey);
+            java.util.Optional<IssueSummary> issue = jiraClient.findByKey(issueKey, FieldSet.REQUIREMENTS);
             if (issue.isPresent()) {
                 addVersionTags(issue.get().getFixVersions());
             }
@@ -62,7 +84,7 @@ public class IssueTagReader {
         String decodedIssueKey = decoded(issueKey);
         java.util.Optional<IssueSummary> behaviourIssue = java.util.Optional.empty();
         try {
-            behaviourIssue = jiraClient.findByKey(decodedIssueKey);
+            behaviourIssue = jiraClient.findByKey(decodedIssueKey, FieldSet.REQUIREMENTS);
         } catch (JQLException e) {
             logger.warn("Could not read tags for issue " + decodedIssueKey, e);
         }
@@ -77,46 +99,15 @@ public class IssueTagReader {
     }
 
     private List<Requirement> getAssociatedRequirementsOf(String issueKey) {
-        for (Requirement requirement : flattenedRequirements) {
-            if (requirement.getCardNumber().equalsIgnoreCase(issueKey)) {
-                List<Requirement> associatedRequirements = Lists.newArrayList(requirement);
-                associatedRequirements.addAll(getParentRequirementsOf(issueKey));
-                return ImmutableList.copyOf(associatedRequirements);
-            }
+        Optional<Requirement> requirement = requirementsIndex.getRequirementWithCardNumber(issueKey);
+        if (requirement.isPresent()) {
+            List<Requirement> associatedRequirements = Lists.newArrayList(requirement.get());
+            associatedRequirements.addAll(requirementsIndex.getAncestorsOf(issueKey));
+            return ImmutableList.copyOf(associatedRequirements);
         }
         return ImmutableList.of();
     }
 
-    private List<Requirement> getParentRequirementsOf(String issueKey) {
-        List<Requirement> parentRequirements = Lists.newArrayList();
-
-        Optional<Requirement> parentRequirement = getParentRequirementOf(issueKey);
-        if (parentRequirement.isPresent()) {
-            parentRequirements.add(parentRequirement.get());
-            parentRequirements.addAll(getParentRequirementsOf(parentRequirement.get().getCardNumber()));
-        }
-
-        return parentRequirements;
-    }
-
-    private Optional<Requirement> getParentRequirementOf(String key) {
-        for (Requirement requirement : flattenedRequirements) {
-            if (containsRequirementWithId(key, requirement.getChildren())) {
-                return Optional.of(requirement);
-            }
-        }
-        return Optional.empty();
-    }
-
-    private boolean containsRequirementWithId(String key, List<Requirement> requirements) {
-        for (Requirement requirement : requirements) {
-            if (requirement.getCardNumber().equals(key)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private String decoded(String issueKey) {
         if (issueKey.startsWith("#")) {
             issueKey = issueKey.substring(1);
@@ -10,7 +10,20 @@ public enum JIRARequirementsConfiguration {
     JIRA_MAX_THREADS("jira.max.threads"),
 
     JIRA_ROOT_ISSUE_TYPE("jira.root.issue.type"),
-    JIRA_REQUIREMENT_LINKS("jira.requirement.links");
+    JIRA_REQUIREMENT_LINKS("jira.requirement.links"),
+
+    /**
+     * Build the requirements hierarchy from a single scan of the project and its issue links,
+     * rather than one query per parent requirement.
+     */
+    JIRA_REQUIREMENTS_SINGLE_SCAN("jira.requirements.single.scan"),
+
+    /**
+     * Keep a local copy of the requirement issues between builds.
+     */
+    JIRA_PERSISTENT_CACHE("jira.persistent.cache"),
+    JIRA_CACHE_DIRECTORY("jira.cache.dir"),
+    JIRA_CACHE_FULL_REFRESH_HOURS("jira.cache.full.refresh.hours");
 
     private final String name;
 
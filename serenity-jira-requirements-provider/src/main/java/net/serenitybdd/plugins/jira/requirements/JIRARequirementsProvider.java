@@ -2,9 +2,11 @@ package net.serenitybdd.plugins.jira.requirements;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import net.serenitybdd.plugins.jira.client.FieldSet;
 import net.serenitybdd.plugins.jira.client.JerseyJiraClient;
 import net.serenitybdd.plugins.jira.client.LoadingStrategy;
 import net.serenitybdd.plugins.jira.domain.IssueSummary;
@@ -14,7 +16,6 @@ import net.serenitybdd.plugins.jira.service.SystemPropertiesJIRAConfiguration;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestTag;
-import net.thucydides.core.requirements.RequirementsList;
 import net.thucydides.core.requirements.RequirementsTagProvider;
 import net.thucydides.core.requirements.model.Requirement;
 import net.thucydides.core.util.EnvironmentVariables;
@@ -27,6 +28,8 @@ import java.util.*;
 
 import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsConfiguration.JIRA_CUSTOM_FIELD;
 import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsConfiguration.JIRA_CUSTOM_NARRATIVE_FIELD;
+import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsConfiguration.JIRA_PERSISTENT_CACHE;
+import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsConfiguration.JIRA_REQUIREMENTS_SINGLE_SCAN;
 
 
 /**
@@ -35,11 +38,15 @@ import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsConfigur
 public class JIRARequirementsProvider implements RequirementsTagProvider {
 
     private List<Requirement> requirements = null;
+    private volatile RequirementsIndex requirementsIndex = RequirementsIndex.empty();
     private final JerseyJiraClient jiraClient;
     private final String projectKey;
+    private final String jiraUrl;
+    private final String jiraUser;
     private final EnvironmentVariables environmentVariables;
+    private volatile PersistentIssueCache persistentCache;
 
-    private final String EPIC_LINK = "Epic Link";
+    static final String EPIC_LINK = "Epic Link";
 
     private final Logger logger = LoggerFactory.getLogger(JIRARequirementsProvider.class);
 
@@ -55,11 +62,21 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
     public JIRARequirementsProvider(JIRAConfiguration jiraConfiguration, EnvironmentVariables environmentVariables) {
         logConnectionDetailsFor(jiraConfiguration);
         projectKey = jiraConfiguration.getProject();
+        jiraUrl = jiraConfiguration.getJiraUrl();
+        jiraUser = jiraConfiguration.getJiraUser();
         this.environmentVariables = environmentVariables;
         jiraClient = new ConfigurableJiraClient(jiraConfiguration.getJiraUrl(),
                 jiraConfiguration.getJiraUser(),
                 jiraConfiguration.getJiraPassword(),
-                projectKey).usingCustomFields(customFieldsDefinedIn(environmentVariables));
+                projectKey).usingCustomFields(requestedCustomFields());
+    }
+
+    private List<String> requestedCustomFields() {
+        List<String> customFields = customFieldsDefinedIn(environmentVariables);
+        if (singleScanActivated() && !customFields.contains(EPIC_LINK)) {
+            customFields.add(EPIC_LINK);
+        }
+        return customFields;
     }
 
     private List<String> definedCustomFields() {
@@ -108,25 +125,63 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
         requirements = persisted(requirements);
         if ((requirements == null) && providerActivated()) {
 
-            List<IssueSummary> rootRequirementIssues;
-            logger.debug("Loading root requirements: " + rootRequirementsJQL());
-            try {
-                rootRequirementIssues = jiraClient.findByJQL(rootRequirementsJQL(), LoadingStrategy.LOAD_IN_BATCHES);
-            } catch (JQLException e) {
-                logger.debug("No root requirements found (JQL = " + rootRequirementsJQL(), e);
-                rootRequirementIssues = Lists.newArrayList();
+            if (persistentCacheActivated()) {
+                loadPersistentCache();
             }
-            logger.debug("Loading root requirements done: " + rootRequirementIssues.size());
 
-            RequirementsLoader requirementsLoader = new ConcurrentRequirementsLoader(environmentVariables, this);
-            requirements = requirementsLoader.loadFrom(rootRequirementIssues);
+            requirements = singleScanActivated() ? loadFromSingleScan() : loadFromRootRequirements();
             requirements = addParentsTo(requirements);
+            requirementsIndex = RequirementsIndex.of(requirements);
             persist(requirements);
 
         }
         return requirements;
     }
 
+    private List<Requirement> loadFromRootRequirements() {
+        List<IssueSummary> rootRequirementIssues;
+        logger.debug("Loading root requirements: " + rootRequirementsJQL());
+        try {
+            rootRequirementIssues = findIssuesByJQL(rootRequirementsJQL(), LoadingStrategy.LOAD_IN_PARALLEL_BATCHES);
+        } catch (JQLException e) {
+            logger.debug("No root requirements found (JQL = " + rootRequirementsJQL(), e);
+            rootRequirementIssues = Lists.newArrayList();
+        }
+        logger.debug("Loading root requirements done: " + rootRequirementIssues.size());
+
+        RequirementsLoader requirementsLoader = new ConcurrentRequirementsLoader(environmentVariables, this);
+        return requirementsLoader.loadFrom(rootRequirementIssues);
+    }
+
+    private List<Requirement> loadFromSingleScan() {
+        List<IssueSummary> projectIssues;
+        logger.debug("Loading requirements graph: " + projectIssuesJQL());
+        try {
+            projectIssues = findIssuesByJQL(projectIssuesJQL(), LoadingStrategy.LOAD_IN_PARALLEL_BATCHES);
+        } catch (JQLException e) {
+            logger.debug("No requirements found (JQL = " + projectIssuesJQL(), e);
+            projectIssues = Lists.newArrayList();
+        }
+        List<IssueSummary> rootRequirementIssues = Lists.newArrayList();
+        for (IssueSummary issue : projectIssues) {
+            if (getRootIssueType().equalsIgnoreCase(issue.getType())) {
+                rootRequirementIssues.add(issue);
+            }
+        }
+        logger.debug("Loading requirements graph done: {} issues, {} root requirements",
+                     projectIssues.size(), rootRequirementIssues.size());
+
+        return new IssueGraphRequirementsLoader(environmentVariables, this, projectIssues).loadFrom(rootRequirementIssues);
+    }
+
+    private boolean singleScanActivated() {
+        return environmentVariables.getPropertyAsBoolean(JIRA_REQUIREMENTS_SINGLE_SCAN.getName(), false);
+    }
+
+    private FieldSet requirementsFieldSet() {
+        return singleScanActivated() ? FieldSet.REQUIREMENTS_GRAPH : FieldSet.REQUIREMENTS;
+    }
+
     private List<Requirement> persisted(List<Requirement> requirements) {
         if (requirements != null) {
             return requirements;
@@ -135,7 +190,33 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
     }
 
     private void persist(List<Requirement> requirements) {
-        // TODO: Implement me
+        if (persistentCache != null) {
+            persistentCache.save();
+        }
+    }
+
+    private boolean persistentCacheActivated() {
+        return environmentVariables.getPropertyAsBoolean(JIRA_PERSISTENT_CACHE.getName(), false);
+    }
+
+    private void loadPersistentCache() {
+        persistentCache = PersistentIssueCache.forProject(jiraUrl, jiraUser, getProjectKey(), requirementsFieldSet(),
+                                                          requestedCustomFields(), environmentVariables);
+        persistentCache.revalidateWith(jiraClient);
+        jiraClient.addToCache(persistentCache.getIssues(), requirementsFieldSet());
+    }
+
+    private List<IssueSummary> findIssuesByJQL(String query, LoadingStrategy loadingStrategy) throws JQLException {
+        if (persistentCache == null) {
+            return jiraClient.findByJQL(query, loadingStrategy, requirementsFieldSet());
+        }
+        Optional<List<IssueSummary>> cachedIssues = persistentCache.issuesFor(query);
+        if (cachedIssues.isPresent()) {
+            return cachedIssues.get();
+        }
+        List<IssueSummary> issues = jiraClient.findByJQL(query, loadingStrategy, requirementsFieldSet());
+        persistentCache.record(query, issues);
+        return issues;
     }
 
     private boolean providerActivated() {
@@ -158,7 +239,7 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
         return augmentedRequirements;
     }
 
-    private Requirement requirementFrom(IssueSummary issue) {
+    Requirement requirementFrom(IssueSummary issue) {
 
         Requirement baseRequirement = Requirement.named(issue.getSummary())
                 .withOptionalCardNumber(issue.getKey())
@@ -196,18 +277,8 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
 
 
     protected List<Requirement> findChildrenFor(Requirement parent, final int level) {
-        List<IssueSummary> children;
-
         long t0 = System.currentTimeMillis();
-        try {
-            logger.debug("Loading child requirements for: " + parent.getName());
-            children = jiraClient.findByJQL(childIssuesJQL(parent, level), LoadingStrategy.LOAD_IN_SINGLE_QUERY);
-
-            logger.debug("Loading child requirements for " + parent.getName() + " done: " + children.size());
-        } catch (JQLException e) {
-            logger.warn("No children found for requirement " + parent, e);
-            return NO_REQUIREMENTS;
-        }
+        List<IssueSummary> children = findChildIssuesFor(parent, level);
 
         final List<Requirement> childRequirements = Collections.synchronizedList(new ArrayList<Requirement>());
         for(IssueSummary childIssue : children) {
@@ -223,6 +294,36 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
         return childRequirements;
     }
 
+    /**
+     * The issues directly below a requirement, in the order JIRA returns them, without their own children.
+     */
+    List<IssueSummary> findChildIssuesFor(Requirement parent, final int level) {
+        try {
+            logger.debug("Loading child requirements for: " + parent.getName());
+            List<IssueSummary> children = findIssuesByJQL(childIssuesJQL(parent, level), LoadingStrategy.LOAD_IN_SINGLE_QUERY);
+            logger.debug("Loading child requirements for " + parent.getName() + " done: " + children.size());
+            return children;
+        } catch (JQLException e) {
+            logger.warn("No children found for requirement " + parent, e);
+            return ImmutableList.of();
+        }
+    }
+
+    /**
+     * Requirement issues that were not part of the project scan, such as issues linked from another project.
+     */
+    Map<String, IssueSummary> findIssuesByKeys(Collection<String> issueKeys) {
+        if (issueKeys.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        try {
+            return jiraClient.findByKeys(issueKeys, requirementsFieldSet());
+        } catch (JQLException e) {
+            logger.warn("Could not load linked requirements " + issueKeys, e);
+            return ImmutableMap.of();
+        }
+    }
+
     private String childIssuesJQL(Requirement parent, int level) {
         String linkType = getRequirementsLinks().get(level);
         if (linkType.equals(EPIC_LINK)) {
@@ -232,12 +333,16 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
         }
     }
 
-    private boolean moreRequirements(int level) {
+    boolean moreRequirements(int level) {
         return level < getRequirementsLinks().size() - 1;
     }
 
 
 
+    private String projectIssuesJQL() {
+        return "project=" + getProjectKey();
+    }
+
     private String rootRequirementsJQL() {
         return "issuetype = " + getRootIssueType() + " and project=" + getProjectKey();
     }
@@ -252,7 +357,7 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
         List<String> issueKeys = testOutcome.getIssueKeys();
         if (!issueKeys.isEmpty() && providerActivated()) {
             try {
-                java.util.Optional<IssueSummary> parentIssue = jiraClient.findByKey(issueKeys.get(0));
+                java.util.Optional<IssueSummary> parentIssue = jiraClient.findByKey(issueKeys.get(0), FieldSet.REQUIREMENTS);
                 if (parentIssue.isPresent()) {
                     logger.debug("Parent found: " + parentIssue.get());
                     return Optional.of(requirementFrom(parentIssue.get()));
@@ -273,12 +378,7 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
 
     @Override
     public Optional<Requirement> getParentRequirementOf(Requirement requirement) {
-        for (Requirement candidateParent : RequirementsList.of(getRequirements()).asFlattenedList()) {
-            if (candidateParent.getChildren().contains(requirement)) {
-                return Optional.of(candidateParent);
-            }
-        }
-        return Optional.empty();
+        return getRequirementsIndex().getParentOf(requirement);
     }
 
     private boolean noSuchIssue(JQLException e) {
@@ -287,18 +387,16 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
 
     @Override
     public Optional<Requirement> getRequirementFor(TestTag testTag) {
-        for (Requirement requirement : getFlattenedRequirements()) {
-            if (requirement.getType().equals(testTag.getType()) && requirement.getName().equals(testTag.getName())) {
-                return Optional.of(requirement);
-            }
-        }
-        return Optional.empty();
+        return getRequirementsIndex().getRequirementCalled(testTag.getType(), testTag.getName());
     }
 
     @Override
     public Set<TestTag> getTagsFor(TestOutcome testOutcome) {
         List<String> issues = testOutcome.getIssueKeys();
         Set<TestTag> tags = Sets.newHashSet();
+        if (issues.size() > 1 && providerActivated()) {
+            new IssueTagReader(jiraClient, getRequirementsIndex(), projectKey).prefetch(issues);
+        }
         for (String issue : issues) {
             tags.addAll(tagsFromIssue(issue));
         }
@@ -307,7 +405,7 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
 
     private Collection<? extends TestTag> tagsFromIssue(String issueKey) {
         if (providerActivated()) {
-            IssueTagReader tagReader = new IssueTagReader(jiraClient, getFlattenedRequirements(), projectKey);
+            IssueTagReader tagReader = new IssueTagReader(jiraClient, getRequirementsIndex(), projectKey);
             return tagReader.addIssueTags(issueKey)
                     .addRequirementTags(issueKey)
                     .addVersionTags(issueKey).getTags();
@@ -316,17 +414,12 @@ public class JIRARequirementsProvider implements RequirementsTagProvider {
         }
     }
 
-    private List<Requirement> getFlattenedRequirements() {
-        return getFlattenedRequirements(getRequirements());
-    }
-
-    private List<Requirement> getFlattenedRequirements(List<Requirement> someRequirements) {
-        List<Requirement> flattenedRequirements = Lists.newArrayList();
-        for (Requirement requirement : someRequirements) {
-            flattenedRequirements.add(requirement);
-            flattenedRequirements.addAll(getFlattenedRequirements(requirement.getChildren()));
-        }
-        return flattenedRequirements;
+    /**
+     * The lookups over the requirements hierarchy, loading the hierarchy first if need be.
+     */
+    private RequirementsIndex getRequirementsIndex() {
+        getRequirements();
+        return requirementsIndex;
     }
 
     public List<String> getRequirementsLinks() {
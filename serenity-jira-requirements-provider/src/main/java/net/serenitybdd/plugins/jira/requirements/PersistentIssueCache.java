@@ -0,0 +1,236 @@
+package net.serenitybdd.plugins.jira.requirements;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import net.serenitybdd.plugins.jira.client.FieldSet;
+import net.serenitybdd.plugins.jira.client.JerseyJiraClient;
+import net.serenitybdd.plugins.jira.client.LoadingStrategy;
+import net.serenitybdd.plugins.jira.domain.IssueSummary;
+import net.serenitybdd.plugins.jira.model.JQLException;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsConfiguration.JIRA_CACHE_DIRECTORY;
+import static net.serenitybdd.plugins.jira.requirements.JIRARequirementsConfiguration.JIRA_CACHE_FULL_REFRESH_HOURS;
+
+/**
+ * A local copy of the requirement issues of a JIRA project, and of the JQL queries used to find them,
+ * kept between builds so that the requirements hierarchy does not need to be reloaded from JIRA every time.
+ * <p>
+ * On startup the cache is revalidated with a single query for the issues updated since the last sync.
+ * Changed issues are replaced, and any cached query that returned one of them is dropped and run again.
+ * When one of the changed issues was not cached before, every cached query is dropped, as a new issue can
+ * belong under a parent or epic that has not itself changed; the cached issues are kept.
+ * An existing issue that is moved under a parent that has not itself changed, or an issue that is deleted,
+ * only shows up after the next full refresh, which happens every <b>jira.cache.full.refresh.hours</b> hours
+ * (24 by default), or whenever the cache format changes.
+ */
+public class PersistentIssueCache {
+
+    static final int SCHEMA_VERSION = 1;
+
+    private static final int DEFAULT_FULL_REFRESH_HOURS = 24;
+    private static final long CLOCK_SKEW_MARGIN_IN_MINUTES = 5;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentIssueCache.class);
+
+    private final Gson gson = new GsonBuilder().create();
+
+    private final Path cacheFile;
+    private final String projectKey;
+    private final FieldSet fieldSet;
+    private final String fieldSignature;
+    private final long fullRefreshIntervalInMillis;
+
+    private final Map<String, IssueSummary> issues = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> queries = new ConcurrentHashMap<>();
+    private long lastSync;
+    private long lastFullRefresh;
+    private long syncStartedAt;
+
+    PersistentIssueCache(Path cacheFile, String projectKey, FieldSet fieldSet, List<String> customFields,
+                         long fullRefreshIntervalInMillis) {
+        this.cacheFile = cacheFile;
+        this.projectKey = projectKey;
+        this.fieldSet = fieldSet;
+        this.fieldSignature = fieldSet + " " + customFields;
+        this.fullRefreshIntervalInMillis = fullRefreshIntervalInMillis;
+        this.syncStartedAt = System.currentTimeMillis();
+        this.lastFullRefresh = syncStartedAt;
+    }
+
+    /**
+     * Open the cache of a project on a given JIRA instance, as seen by a given user.
+     * Each instance and user gets its own cache file, so projects with the same key on different servers,
+     * or read with different permissions, never share cached issues.
+     */
+    public static PersistentIssueCache forProject(String jiraUrl, String username, String projectKey,
+                                                  FieldSet fieldSet, List<String> customFields,
+                                                  EnvironmentVariables environmentVariables) {
+        Path cacheDirectory = Paths.get(environmentVariables.getProperty(JIRA_CACHE_DIRECTORY.getName(),
+                Paths.get(System.getProperty("user.home"), ".serenity", "jira-cache").toString()));
+        Path cacheFile = cacheDirectory.resolve(cacheFileName(jiraUrl, username, projectKey, fieldSet, customFields));
+        long fullRefreshInterval = TimeUnit.HOURS.toMillis(
+                environmentVariables.getPropertyAsInteger(JIRA_CACHE_FULL_REFRESH_HOURS.getName(), DEFAULT_FULL_REFRESH_HOURS));
+
+        PersistentIssueCache cache = new PersistentIssueCache(cacheFile, projectKey, fieldSet, customFields,
+                                                              fullRefreshInterval);
+        return cache.load();
+    }
+
+    static String cacheFileName(String jiraUrl, String username, String projectKey,
+                                FieldSet fieldSet, List<String> customFields) {
+        String signature = jiraUrl + " " + username + " " + fieldSet + " " + customFields;
+        return projectKey + "-" + Hashing.sha256().hashString(signature, StandardCharsets.UTF_8).toString().substring(0, 16) + ".json";
+    }
+
+    /**
+     * Bring the cached issues up to date with a single query for the issues changed since the last sync.
+     * If the changes cannot be read, the cache is cleared so that everything is reloaded from JIRA.
+     */
+    public void revalidateWith(JerseyJiraClient jiraClient) {
+        syncStartedAt = System.currentTimeMillis();
+        if (issues.isEmpty() && queries.isEmpty()) {
+            return;
+        }
+        try {
+            List<IssueSummary> changedIssues = jiraClient.findByJQL(changedIssuesJQL(), LoadingStrategy.LOAD_IN_BATCHES, fieldSet);
+            LOGGER.debug("{} issues changed in {} since the last sync", changedIssues.size(), projectKey);
+            applyChanges(changedIssues);
+        } catch (JQLException e) {
+            LOGGER.warn("Could not revalidate the cached JIRA issues - reloading everything", e);
+            clear();
+        }
+    }
+
+    String changedIssuesJQL() {
+        long minutesSinceLastSync = TimeUnit.MILLISECONDS.toMinutes(syncStartedAt - lastSync) + CLOCK_SKEW_MARGIN_IN_MINUTES;
+        return "project=" + projectKey + " and updated >= -" + minutesSinceLastSync + "m";
+    }
+
+    void applyChanges(List<IssueSummary> changedIssues) {
+        Set<String> changedKeys = new HashSet<>();
+        boolean newIssues = false;
+        for (IssueSummary changedIssue : changedIssues) {
+            changedKeys.add(changedIssue.getKey());
+            newIssues |= (issues.put(changedIssue.getKey(), changedIssue) == null);
+        }
+        if (newIssues) {
+            queries.clear();
+        } else {
+            queries.entrySet().removeIf(query -> !Collections.disjoint(query.getValue(), changedKeys));
+        }
+    }
+
+    public Optional<List<IssueSummary>> issuesFor(String query) {
+        List<String> keys = queries.get(query);
+        if (keys == null) {
+            return Optional.empty();
+        }
+        List<IssueSummary> cachedIssues = new ArrayList<>();
+        for (String key : keys) {
+            IssueSummary issue = issues.get(key);
+            if (issue == null) {
+                return Optional.empty();
+            }
+            cachedIssues.add(issue);
+        }
+        return Optional.of(cachedIssues);
+    }
+
+    public void record(String query, List<IssueSummary> queryResults) {
+        List<String> keys = new ArrayList<>();
+        for (IssueSummary issue : queryResults) {
+            issues.put(issue.getKey(), issue);
+            keys.add(issue.getKey());
+        }
+        queries.put(query, ImmutableList.copyOf(keys));
+    }
+
+    public Collection<IssueSummary> getIssues() {
+        return ImmutableList.copyOf(issues.values());
+    }
+
+    public void clear() {
+        issues.clear();
+        queries.clear();
+        lastFullRefresh = syncStartedAt;
+    }
+
+    public void save() {
+        CacheContents contents = new CacheContents();
+        contents.schemaVersion = SCHEMA_VERSION;
+        contents.project = projectKey;
+        contents.fields = fieldSignature;
+        contents.lastSync = syncStartedAt;
+        contents.lastFullRefresh = lastFullRefresh;
+        contents.issues = new HashMap<>(issues);
+        contents.queries = new HashMap<>(queries);
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path temporaryFile = Files.createTempFile(cacheFile.getParent(), projectKey, ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                gson.toJson(contents, writer);
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not save the JIRA issue cache to " + cacheFile, e);
+        }
+    }
+
+    PersistentIssueCache load() {
+        if (!Files.exists(cacheFile)) {
+            return this;
+        }
+        try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            CacheContents contents = gson.fromJson(reader, CacheContents.class);
+            if (isUsable(contents)) {
+                issues.putAll(contents.issues);
+                queries.putAll(contents.queries);
+                lastSync = contents.lastSync;
+                lastFullRefresh = contents.lastFullRefresh;
+            } else {
+                LOGGER.debug("Ignoring stale or incompatible JIRA issue cache at {}", cacheFile);
+            }
+        } catch (IOException | JsonParseException e) {
+            LOGGER.warn("Could not read the JIRA issue cache at " + cacheFile, e);
+        }
+        return this;
+    }
+
+    private boolean isUsable(CacheContents contents) {
+        return contents != null
+                && contents.schemaVersion == SCHEMA_VERSION
+                && projectKey.equals(contents.project)
+                && fieldSignature.equals(contents.fields)
+                && contents.issues != null
+                && contents.queries != null
+                && (System.currentTimeMillis() - contents.lastFullRefresh) < fullRefreshIntervalInMillis;
+    }
+
+    private static class CacheContents {
+        int schemaVersion;
+        String project;
+        String fields;
+        long lastSync;
+        long lastFullRefresh;
+        Map<String, IssueSummary> issues;
+        Map<String, List<String>> queries;
+    }
+}
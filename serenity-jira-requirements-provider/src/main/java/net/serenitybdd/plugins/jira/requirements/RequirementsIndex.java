@@ -0,0 +1,142 @@
+package net.serenitybdd.plugins.jira.requirements;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import net.thucydides.core.requirements.model.Requirement;
+
+import java.util.*;
+
+/**
+ * Immutable lookups over a loaded requirements hierarchy, built once so that finding a requirement, its parent
+ * or its ancestors does not mean scanning the whole tree for every test outcome.
+ * Where a card number appears more than once in the hierarchy, the first occurrence in depth-first order wins,
+ * as it did when the flattened list was scanned.
+ */
+public class RequirementsIndex {
+
+    private static final RequirementsIndex EMPTY = of(ImmutableList.of());
+
+    private final List<Requirement> flattenedRequirements;
+    private final Map<String, Requirement> requirementsByCardNumber;
+    private final Map<String, Requirement> parentsByCardNumber;
+    private final Map<String, List<Requirement>> ancestorsByCardNumber;
+    private final Table<String, String, Requirement> requirementsByTypeAndName;
+
+    private RequirementsIndex(List<Requirement> flattenedRequirements) {
+        Map<String, Requirement> requirementsByCardNumber = new HashMap<>();
+        Map<String, Requirement> parentsByCardNumber = new HashMap<>();
+        Table<String, String, Requirement> requirementsByTypeAndName = HashBasedTable.create();
+        for (Requirement requirement : flattenedRequirements) {
+            if (requirement.getCardNumber() != null) {
+                requirementsByCardNumber.putIfAbsent(normalised(requirement.getCardNumber()), requirement);
+            }
+            if (requirement.getType() != null && requirement.getName() != null
+                    && !requirementsByTypeAndName.contains(requirement.getType(), requirement.getName())) {
+                requirementsByTypeAndName.put(requirement.getType(), requirement.getName(), requirement);
+            }
+            for (Requirement child : requirement.getChildren()) {
+                if (child.getCardNumber() != null) {
+                    parentsByCardNumber.putIfAbsent(child.getCardNumber(), requirement);
+                }
+            }
+        }
+        this.flattenedRequirements = ImmutableList.copyOf(flattenedRequirements);
+        this.requirementsByCardNumber = ImmutableMap.copyOf(requirementsByCardNumber);
+        this.parentsByCardNumber = ImmutableMap.copyOf(parentsByCardNumber);
+        this.ancestorsByCardNumber = ancestorsOf(parentsByCardNumber);
+        this.requirementsByTypeAndName = ImmutableTable.copyOf(requirementsByTypeAndName);
+    }
+
+    public static RequirementsIndex of(List<Requirement> requirements) {
+        List<Requirement> flattenedRequirements = new ArrayList<>();
+        flatten(requirements, flattenedRequirements);
+        return new RequirementsIndex(flattenedRequirements);
+    }
+
+    public static RequirementsIndex empty() {
+        return EMPTY;
+    }
+
+    private static void flatten(List<Requirement> requirements, List<Requirement> flattenedRequirements) {
+        for (Requirement requirement : requirements) {
+            flattenedRequirements.add(requirement);
+            flatten(requirement.getChildren(), flattenedRequirements);
+        }
+    }
+
+    private static Map<String, List<Requirement>> ancestorsOf(Map<String, Requirement> parentsByCardNumber) {
+        ImmutableMap.Builder<String, List<Requirement>> ancestorsByCardNumber = ImmutableMap.builder();
+        for (String cardNumber : parentsByCardNumber.keySet()) {
+            List<Requirement> ancestors = new ArrayList<>();
+            Set<String> visitedCardNumbers = new HashSet<>(Collections.singleton(cardNumber));
+            Requirement parent = parentsByCardNumber.get(cardNumber);
+            while (parent != null && visitedCardNumbers.add(parent.getCardNumber())) {
+                ancestors.add(parent);
+                parent = parentsByCardNumber.get(parent.getCardNumber());
+            }
+            ancestorsByCardNumber.put(cardNumber, ImmutableList.copyOf(ancestors));
+        }
+        return ancestorsByCardNumber.build();
+    }
+
+    private static String normalised(String cardNumber) {
+        return cardNumber.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Every requirement in the hierarchy, in depth-first order.
+     */
+    public List<Requirement> getFlattenedRequirements() {
+        return flattenedRequirements;
+    }
+
+    /**
+     * The requirement with a given card number, ignoring case.
+     */
+    public Optional<Requirement> getRequirementWithCardNumber(String cardNumber) {
+        return Optional.ofNullable(requirementsByCardNumber.get(normalised(cardNumber)));
+    }
+
+    public Optional<Requirement> getParentOf(String cardNumber) {
+        return Optional.ofNullable(parentsByCardNumber.get(cardNumber));
+    }
+
+    /**
+     * The parent of a requirement, if the requirement is one of its children.
+     * Only requirements without a card number, or that appear under several parents, need a scan of the hierarchy.
+     */
+    public Optional<Requirement> getParentOf(Requirement requirement) {
+        if (requirement.getCardNumber() != null) {
+            Requirement parent = parentsByCardNumber.get(requirement.getCardNumber());
+            if (parent == null) {
+                return Optional.empty();
+            }
+            if (parent.getChildren().contains(requirement)) {
+                return Optional.of(parent);
+            }
+        }
+        for (Requirement candidateParent : flattenedRequirements) {
+            if (candidateParent.getChildren().contains(requirement)) {
+                return Optional.of(candidateParent);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The parent of a card, then its grandparent and so on up to the root requirement.
+     */
+    public List<Requirement> getAncestorsOf(String cardNumber) {
+        return ancestorsByCardNumber.getOrDefault(cardNumber, ImmutableList.of());
+    }
+
+    public Optional<Requirement> getRequirementCalled(String type, String name) {
+        if (type == null || name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(requirementsByTypeAndName.get(type, name));
+    }
+}
@@ -0,0 +1,75 @@
+package net.serenitybdd.plugins.jira
+
+import net.serenitybdd.plugins.jira.domain.IssueLink
+import net.serenitybdd.plugins.jira.domain.IssueSummary
+import net.serenitybdd.plugins.jira.requirements.IssueGraphRequirementsLoader
+import net.serenitybdd.plugins.jira.requirements.JIRARequirementsProvider
+import net.serenitybdd.plugins.jira.service.SystemPropertiesJIRAConfiguration
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+class WhenBuildingRequirementsFromIssueLinks extends Specification {
+
+    def environmentVariables = new MockEnvironmentVariables()
+
+    def setup() {
+        environmentVariables.setProperty('jira.url', 'http://localhost:8080')
+        environmentVariables.setProperty('jira.project', 'DEMO')
+    }
+
+    def "should find the stories of each epic from their epic link"() {
+        given:
+            def epic = issue("DEMO-1", "Epic")
+            def otherEpic = issue("DEMO-2", "Epic")
+            def issues = [epic, otherEpic,
+                          issue("DEMO-3", "Story", [:], "DEMO-1"),
+                          issue("DEMO-4", "Story", ["Epic Link": "DEMO-2"]),
+                          issue("DEMO-5", "Story", ["Epic Link": "DEMO-1"])]
+        when:
+            def requirements = loaderFor(issues).loadFrom([epic, otherEpic])
+        then:
+            requirements*.cardNumber == ["DEMO-1", "DEMO-2"]
+            requirements[0].children*.cardNumber == ["DEMO-3", "DEMO-5"]
+            requirements[1].children*.cardNumber == ["DEMO-4"]
+    }
+
+    def "should follow the configured issue links below the epics"() {
+        given:
+            environmentVariables.setProperty('jira.requirement.links', 'Epic Link, is tested by')
+            def epic = issue("DEMO-1", "Epic")
+            def story = issue("DEMO-2", "Story", ["Epic Link": "DEMO-1"])
+            story.links = [new IssueLink("Tests", "is tested by", "DEMO-4"),
+                           new IssueLink("Relates", "relates to", "DEMO-5"),
+                           new IssueLink("Tests", "is tested by", "DEMO-3")]
+            def issues = [epic, story, issue("DEMO-3", "Test"), issue("DEMO-4", "Test"), issue("DEMO-5", "Story")]
+        when:
+            def requirements = loaderFor(issues).loadFrom([epic])
+        then:
+            requirements[0].children*.cardNumber == ["DEMO-2"]
+            requirements[0].children[0].children*.cardNumber == ["DEMO-3", "DEMO-4"]
+    }
+
+    def "should match links by the name of the link type"() {
+        given:
+            environmentVariables.setProperty('jira.requirement.links', 'Tests')
+            def feature = issue("DEMO-1", "Feature")
+            feature.links = [new IssueLink("Tests", "is tested by", "DEMO-2")]
+        when:
+            def requirements = loaderFor([feature, issue("DEMO-2", "Test")]).loadFrom([feature])
+        then:
+            requirements[0].children*.cardNumber == ["DEMO-2"]
+    }
+
+    def loaderFor(List<IssueSummary> issues) {
+        def requirementsProvider = new JIRARequirementsProvider(new SystemPropertiesJIRAConfiguration(environmentVariables),
+                                                                environmentVariables)
+        new IssueGraphRequirementsLoader(environmentVariables, requirementsProvider, issues)
+    }
+
+    def issue(String key, String type, Map<String, Object> customFields = [:], String parentKey = null) {
+        def issue = new IssueSummary(new URI("http://localhost:8080/rest/api/2/issue/" + key), 1L, key, "Issue " + key, "",
+                                     ["description": ""], type, "Open", [], [], customFields)
+        issue.parentKey = parentKey
+        issue
+    }
+}
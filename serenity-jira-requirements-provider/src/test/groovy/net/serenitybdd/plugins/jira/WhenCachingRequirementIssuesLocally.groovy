@@ -0,0 +1,103 @@
+package net.serenitybdd.plugins.jira
+
+import net.serenitybdd.plugins.jira.client.FieldSet
+import net.serenitybdd.plugins.jira.domain.IssueSummary
+import net.serenitybdd.plugins.jira.requirements.PersistentIssueCache
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+class WhenCachingRequirementIssuesLocally extends Specification {
+
+    def cacheDirectory = Files.createTempDirectory("jira-cache")
+    def cacheFile = cacheDirectory.resolve("DEMO.json")
+    def oneDay = TimeUnit.DAYS.toMillis(1)
+
+    def cleanup() {
+        cacheDirectory.toFile().deleteDir()
+    }
+
+    def "should return the issues recorded for a query"() {
+        given:
+            def cache = newCache()
+        when:
+            cache.record("issuetype = epic and project=DEMO", [issue("DEMO-1"), issue("DEMO-2")])
+        then:
+            cache.issuesFor("issuetype = epic and project=DEMO").get()*.key == ["DEMO-1", "DEMO-2"]
+        and:
+            !cache.issuesFor("issuetype = story and project=DEMO").isPresent()
+    }
+
+    def "should reload the cached issues in a new build"() {
+        given:
+            def cache = newCache()
+            cache.record("issuetype = epic and project=DEMO", [issue("DEMO-1")])
+        when:
+            cache.save()
+        then:
+            newCache().load().issuesFor("issuetype = epic and project=DEMO").get()*.summary == ["Issue DEMO-1"]
+    }
+
+    def "should drop the queries that returned an updated issue"() {
+        given:
+            def cache = newCache()
+            cache.record("issuetype = epic and project=DEMO", [issue("DEMO-1")])
+            cache.record("'Epic Link' = DEMO-1", [issue("DEMO-2"), issue("DEMO-3")])
+        when:
+            cache.applyChanges([issue("DEMO-3", "Renamed story")])
+        then:
+            cache.issuesFor("issuetype = epic and project=DEMO").isPresent()
+            !cache.issuesFor("'Epic Link' = DEMO-1").isPresent()
+        and:
+            cache.issues.find { it.key == "DEMO-3" }.summary == "Renamed story"
+    }
+
+    def "should drop every query when a new issue appears"() {
+        given:
+            def cache = newCache()
+            cache.record("issuetype = epic and project=DEMO", [issue("DEMO-1")])
+            cache.record("'Epic Link' = DEMO-1", [issue("DEMO-2")])
+        when:
+            cache.applyChanges([issue("DEMO-4", "New story")])
+        then:
+            !cache.issuesFor("issuetype = epic and project=DEMO").isPresent()
+            !cache.issuesFor("'Epic Link' = DEMO-1").isPresent()
+        and:
+            cache.issues*.key as Set == ["DEMO-1", "DEMO-2", "DEMO-4"] as Set
+    }
+
+    def "should ignore a cache saved with different fields"() {
+        given:
+            def cache = newCache()
+            cache.record("issuetype = epic and project=DEMO", [issue("DEMO-1")])
+            cache.save()
+        when:
+            def cacheWithOtherFields = new PersistentIssueCache(cacheFile, "DEMO", FieldSet.STATUS, [], oneDay).load()
+        then:
+            cacheWithOtherFields.issues.isEmpty()
+    }
+
+    def "should keep a separate cache file for each JIRA instance and user"() {
+        given:
+            def fileName = PersistentIssueCache.cacheFileName("https://jira.acme.com", "bruce", "DEMO", FieldSet.REQUIREMENTS, [])
+        expect:
+            fileName.startsWith("DEMO-")
+            fileName == PersistentIssueCache.cacheFileName("https://jira.acme.com", "bruce", "DEMO", FieldSet.REQUIREMENTS, [])
+            fileName != PersistentIssueCache.cacheFileName("https://jira.wayne.com", "bruce", "DEMO", FieldSet.REQUIREMENTS, [])
+            fileName != PersistentIssueCache.cacheFileName("https://jira.acme.com", "robin", "DEMO", FieldSet.REQUIREMENTS, [])
+    }
+
+    def "should ask for the issues updated since the last sync"() {
+        expect:
+            newCache().changedIssuesJQL().startsWith("project=DEMO and updated >= -")
+    }
+
+    private PersistentIssueCache newCache() {
+        new PersistentIssueCache(cacheFile, "DEMO", FieldSet.REQUIREMENTS, [], oneDay)
+    }
+
+    private static IssueSummary issue(String key, String summary = "Issue " + key) {
+        new IssueSummary(null, 1L, key, summary, "", [:], "story", "Open")
+    }
+}
@@ -0,0 +1,48 @@
+package net.serenitybdd.plugins.jira
+
+import net.serenitybdd.plugins.jira.requirements.RequirementsIndex
+import net.thucydides.core.requirements.model.Requirement
+import spock.lang.Specification
+
+class WhenIndexingRequirements extends Specification {
+
+    def story = requirement("DEMO-3", "story", "Buy a widget")
+    def feature = requirement("DEMO-2", "feature", "Shopping cart").withChildren([story])
+    def epic = requirement("DEMO-1", "epic", "Online shop").withChildren([feature])
+    def otherEpic = requirement("DEMO-4", "epic", "Back office")
+
+    def index = RequirementsIndex.of([epic, otherEpic])
+
+    def "should list the requirements depth first"() {
+        expect:
+            index.flattenedRequirements*.cardNumber == ["DEMO-1", "DEMO-2", "DEMO-3", "DEMO-4"]
+    }
+
+    def "should find a requirement by card number, ignoring case"() {
+        expect:
+            index.getRequirementWithCardNumber("demo-2").get().name == "Shopping cart"
+            !index.getRequirementWithCardNumber("DEMO-99").isPresent()
+    }
+
+    def "should find the ancestors of a card"() {
+        expect:
+            index.getAncestorsOf("DEMO-3")*.cardNumber == ["DEMO-2", "DEMO-1"]
+            index.getAncestorsOf("DEMO-1").isEmpty()
+    }
+
+    def "should find the parent of a requirement"() {
+        expect:
+            index.getParentOf(story).get().cardNumber == "DEMO-2"
+            !index.getParentOf(epic).isPresent()
+    }
+
+    def "should find a requirement by type and name"() {
+        expect:
+            index.getRequirementCalled("feature", "Shopping cart").get().cardNumber == "DEMO-2"
+            !index.getRequirementCalled("story", "Shopping cart").isPresent()
+    }
+
+    def requirement(String cardNumber, String type, String name) {
+        Requirement.named(name).withOptionalCardNumber(cardNumber).withType(type).withNarrative("")
+    }
+}
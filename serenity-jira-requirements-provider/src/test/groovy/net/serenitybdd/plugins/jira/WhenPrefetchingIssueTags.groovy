@@ -0,0 +1,34 @@
+package net.serenitybdd.plugins.jira
+
+import net.serenitybdd.plugins.jira.client.FieldSet
+import net.serenitybdd.plugins.jira.client.JIRAAuthenticationError
+import net.serenitybdd.plugins.jira.client.JerseyJiraClient
+import net.serenitybdd.plugins.jira.domain.IssueSummary
+import net.serenitybdd.plugins.jira.model.JQLException
+import net.serenitybdd.plugins.jira.requirements.IssueTagReader
+import net.serenitybdd.plugins.jira.requirements.RequirementsIndex
+import spock.lang.Specification
+
+class WhenPrefetchingIssueTags extends Specification {
+
+    def jiraClient = Mock(JerseyJiraClient)
+    def issue = Mock(IssueSummary)
+
+    def setup() {
+        issue.getFixVersions() >> ["Release 1"]
+    }
+
+    def "should read the tags of each issue one at a time when the batch lookup fails"() {
+        given:
+            def tagReader = new IssueTagReader(jiraClient, RequirementsIndex.of([]), "DEMO")
+        when:
+            def tags = tagReader.prefetch(["DEMO-1"]).addVersionTags("DEMO-1").tags
+        then:
+            1 * jiraClient.findByKeys(["DEMO-1"], FieldSet.REQUIREMENTS) >> { throw failure }
+            1 * jiraClient.findByKey("DEMO-1", FieldSet.REQUIREMENTS) >> Optional.of(issue)
+            tags*.name == ["Release 1"]
+        where:
+            failure << [new JQLException("JIRA query failed: error 500"),
+                        new JIRAAuthenticationError("Authentication error (401) for user bruce")]
+    }
+}
@@ -0,0 +1,70 @@
+package net.serenitybdd.plugins.jira.requirements
+
+import net.serenitybdd.plugins.jira.domain.IssueSummary
+import net.serenitybdd.plugins.jira.service.SystemPropertiesJIRAConfiguration
+import net.thucydides.core.requirements.model.Requirement
+import net.thucydides.core.util.MockEnvironmentVariables
+import spock.lang.Specification
+
+import java.util.concurrent.ThreadLocalRandom
+
+class WhenLoadingRequirementsConcurrently extends Specification {
+
+    def environmentVariables = new MockEnvironmentVariables()
+
+    def childKeys = ["DEMO-1": ["DEMO-3", "DEMO-4"],
+                     "DEMO-2": ["DEMO-5"],
+                     "DEMO-3": ["DEMO-6", "DEMO-7", "DEMO-8"],
+                     "DEMO-4": ["DEMO-9"],
+                     "DEMO-5": ["DEMO-10", "DEMO-11"]]
+
+    def setup() {
+        environmentVariables.setProperty('jira.url', 'http://localhost:8080')
+        environmentVariables.setProperty('jira.project', 'DEMO')
+        environmentVariables.setProperty('jira.max.threads', '8')
+    }
+
+    def "should build the same hierarchy as the serial loader, whatever order the queries finish in"() {
+        given:
+            def requirementsProvider = new CannedRequirementsProvider(environmentVariables, childKeys)
+            def roots = [issue("DEMO-1"), issue("DEMO-2")]
+        when:
+            def serialRequirements = new SerialRequirementsLoader(environmentVariables, requirementsProvider).loadFrom(roots)
+            def concurrentRequirements = new ConcurrentRequirementsLoader(environmentVariables, requirementsProvider).loadFrom(roots)
+        then:
+            outline(serialRequirements) == "DEMO-1(DEMO-3(DEMO-6,DEMO-7,DEMO-8),DEMO-4(DEMO-9)),DEMO-2(DEMO-5(DEMO-10,DEMO-11))"
+            outline(concurrentRequirements) == outline(serialRequirements)
+    }
+
+    private static String outline(List<Requirement> requirements) {
+        requirements.collect { it.children ? it.cardNumber + "(" + outline(it.children) + ")" : it.cardNumber }.join(",")
+    }
+
+    private static IssueSummary issue(String key) {
+        new IssueSummary(null, 1L, key, "Issue " + key, "", ["description": ""], "story", "Open")
+    }
+
+    /**
+     * Serves child issues from a fixed tree, two levels deep, after a random delay.
+     */
+    static class CannedRequirementsProvider extends JIRARequirementsProvider {
+
+        private final Map<String, List<String>> childKeys
+
+        CannedRequirementsProvider(MockEnvironmentVariables environmentVariables, Map<String, List<String>> childKeys) {
+            super(new SystemPropertiesJIRAConfiguration(environmentVariables), environmentVariables)
+            this.childKeys = childKeys
+        }
+
+        @Override
+        List<IssueSummary> findChildIssuesFor(Requirement parent, int level) {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(20))
+            childKeys.getOrDefault(parent.cardNumber, []).collect { issue(it) }
+        }
+
+        @Override
+        boolean moreRequirements(int level) {
+            level < 1
+        }
+    }
+}